@@ -0,0 +1,91 @@
+package jGABenchmark;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import jGeneticAlgorithm.*;
+import java.util.Enumeration;
+import cern.jet.random.engine.RandomEngine;
+
+/**
+ * Builds the genomes and populations used by the benchmarks.  Chromosomes
+ * are made of IntegerAlleleValues in [0, 1] so that large populations fit
+ * in a reasonable heap.
+ */
+public class Fixtures {
+
+  /**
+   * Returns an initialized ObjectGenome of the given length
+   */
+  public static ObjectGenome objectGenome(RandomEngine engine, int length) throws GAException {
+    AlleleSet[] alleleSets;
+    AlleleSet alleleSet;
+    ObjectGenome genome;
+    int i;
+
+    alleleSet = new IntegerAlleleSet(engine, 0, 1);
+    alleleSets = new AlleleSet[length];
+    for (i = 0; i < length; i++) {
+      alleleSets[i] = alleleSet;
+    }
+    genome = new ObjectGenome(alleleSets, engine);
+    genome.setMutationRate(0.01);
+    genome.initialize();
+    return genome;
+  }
+
+  /**
+   * Returns an initialized ListGenome whose length is between length / 2
+   * and length
+   */
+  public static ListGenome listGenome(RandomEngine engine, int length) throws GAException {
+    ListGenome genome;
+
+    genome = new ListGenome(engine, length / 2, length, new IntegerAlleleSet(engine, 0, 1));
+    genome.setMutationRate(0.01);
+    genome.initialize();
+    return genome;
+  }
+
+  /**
+   * Returns a population of n initialized and evaluated ObjectGenomes
+   */
+  public static Population population(RandomEngine engine, int n, int length)
+      throws GAException, CloneNotSupportedException {
+    Population pop;
+
+    pop = new Population(engine);
+    pop.setScalingObject(new RankScaler());
+    pop.setReplacementRate(0.9);
+    pop.setCrossoverRate(0.8);
+    pop.initializeWith(objectGenome(engine, length), n);
+    evaluate(pop);
+    return pop;
+  }
+
+  /**
+   * Sets the raw fitness of each genome in the population to the number of
+   * ones on its chromosome
+   */
+  public static void evaluate(Population pop) {
+    Enumeration e;
+    AlleleValue[] values;
+    int fitness;
+    int i;
+
+    e = pop.getGenomes().elements();
+    while (e.hasMoreElements()) {
+      ObjectGenome g = (ObjectGenome)e.nextElement();
+      values = g.getAlleleValues();
+      fitness = 0;
+      for (i = 0; i < values.length; i++) {
+        fitness += ((IntegerAlleleValue)values[i]).value;
+      }
+      g.setRawFitness(fitness);
+    }
+  }
+}
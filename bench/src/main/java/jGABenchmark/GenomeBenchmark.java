@@ -0,0 +1,113 @@
+package jGABenchmark;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import jGeneticAlgorithm.*;
+import java.util.concurrent.TimeUnit;
+import cern.jet.random.engine.MersenneTwister;
+import cern.jet.random.engine.RandomEngine;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures the genetic operators of the genome classes on a single pair of
+ * parents.  The primitive RealVectorGenome and BitGenome are included for
+ * comparison with the ObjectGenome.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GenomeBenchmark {
+
+  @Param({"10", "100", "1000", "10000"})
+  int chromosomeLength;
+
+  ObjectGenome objectMom, objectDad;
+  ListGenome listMom, listDad;
+  RealVectorGenome vectorMom, vectorDad;
+  BitGenome bitMom, bitDad;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    RandomEngine engine = new MersenneTwister(1);
+    RealAlleleSet[] realSets;
+    int i;
+
+    objectMom = Fixtures.objectGenome(engine, chromosomeLength);
+    objectDad = Fixtures.objectGenome(engine, chromosomeLength);
+    listMom = Fixtures.listGenome(engine, chromosomeLength);
+    listDad = Fixtures.listGenome(engine, chromosomeLength);
+
+    realSets = new RealAlleleSet[chromosomeLength];
+    for (i = 0; i < chromosomeLength; i++) {
+      realSets[i] = new RealAlleleSet(engine, 0, 1);
+    }
+    vectorMom = new RealVectorGenome(realSets, engine);
+    vectorMom.setMutationRate(0.01);
+    vectorMom.initialize();
+    vectorDad = (RealVectorGenome)vectorMom.copy();
+    vectorDad.initialize();
+
+    bitMom = new BitGenome(chromosomeLength, engine);
+    bitMom.setMutationRate(0.01);
+    bitMom.initialize();
+    bitDad = (BitGenome)bitMom.copy();
+    bitDad.initialize();
+  }
+
+  @Benchmark
+  public Genome[] objectGenomeCrossWith() {
+    return objectMom.crossWith(objectDad);
+  }
+
+  @Benchmark
+  public ObjectGenome objectGenomeMutate() {
+    objectMom.mutate();
+    return objectMom;
+  }
+
+  @Benchmark
+  public Genome objectGenomeCopy() throws CloneNotSupportedException {
+    return objectMom.copy();
+  }
+
+  @Benchmark
+  public Genome[] listGenomeCrossWith() {
+    return listMom.crossWith(listDad);
+  }
+
+  @Benchmark
+  public ListGenome listGenomeMutate() {
+    listMom.mutate();
+    return listMom;
+  }
+
+  @Benchmark
+  public Genome[] realVectorGenomeCrossWith() {
+    return vectorMom.crossWith(vectorDad);
+  }
+
+  @Benchmark
+  public RealVectorGenome realVectorGenomeMutate() {
+    vectorMom.mutate();
+    return vectorMom;
+  }
+
+  @Benchmark
+  public Genome[] bitGenomeCrossWith() {
+    return bitMom.crossWith(bitDad);
+  }
+
+  @Benchmark
+  public BitGenome bitGenomeMutate() {
+    bitMom.mutate();
+    return bitMom;
+  }
+}
@@ -0,0 +1,55 @@
+package jGABenchmark;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import jGeneticAlgorithm.*;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+import cern.jet.random.engine.MersenneTwister;
+import cern.jet.random.engine.RandomEngine;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures migration among four evaluated populations of the same species,
+ * including the sort of each population that receives migrants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class MigrationBenchmark {
+
+  @Param({"100", "10000", "1000000"})
+  int popSize;
+
+  @Param({"10"})
+  int chromosomeLength;
+
+  Species species;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    RandomEngine engine = new MersenneTwister(1);
+    Vector populations;
+    int i;
+
+    populations = new Vector();
+    for (i = 0; i < 4; i++) {
+      populations.add(Fixtures.population(engine, popSize, chromosomeLength));
+    }
+    species = new Species(populations, 0.05, engine);
+  }
+
+  @Benchmark
+  public Species migrate() {
+    species.migrate();
+    return species;
+  }
+}
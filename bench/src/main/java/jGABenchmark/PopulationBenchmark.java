@@ -0,0 +1,48 @@
+package jGABenchmark;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import jGeneticAlgorithm.*;
+import java.util.concurrent.TimeUnit;
+import cern.jet.random.engine.MersenneTwister;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures one complete generation of breeding: scaling, sorting, selection,
+ * crossover, and mutation of a population.  Each invocation first evaluates
+ * the new genomes with the cheap fitness function of Fixtures, since a
+ * per-invocation setup would cost more than breeding a small population.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class PopulationBenchmark {
+
+  @Param({"100", "10000", "1000000"})
+  int popSize;
+
+  @Param({"10", "100"})
+  int chromosomeLength;
+
+  Population pop;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    pop = Fixtures.population(new MersenneTwister(1), popSize, chromosomeLength);
+  }
+
+  @Benchmark
+  public Population evolveNextGeneration() throws GAException {
+    Fixtures.evaluate(pop);
+    pop.evolveNextGeneration();
+    return pop;
+  }
+}
@@ -0,0 +1,73 @@
+package jGABenchmark;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import jGeneticAlgorithm.*;
+import java.util.concurrent.TimeUnit;
+import cern.jet.random.engine.MersenneTwister;
+import cern.jet.random.engine.RandomEngine;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures fitness scaling and the selectors on an evaluated population.
+ * The initializeWith and scale benchmarks process the whole population,
+ * while the selectFrom benchmarks make a single selection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SelectionBenchmark {
+
+  @Param({"100", "10000", "1000000"})
+  int popSize;
+
+  @Param({"10"})
+  int chromosomeLength;
+
+  Population pop;
+  RoulletteWheelSelector roulletteWheel;
+  TournamentSelector tournament;
+  RankScaler rankScaler;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    RandomEngine engine = new MersenneTwister(1);
+
+    pop = Fixtures.population(engine, popSize, chromosomeLength);
+    pop.scale();
+    roulletteWheel = new RoulletteWheelSelector(engine);
+    roulletteWheel.initializeWith(pop);
+    tournament = new TournamentSelector(engine, 2);
+    rankScaler = new RankScaler();
+  }
+
+  @Benchmark
+  public RoulletteWheelSelector roulletteWheelInitializeWith() {
+    roulletteWheel.initializeWith(pop);
+    return roulletteWheel;
+  }
+
+  @Benchmark
+  public Genome roulletteWheelSelectFrom() throws GAException {
+    return roulletteWheel.selectFrom(pop);
+  }
+
+  @Benchmark
+  public Genome tournamentSelectFrom() throws GAException {
+    return tournament.selectFrom(pop);
+  }
+
+  @Benchmark
+  public Population rankScalerScale() throws GAException {
+    rankScaler.scale(pop);
+    return pop;
+  }
+}
@@ -36,5 +36,19 @@ public abstract class AlleleSet {
   }
 
   public abstract AlleleValue getRandomValue ();
+
+  /**
+   * Returns a random value from the allele set drawn using the uniform
+   * distribution passed in rather than the allele set's own.  Genomes call
+   * this method with their own distribution, so that allele sets may be
+   * shared by genomes that use different random number generators.  This
+   * default implementation ignores u and calls getRandomValue(); subclasses
+   * should override it in order to produce reproducible parallel runs.
+   * @param u The uniform distribution from which to draw the value
+   */
+  public AlleleValue getRandomValue(Uniform u) {
+    return this.getRandomValue();
+  }
+
 	public abstract String debug();
 }
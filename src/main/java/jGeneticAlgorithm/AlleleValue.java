@@ -11,7 +11,10 @@ import java.io.Serializable;
 
 /**
  * Objects which implement this interface may have instances as specific
- * values at locations along a genome.
+ * values at locations along a genome.  Implementations should override
+ * equals and hashCode so that two allele values holding the same value are
+ * equal.  Genomes compare their chromosomes by value, which allows a
+ * FitnessCache to recognize identical genomes.
  */
 public interface AlleleValue extends Serializable {
   /**
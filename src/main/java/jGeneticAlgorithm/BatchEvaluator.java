@@ -0,0 +1,348 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.util.Vector;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The BatchEvaluator evaluates the unevaluated genomes of every population
+ * in every species with a BatchFitnessFunction.  It gathers the genomes,
+ * divides them into batches of a configurable size, and hands each batch to
+ * the function in one call on an ExecutorService.  Several batches are kept
+ * in flight at once, so that the next batch is already being evaluated
+ * while the results of the last are being stored.  By default the batches
+ * run on the common ForkJoinPool with two in flight.
+ *
+ * The fitness function runs on the worker threads, but the raw fitness of
+ * each genome is set on the thread calling evaluate, as batches finish.
+ *
+ * If a FitnessCache is assigned, each genome is looked up in the cache before
+ * it is placed in a batch, and identical genomes within one call are
+ * evaluated only once.  If a PersistentFitnessStore is assigned, genomes not
+ * in the cache are looked up in the store before they are placed in a
+ * batch, and evaluated genomes are added to it.
+ */
+public class BatchEvaluator implements EvaluateGenomes {
+
+  /**
+   * The function used to compute the fitness of each batch
+   */
+  BatchFitnessFunction fitnessFunction;
+
+  /**
+   * The executor on which the fitness function is run
+   */
+  ExecutorService executor;
+
+  /**
+   * The largest number of genomes in a batch
+   */
+  int batchSize;
+
+  /**
+   * The largest number of batches being evaluated at once
+   */
+  int maxBatchesInFlight = 2;
+
+  /**
+   * The cache and persistent store consulted before evaluating a genome
+   */
+  FitnessMemory memory = new FitnessMemory();
+
+  /**
+   * The number of genomes evaluated by the fitness function in the last
+   * call to evaluate
+   */
+  int lastEvaluationCount = 0;
+
+  /**
+   * The number of batches in the last call to evaluate
+   */
+  int lastBatchCount = 0;
+
+  /**
+   * The elapsed time, in nanoseconds, of the last call to evaluate
+   */
+  long lastEvaluationNanos = 0;
+
+  /**
+   * Constructor
+   * Evaluates batches on the common ForkJoinPool.
+   * @param f The fitness function applied to each batch
+   * @param batchSize The largest number of genomes in a batch.  Must be a
+   * positive integer.
+   */
+  public BatchEvaluator(BatchFitnessFunction f, int batchSize)
+      throws GAException {
+    this(f, batchSize, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructor
+   * @param f The fitness function applied to each batch
+   * @param batchSize The largest number of genomes in a batch.  Must be a
+   * positive integer.
+   * @param e The executor on which the fitness function is run
+   */
+  public BatchEvaluator(BatchFitnessFunction f, int batchSize,
+      ExecutorService e) throws GAException {
+    super();
+    fitnessFunction = f;
+    executor = e;
+    this.setBatchSize(batchSize);
+  }
+
+  /**
+   * Sets the largest number of genomes in a batch
+   * @param n The batch size.  Must be a positive integer.
+   */
+  public void setBatchSize(int n) throws GAException {
+    if (n <= 0) {
+      throw new GAException("The batch size must be a positive integer");
+    }
+    batchSize = n;
+  }
+
+  /**
+   * Returns the largest number of genomes in a batch
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Sets the largest number of batches evaluated at once
+   * @param n The number of batches.  Must be a positive integer.
+   */
+  public void setMaxBatchesInFlight(int n) throws GAException {
+    if (n <= 0) {
+      throw new GAException(
+          "The number of batches in flight must be a positive integer");
+    }
+    maxBatchesInFlight = n;
+  }
+
+  /**
+   * Returns the largest number of batches evaluated at once
+   */
+  public int getMaxBatchesInFlight() {
+    return maxBatchesInFlight;
+  }
+
+  /**
+   * Sets the cache consulted before a genome is placed in a batch
+   * @param cache The fitness cache, or null to evaluate every genome
+   */
+  public void setFitnessCache(FitnessCache cache) {
+    memory.cache = cache;
+  }
+
+  /**
+   * Returns the cache consulted before a genome is placed in a batch
+   */
+  public FitnessCache getFitnessCache() {
+    return memory.cache;
+  }
+
+  /**
+   * Sets the persistent store consulted before a genome is evaluated, after
+   * the fitness cache.  The store is not closed by this evaluator.  A
+   * genome the store cannot encode is evaluated without it, and the failure
+   * is returned by getFitnessStoreFailure().
+   * @param store The fitness store, or null for none
+   */
+  public void setFitnessStore(PersistentFitnessStore store) {
+    memory.store = store;
+    memory.lastFailure = null;
+  }
+
+  /**
+   * Returns the persistent store consulted before a genome is evaluated
+   */
+  public PersistentFitnessStore getFitnessStore() {
+    return memory.store;
+  }
+
+  /**
+   * Returns the last failure of the fitness store to encode a genome, or
+   * null if it has not failed
+   */
+  public GAException getFitnessStoreFailure() {
+    return memory.lastFailure;
+  }
+
+  /**
+   * Evaluates every unevaluated genome in every population of each species
+   * @param species A vector of the species to evaluate
+   */
+  public void evaluate(Vector<Genome> species) {
+    this.evaluateGenomes(Species.getUnevaluatedGenomes(species));
+  }
+
+  /**
+   * Evaluates each genome in the vector in batches using the fitness
+   * function and sets its raw fitness.  This method returns when all of the
+   * genomes have been evaluated.
+   * @param genomes The genomes to evaluate
+   */
+  public void evaluateGenomes(Vector<Genome> genomes) {
+    Vector<Genome> distinct;      // the genomes to pass to the fitness function
+    Vector<Genome> duplicates;    // genomes identical to one in distinct
+    Vector<Genome> originals;     // the genome in distinct for each duplicate
+    HashMap<Genome, Genome> seen; // the genomes of distinct, by value
+    ExecutorCompletionService<Batch> completion;
+    Batch done;
+    Double cached;
+    long start;
+    int next;            // the position in distinct of the next batch
+    int inFlight;        // the number of batches submitted but not finished
+    int i;
+
+    start = System.nanoTime();
+    distinct = new Vector<Genome>(genomes.size());
+    duplicates = new Vector<Genome>();
+    originals = new Vector<Genome>();
+    seen = new HashMap<Genome, Genome>();
+    for (i = 0; i < genomes.size(); i++) {
+      Genome g = genomes.elementAt(i);
+      if (memory.isEmpty()) {
+        distinct.add(g);
+        continue;
+      }
+      cached = memory.lookup(g);
+      if (cached != null) {
+        g.setRawFitness(cached.doubleValue());
+      }
+      else if (seen.containsKey(g)) {
+        duplicates.add(g);
+        originals.add(seen.get(g));
+      }
+      else {
+        seen.put(g, g);
+        distinct.add(g);
+      }
+    }
+
+    // keep up to maxBatchesInFlight batches in flight until all are done
+    completion = new ExecutorCompletionService<Batch>(executor);
+    next = 0;
+    inFlight = 0;
+    lastBatchCount = 0;
+    try {
+      while (next < distinct.size() || inFlight > 0) {
+        while (next < distinct.size() && inFlight < maxBatchesInFlight) {
+          completion.submit(new Batch(distinct, next,
+              Math.min(next + batchSize, distinct.size())));
+          next += batchSize;
+          inFlight++;
+          lastBatchCount++;
+        }
+        done = completion.take().get();
+        inFlight--;
+        for (i = 0; i < done.genomes.length; i++) {
+          done.genomes[i].setRawFitness(done.fitness[i]);
+          if (!memory.isEmpty()) {
+            memory.remember(done.genomes[i], done.fitness[i]);
+          }
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    catch (ExecutionException e) {
+      System.err.println("Fitness evaluation failed: " + e.getCause());
+      e.getCause().printStackTrace();
+      System.exit(1);
+    }
+
+    for (i = 0; i < duplicates.size(); i++) {
+      duplicates.elementAt(i).setRawFitness(
+          originals.elementAt(i).getRawFitness());
+    }
+    lastEvaluationNanos = System.nanoTime() - start;
+    lastEvaluationCount = distinct.size();
+  }
+
+  /**
+   * Returns the number of genomes evaluated by the fitness function in the
+   * last call to evaluate
+   */
+  public int getLastEvaluationCount() {
+    return lastEvaluationCount;
+  }
+
+  /**
+   * Returns the number of batches in the last call to evaluate
+   */
+  public int getLastBatchCount() {
+    return lastBatchCount;
+  }
+
+  /**
+   * Returns the elapsed time, in nanoseconds, of the last call to evaluate
+   */
+  public long getLastEvaluationNanos() {
+    return lastEvaluationNanos;
+  }
+
+  /**
+   * Returns the throughput of the last call to evaluate in genomes
+   * evaluated per second
+   */
+  public double getEvaluationsPerSecond() {
+    if (lastEvaluationNanos == 0) {
+      return 0;
+    }
+    return lastEvaluationCount / (lastEvaluationNanos / 1.0e9);
+  }
+
+  /**
+   * One batch of genomes evaluated on the executor
+   */
+  class Batch implements Callable<Batch> {
+
+    /**
+     * The genomes of the batch
+     */
+    Genome[] genomes;
+
+    /**
+     * The fitness of each genome, once evaluated
+     */
+    double[] fitness;
+
+    /**
+     * Constructor
+     * @param source The genomes to take the batch from
+     * @param from The position of the first genome of the batch
+     * @param to The position after the last genome of the batch
+     */
+    Batch(Vector<Genome> source, int from, int to) {
+      int i;
+
+      genomes = new Genome[to - from];
+      for (i = from; i < to; i++) {
+        genomes[i - from] = source.elementAt(i);
+      }
+      fitness = new double[genomes.length];
+    }
+
+    public Batch call() {
+      fitnessFunction.evaluate(genomes, fitness);
+      return this;
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * An object which computes the fitness of many genomes in one call
+ * implements this interface.  It suits fitness backends, such as simulators
+ * or vectorized models, that are much faster per genome when given hundreds
+ * of candidates at once.  The BatchEvaluator gathers the unevaluated genomes
+ * of the algorithm into batches and hands each batch to this function.
+ * Several batches may be evaluated at once on different threads, so
+ * implementations must not depend on shared mutable state.
+ */
+public interface BatchFitnessFunction {
+  /**
+   * Computes the raw fitness of each genome in a batch.  The genomes must
+   * not be modified.
+   * @param genomes The genomes to evaluate
+   * @param fitness An array the same length as genomes which receives the
+   * raw fitness of each genome
+   */
+  public void evaluate(Genome[] genomes, double[] fitness);
+}
@@ -0,0 +1,436 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.util.Arrays;
+import java.util.Vector;
+import java.nio.ByteBuffer;
+import cern.jet.random.engine.RandomEngine;
+
+/**
+ * The BitGenome is a fixed length binary chromosome.  It represents the same
+ * solutions as an ObjectGenome built over IntegerAlleleSets of 0 and 1, but
+ * it packs 64 bits into each long of its chromosome rather than storing one
+ * IntegerAlleleValue object per bit.  Bit i of the chromosome is bit (i % 64)
+ * of word (i / 64).  Unused bits of the last word are always 0.
+ *
+ * Crossover copies whole words, masking only the words that contain a
+ * crossover point.  Uniform crossover, which may be selected instead of
+ * n point crossover, draws a random 64 bit mask for each word.  Mutation
+ * flips each bit with probability mutationRate.  Skip sampling mutation is
+ * selected by default, so the cost of mutation is proportional to the
+ * number of bits flipped rather than to the length of the chromosome.
+ */
+public class BitGenome extends Genome {
+
+  /**
+   * The bits of the chromosome, 64 to a word
+   */
+  long[] words;
+
+  /**
+   * The number of bits on the chromosome
+   */
+  int length;
+
+  /**
+   * The number of crossover points for the genome.  Default = 2.
+   */
+  int crossoverPoints = 2;
+
+  /**
+   * Set to true to perform uniform crossover instead of n point crossover
+   */
+  boolean uniformCrossover = false;
+
+  /**
+   * Constructor
+   * @param n The number of bits on the chromosome.  Must be a positive
+   * integer.
+   * @param engine A random number generator from the cern.jet.random.engine
+   * library.
+   * @throws GAException
+   */
+  public BitGenome(int n, RandomEngine engine) throws GAException {
+    super(engine);
+    if (n <= 0) {
+      throw new GAException(
+        "The length of a BitGenome must be a positive integer.");
+    }
+    length = n;
+    words = new long[(n + 63) >>> 6];
+    skipSamplingMutation = true;
+  }
+
+  /**
+   * Returns the number of bits on the chromosome
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * Returns the words holding the chromosome.  Changes to the returned array
+   * change the genome.
+   */
+  public long[] getWords() {
+    return words;
+  }
+
+  /**
+   * Returns the value of a bit on the chromosome
+   * @param i The position of the bit
+   */
+  public boolean getBit(int i) {
+    return (words[i >>> 6] & (1L << i)) != 0;
+  }
+
+  /**
+   * Sets the value of a bit on the chromosome
+   * @param i The position of the bit
+   * @param b The new value of the bit
+   */
+  public void setBit(int i, boolean b) {
+    if (b) {
+      words[i >>> 6] |= 1L << i;
+    }
+    else {
+      words[i >>> 6] &= ~(1L << i);
+    }
+  }
+
+  /**
+   * Flips the value of a bit on the chromosome
+   * @param i The position of the bit
+   */
+  public void flipBit(int i) {
+    words[i >>> 6] ^= 1L << i;
+  }
+
+  /**
+   * Returns the number of bits set to 1 on the chromosome
+   */
+  public int cardinality() {
+    int count = 0;
+    int i;
+
+    for (i = 0; i < words.length; i++) {
+      count += Long.bitCount(words[i]);
+    }
+    return count;
+  }
+
+  /**
+   * Set the number of crossover points for the genome.  Default = 2.
+   * @param n The number of crossover points must be a positive integer.
+   * @throws GAException
+   */
+  public void setCrossoverPoints(int n) throws GAException {
+    if (n <= 0) {
+      throw new GAException(
+        "The number of crossover points must be a positive integer.");
+    }
+    crossoverPoints = n;
+  }
+
+  /**
+   * Returns the number of crossover points for the genome.
+   */
+  public int getCrossoverPoints() {
+    return crossoverPoints;
+  }
+
+  /**
+   * Set to true to perform uniform crossover instead of n point crossover.
+   * Default = false.
+   */
+  public void setUniformCrossover(boolean b) {
+    uniformCrossover = b;
+  }
+
+  /**
+   * Returns true if the genome performs uniform crossover
+   */
+  public boolean isUniformCrossover() {
+    return uniformCrossover;
+  }
+
+  /**
+   * Randomly initializes every bit on the chromosome
+   */
+  public void initialize() {
+    int i;
+
+    this.setIsEvaluated(false);
+    for (i = 0; i < words.length; i++) {
+      words[i] = randomGenerator.nextLong();
+    }
+    words[words.length - 1] &= lastWordMask();
+  }
+
+  /**
+   * Returns an independent deep copy of this Genome.
+   */
+  public Genome copy() throws CloneNotSupportedException {
+    BitGenome copy;
+
+    copy = (BitGenome)(super.clone());
+    copy.words = words.clone();
+    return copy;
+  }
+
+  /**
+   * Performs mutation by flipping each bit with probability mutationRate.
+   * If any bit is flipped, the genome is marked as not evaluated.
+   */
+  public void mutate() {
+    int i;
+
+    for (i = this.nextMutationPosition(0, length); i < length;
+         i = this.nextMutationPosition(i + 1, length)) {
+      this.flipBit(i);
+      this.setIsEvaluated(false);
+    }
+  }
+
+  /**
+   * Performs crossover using this genome and the dad Genome passed.  Returns
+   * an array of children (numChildren) created by n point crossover, or by
+   * uniform crossover if it is selected.  Uniform crossover creates children
+   * in pairs, the second child taking each bit from the parent the first
+   * child did not.
+   */
+  public Genome[] crossWith(Genome dad) {
+    long[] dadWords;            // the words of the dad genome
+    long[] currentWords;        // the words being copied (mom's or dad's)
+    int[] crossPoints = null;   // the sorted crossover points
+    BitGenome child;
+    BitGenome sibling;
+    Genome[] returnValue;       // The array of children to return
+    long mask;                  // the bits taken from the mom
+    int position;               // the first bit not yet copied
+    int i, j;
+
+    dadWords = ((BitGenome)dad).words;
+    returnValue = new Genome[numChildren];
+    if (!uniformCrossover) {
+      crossPoints = new int[crossoverPoints];
+    }
+
+    for (i = 0; i < numChildren; i++) {
+      child = this.newChild();
+      if (uniformCrossover) {
+        sibling = (i + 1 < numChildren) ? this.newChild() : null;
+        for (j = 0; j < words.length; j++) {
+          mask = randomGenerator.nextLong();
+          child.words[j] = (words[j] & mask) | (dadWords[j] & ~mask);
+          if (sibling != null) {
+            sibling.words[j] = (dadWords[j] & mask) | (words[j] & ~mask);
+          }
+        }
+        if (sibling != null) {
+          returnValue[i] = child;
+          i++;
+          child = sibling;
+        }
+      }
+      else {
+        // generate the crossover points
+        for (j = 0; j < crossoverPoints; j++) {
+          crossPoints[j] = uniform.nextIntFromTo(0, length - 1);
+        }
+        Arrays.sort(crossPoints);
+
+        // copy alternating segments, starting with the mom's bits
+        currentWords = words;
+        position = 0;
+        for (j = 0; j < crossoverPoints; j++) {
+          copyBits(currentWords, child.words, position, crossPoints[j]);
+          position = Math.max(position, crossPoints[j]);
+          currentWords = (currentWords == words) ? dadWords : words;
+        }
+        copyBits(currentWords, child.words, position, length);
+      }
+      returnValue[i] = child;
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns an unevaluated copy of this genome with an empty chromosome
+   */
+  BitGenome newChild() {
+    BitGenome child = null;
+
+    try {
+      child = (BitGenome)this.clone();
+    }
+    catch (CloneNotSupportedException e) {
+      System.out.print("Clone not supported exception: " + e.getMessage());
+      System.exit(1);
+    }
+    child.setIsEvaluated(false);
+    child.words = new long[words.length];
+    return child;
+  }
+
+  /**
+   * Copies the bits in positions [from, to) of the source words to the
+   * destination words.  Whole words are copied directly, and only the first
+   * and last words are masked.
+   */
+  static void copyBits(long[] source, long[] destination, int from, int to) {
+    int firstWord, lastWord;
+    long firstMask, lastMask;
+
+    if (from >= to) {
+      return;
+    }
+    firstWord = from >>> 6;
+    lastWord = (to - 1) >>> 6;
+    firstMask = -1L << from;
+    lastMask = -1L >>> (63 - ((to - 1) & 63));
+    if (firstWord == lastWord) {
+      firstMask &= lastMask;
+      destination[firstWord] = (destination[firstWord] & ~firstMask)
+        | (source[firstWord] & firstMask);
+      return;
+    }
+    destination[firstWord] = (destination[firstWord] & ~firstMask)
+      | (source[firstWord] & firstMask);
+    System.arraycopy(source, firstWord + 1, destination, firstWord + 1,
+      lastWord - firstWord - 1);
+    destination[lastWord] = (destination[lastWord] & ~lastMask)
+      | (source[lastWord] & lastMask);
+  }
+
+  /**
+   * Returns a mask of the bits of the last word that are on the chromosome
+   */
+  long lastWordMask() {
+    return -1L >>> (63 - ((length - 1) & 63));
+  }
+
+  /**
+   * Returns the number of positions at which this genome and another
+   * BitGenome of the same length differ
+   * @param other The genome to compare with this one
+   */
+  public int hammingDistance(BitGenome other) {
+    int distance = 0;
+    int i;
+
+    for (i = 0; i < words.length; i++) {
+      distance += Long.bitCount(words[i] ^ other.words[i]);
+    }
+    return distance;
+  }
+
+  /**
+   * Returns the mean Hamming distance between all pairs of genomes in a
+   * population of BitGenomes, a measure of the population's diversity.
+   * This compares every pair of genomes, so its cost grows with the square
+   * of the population size.
+   * @param p A population of BitGenomes of the same length
+   */
+  public static double meanHammingDistance(Population p) {
+    Vector genomes;
+    BitGenome g;
+    long total = 0;
+    long pairs;
+    int i, j;
+
+    genomes = p.getGenomes();
+    if (genomes.size() < 2) {
+      return 0;
+    }
+    for (i = 0; i < genomes.size(); i++) {
+      g = (BitGenome)genomes.elementAt(i);
+      for (j = i + 1; j < genomes.size(); j++) {
+        total += g.hammingDistance((BitGenome)genomes.elementAt(j));
+      }
+    }
+    pairs = (long)genomes.size() * (genomes.size() - 1) / 2;
+    return (double)total / pairs;
+  }
+
+  /**
+   * Returns the number of bytes encode() writes for this genome
+   */
+  public int getEncodedSize() {
+    return 4 + 8 * words.length;
+  }
+
+  /**
+   * Writes the number of bits followed by the words holding them
+   */
+  public void encode(ByteBuffer out) {
+    int i;
+
+    out.putInt(length);
+    for (i = 0; i < words.length; i++) {
+      out.putLong(words[i]);
+    }
+  }
+
+  public void decode(ByteBuffer in) throws GAException {
+    int i, n;
+
+    n = in.getInt();
+    if (n != length) {
+      throw new GAException("Expected " + length + " bits but read " + n);
+    }
+    for (i = 0; i < words.length; i++) {
+      words[i] = in.getLong();
+    }
+  }
+
+  /**
+   * Returns true if o is a genome of the same class with an equal chromosome.
+   * Fitness values are not compared.
+   */
+  public boolean equals(Object o) {
+    if (o == null || o.getClass() != this.getClass()) {
+      return false;
+    }
+    return length == ((BitGenome)o).length
+      && Arrays.equals(words, ((BitGenome)o).words);
+  }
+
+  /**
+   * Returns a hash code based on the chromosome of this genome
+   */
+  public int hashCode() {
+    return Arrays.hashCode(words);
+  }
+
+  /**
+   * Returns a string description of this object's parameters
+   */
+  public String describeParameters() {
+    StringBuffer bits;
+    String description;
+    int i;
+
+    description = super.describeParameters();
+    if (uniformCrossover) {
+      description += "uniform crossover\n";
+    }
+    else {
+      description += "crossoverPoints: " + crossoverPoints + "\n";
+    }
+
+    bits = new StringBuffer(length + 1);
+    for (i = 0; i < length; i++) {
+      bits.append(this.getBit(i) ? '1' : '0');
+    }
+    description += bits + "\n";
+
+    return description;
+  }
+}
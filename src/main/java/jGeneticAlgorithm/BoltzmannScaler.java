@@ -0,0 +1,127 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * The BoltzmannScaler scales a Population so that the selection weight of
+ * each genome is exp(-(best - f) / T), where f is the fitness of the
+ * genome, best is the fitness of the most fit genome, and T is a
+ * temperature in the units of fitness.  At high temperatures all genomes
+ * are nearly equally likely; as the temperature falls, selection
+ * concentrates on the most fit.  The temperature may be lowered by a
+ * cooling rate after each generation, down to a minimum temperature.
+ */
+public class BoltzmannScaler extends StreamingScaler {
+
+  /**
+   * The current temperature
+   */
+  double temperature;
+
+  /**
+   * The factor by which the temperature is multiplied after each scaling
+   */
+  double coolingRate = 1.0;
+
+  /**
+   * The temperature below which cooling stops
+   */
+  double minimumTemperature = 0.0;
+
+  /**
+   * Constructor
+   * @param temperature The initial temperature.  Must be positive.
+   */
+  public BoltzmannScaler(double temperature) throws GAException {
+    super();
+    this.setTemperature(temperature);
+  }
+
+  /**
+   * Sets the current temperature
+   * @param temperature The temperature.  Must be positive.
+   */
+  public void setTemperature(double temperature) throws GAException {
+    if (!(temperature > 0)) {
+      throw new GAException("The temperature must be positive");
+    }
+    this.temperature = temperature;
+  }
+
+  /**
+   * Returns the current temperature
+   */
+  public double getTemperature() {
+    return temperature;
+  }
+
+  /**
+   * Sets the factor by which the temperature is multiplied after each
+   * scaling
+   * @param coolingRate The factor.  Must be greater than 0 and no more
+   * than 1.
+   */
+  public void setCoolingRate(double coolingRate) throws GAException {
+    if (!(coolingRate > 0 && coolingRate <= 1)) {
+      throw new GAException(
+          "The cooling rate must be in the interval (0, 1]");
+    }
+    this.coolingRate = coolingRate;
+  }
+
+  /**
+   * Returns the factor by which the temperature is multiplied after each
+   * scaling
+   */
+  public double getCoolingRate() {
+    return coolingRate;
+  }
+
+  /**
+   * Sets the temperature below which cooling stops
+   * @param minimumTemperature The temperature.  Must not be negative.
+   */
+  public void setMinimumTemperature(double minimumTemperature)
+      throws GAException {
+    if (!(minimumTemperature >= 0)) {
+      throw new GAException("The minimum temperature must not be negative");
+    }
+    this.minimumTemperature = minimumTemperature;
+  }
+
+  /**
+   * Returns the temperature below which cooling stops
+   */
+  public double getMinimumTemperature() {
+    return minimumTemperature;
+  }
+
+  /**
+   * Scales the population at the current temperature and then cools it
+   */
+  public void scale(Population pop) throws GAException {
+    double cooled;       // the temperature for the next generation
+
+    super.scale(pop);
+    cooled = temperature * coolingRate;
+    if (cooled < minimumTemperature) {
+      cooled = minimumTemperature;
+    }
+    if (cooled > 0) {
+      temperature = cooled;
+    }
+  }
+
+  /**
+   * Returns exp(-(best - merit) / T).  Measuring from the most fit genome
+   * keeps the weights between 0 and 1 whatever the scale of fitness.
+   */
+  protected double weight(double merit, FitnessSummary s) {
+    return Math.exp((merit - s.getMax()) / temperature);
+  }
+}
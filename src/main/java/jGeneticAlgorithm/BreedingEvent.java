@@ -0,0 +1,39 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event spanning the selection, crossover, and
+ * mutation that produce the children of one generation of a population.
+ */
+@Name("jGeneticAlgorithm.Breeding")
+@Label("Breeding")
+@Category("Genetic Algorithm")
+@Description("Selection, crossover, and mutation for one generation of a population")
+@StackTrace(false)
+public class BreedingEvent extends Event {
+
+  @Label("Population Id")
+  int populationId;
+
+  @Label("Generation")
+  int generation;
+
+  @Label("Parents Selected")
+  int parentsSelected;
+
+  @Label("Children")
+  int children;
+}
@@ -0,0 +1,710 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import cern.jet.random.engine.RandomEngine;
+
+/**
+ * A checkpointer saves the full state of a GA to a compact binary file, so
+ * that an interrupted run may be resumed.  It writes the generation counters
+ * of the GA, the migration rate of each species, and for each population its
+ * generation, rates, genomes with their fitness and rank, archive, and best
+ * genome.  The random number generators of every species and population are
+ * written as well, so a restored run continues the same random sequence the
+ * original would have.
+ *
+ * The checkpointer listens to the GA and takes a snapshot at the end of
+ * every interval generations.  The snapshot is encoded into a reused direct
+ * buffer on the thread stepping the GA, and written to disk on a background
+ * thread while the next generations evolve.  Each file is first written
+ * beside the checkpoint and then moved over it, so a crash while writing
+ * leaves the last complete checkpoint in place.  A checkpoint is restored
+ * by mapping the file into memory with restore().
+ *
+ * The genomes must support binary encoding, as BitGenome, RealVectorGenome,
+ * ObjectGenome, and ListGenome do with integer and real allele values.  The
+ * state of the scaling and selection objects of a population is not saved,
+ * and every genome is assumed to use the random number generator of its
+ * population.  A checkpoint must be smaller than 2 GB.
+ */
+public class Checkpointer implements GAListener {
+
+  /**
+   * The first four bytes of a checkpoint file, "JGAC"
+   */
+  static final int MAGIC = 0x4A474143;
+
+  /**
+   * The version of the checkpoint file format
+   */
+  static final int VERSION = 1;
+
+  /**
+   * The first byte of an archive member that is also a member of the
+   * population
+   */
+  static final byte SHARED = 2;
+
+  /**
+   * The algorithm saved by this checkpointer
+   */
+  GA ga;
+
+  /**
+   * The checkpoint file
+   */
+  File file;
+
+  /**
+   * The number of generations between checkpoints
+   */
+  int interval;
+
+  /**
+   * The buffer into which snapshots are encoded, reused while it is large
+   * enough
+   */
+  ByteBuffer buffer = null;
+
+  /**
+   * The thread writing snapshots to disk
+   */
+  ExecutorService writer;
+
+  /**
+   * The write in progress, or null if there has been none
+   */
+  Future<?> pendingWrite = null;
+
+  /**
+   * The generation of the last checkpoint written, or 0 if none has been
+   */
+  volatile int lastGeneration = 0;
+
+  /**
+   * The exception thrown by the last failed checkpoint, or null
+   */
+  volatile Exception lastFailure = null;
+
+  /**
+   * Constructor
+   * Adds the checkpointer as a listener to the GA.
+   * @param ga The algorithm to be saved
+   * @param file The checkpoint file
+   * @param interval The number of generations between checkpoints.  Must be
+   * a positive integer.
+   */
+  public Checkpointer(GA ga, File file, int interval) throws GAException {
+    if (interval <= 0) {
+      throw new GAException(
+          "The checkpoint interval must be a positive integer");
+    }
+    this.ga = ga;
+    this.file = file;
+    this.interval = interval;
+    writer = Executors.newSingleThreadExecutor(r -> {
+      Thread t = new Thread(r, "GA checkpoint writer");
+      t.setDaemon(true);
+      return t;
+    });
+    ga.addListener(this);
+  }
+
+  public void phaseStarted(PhaseEvent e) {
+  }
+
+  /**
+   * Takes a snapshot of the GA at the end of every interval generations
+   */
+  public void phaseEnded(PhaseEvent e) {
+    if (e.getSource() == ga && e.getPhase() == Phase.GENERATION
+        && e.getGeneration() % interval == 0) {
+      // the generation counter is advanced after the listeners are told
+      this.snapshot(e.getGeneration() + 1);
+    }
+  }
+
+  /**
+   * Takes a snapshot of the GA now and starts writing it.  The GA must not
+   * be stepped by another thread while the snapshot is taken.
+   */
+  public void checkpoint() {
+    this.snapshot(ga.getGeneration());
+  }
+
+  /**
+   * Encodes the state of the GA into the buffer and hands it to the writer
+   * thread, first waiting for the previous write to finish.  A failure is
+   * kept and reported rather than stopping the GA.
+   * @param generation The generation at which the restored GA resumes
+   */
+  void snapshot(int generation) {
+    long size;
+
+    this.await();
+    try {
+      size = encodedSize(ga);
+      if (size > Integer.MAX_VALUE) {
+        throw new GAException("A checkpoint of " + size
+            + " bytes is larger than 2 GB");
+      }
+      if (buffer == null || buffer.capacity() < size) {
+        buffer = ByteBuffer.allocateDirect((int)size);
+      }
+      buffer.clear();
+      encode(ga, generation, buffer);
+      buffer.flip();
+    }
+    catch (Exception ex) {
+      this.fail(ex);
+      return;
+    }
+    pendingWrite = writer.submit(() -> this.write(buffer, generation));
+  }
+
+  /**
+   * Writes a snapshot to a temporary file, forces it to disk, and moves it
+   * over the checkpoint file
+   */
+  void write(ByteBuffer snapshot, int generation) {
+    File tmp;
+
+    tmp = new File(file.getPath() + ".tmp");
+    try (FileChannel channel = FileChannel.open(tmp.toPath(),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (snapshot.hasRemaining()) {
+        channel.write(snapshot);
+      }
+      channel.force(false);
+    }
+    catch (IOException ex) {
+      this.fail(ex);
+      return;
+    }
+    try {
+      try {
+        Files.move(tmp.toPath(), file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (AtomicMoveNotSupportedException ex) {
+        Files.move(tmp.toPath(), file.toPath(),
+            StandardCopyOption.REPLACE_EXISTING);
+      }
+      lastGeneration = generation;
+    }
+    catch (IOException ex) {
+      this.fail(ex);
+    }
+  }
+
+  /**
+   * Keeps and reports the exception thrown by a failed checkpoint
+   */
+  void fail(Exception ex) {
+    lastFailure = ex;
+    System.err.println("Checkpoint to " + file + " failed: "
+        + ex.getMessage());
+  }
+
+  /**
+   * Waits for the checkpoint being written, if any, to reach the disk
+   */
+  public void await() {
+    if (pendingWrite == null) {
+      return;
+    }
+    try {
+      pendingWrite.get();
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    catch (ExecutionException ex) {
+      this.fail(ex);
+    }
+    pendingWrite = null;
+  }
+
+  /**
+   * Waits for the checkpoint being written, stops listening to the GA, and
+   * stops the writer thread
+   */
+  public void close() {
+    this.await();
+    ga.removeListener(this);
+    writer.shutdown();
+  }
+
+  /**
+   * Returns the generation at which the last checkpoint written resumes,
+   * or 0 if none has been written
+   */
+  public int getLastGeneration() {
+    return lastGeneration;
+  }
+
+  /**
+   * Returns the exception thrown by the last failed checkpoint, or null if
+   * none has failed
+   */
+  public Exception getLastFailure() {
+    return lastFailure;
+  }
+
+  /**
+   * Returns the checkpoint file
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Returns the random number generators of every species and population of
+   * a GA, each once, in the order they are written
+   */
+  static Vector<RandomEngine> getEngines(GA ga) {
+    IdentityHashMap<RandomEngine, Integer> seen;
+    Vector<RandomEngine> engines;
+    Vector pops;
+    Species spec;
+    RandomEngine e;
+    int i, j;
+
+    seen = new IdentityHashMap<RandomEngine, Integer>();
+    engines = new Vector<RandomEngine>();
+    for (i = 0; i < ga.species.size(); i++) {
+      spec = (Species)ga.species.elementAt(i);
+      pops = spec.getPopulations();
+      for (j = -1; j < pops.size(); j++) {
+        e = j < 0 ? spec.getRandomEngine()
+            : ((Population)pops.elementAt(j)).getRandomEngine();
+        if (!seen.containsKey(e)) {
+          seen.put(e, engines.size());
+          engines.addElement(e);
+        }
+      }
+    }
+    return engines;
+  }
+
+  /**
+   * Returns the serialized state of a random number generator
+   */
+  static byte[] serialize(RandomEngine e) throws IOException {
+    ByteArrayOutputStream bytes;
+
+    bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Returns the number of bytes used to write a GA
+   */
+  static long encodedSize(GA ga) throws GAException, IOException {
+    Vector<RandomEngine> engines;
+    Vector pops;
+    Population pop;
+    long size;
+    int i, j;
+
+    engines = getEngines(ga);
+    size = 4 + 4 + 4;                                    // magic, version, engine count
+    for (i = 0; i < engines.size(); i++) {
+      size += 4 + serialize(engines.elementAt(i)).length;
+    }
+    size += 4 + 4 + 4;                                   // generations, species count
+    for (i = 0; i < ga.species.size(); i++) {
+      pops = ((Species)ga.species.elementAt(i)).getPopulations();
+      size += 8 + 4 + 4;                                 // rate, engine, population count
+      for (j = 0; j < pops.size(); j++) {
+        pop = (Population)pops.elementAt(j);
+        size += 4 + 8 + 8 + 8 + 4 + 4;                  // counters, rates, engine
+        size += encodedSize(pop.genomes);
+        size += encodedArchiveSize(pop);
+        size += 1 + (pop.best == null ? 0 : encodedSize(pop.best));
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Returns the number of bytes used to write a list of genomes
+   */
+  static long encodedSize(Vector<Genome> genomes) throws GAException {
+    long size;
+    int i;
+
+    size = 4;
+    for (i = 0; i < genomes.size(); i++) {
+      size += encodedSize(genomes.elementAt(i));
+    }
+    return size;
+  }
+
+  /**
+   * Returns the number of bytes used to write a genome
+   */
+  static int encodedSize(Genome g) throws GAException {
+    return 1 + 8 + 8 + 4 + 4 + g.getEncodedSize();
+  }
+
+  /**
+   * Returns the number of bytes used to write the archive of a population
+   */
+  static long encodedArchiveSize(Population pop) throws GAException {
+    IdentityHashMap<Genome, Integer> members;
+    long size;
+    int i;
+
+    if (pop.archive == null) {
+      return 4;
+    }
+    members = getIndex(pop.genomes);
+    size = 4;
+    for (i = 0; i < pop.archive.size(); i++) {
+      if (members.containsKey(pop.archive.elementAt(i))) {
+        size += 1 + 4;
+      }
+      else {
+        size += encodedSize(pop.archive.elementAt(i));
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Returns the position of each genome in a list, by identity
+   */
+  static IdentityHashMap<Genome, Integer> getIndex(Vector<Genome> genomes) {
+    IdentityHashMap<Genome, Integer> index;
+    int i;
+
+    index = new IdentityHashMap<Genome, Integer>(genomes.size());
+    for (i = 0; i < genomes.size(); i++) {
+      index.put(genomes.elementAt(i), i);
+    }
+    return index;
+  }
+
+  /**
+   * Writes a GA to a buffer
+   * @param generation The generation at which the restored GA resumes
+   */
+  static void encode(GA ga, int generation, ByteBuffer out)
+      throws GAException, IOException {
+    IdentityHashMap<RandomEngine, Integer> index;
+    Vector<RandomEngine> engines;
+    Vector pops;
+    Species spec;
+    Population pop;
+    byte[] state;
+    int i, j;
+
+    out.putInt(MAGIC);
+    out.putInt(VERSION);
+    engines = getEngines(ga);
+    index = new IdentityHashMap<RandomEngine, Integer>();
+    out.putInt(engines.size());
+    for (i = 0; i < engines.size(); i++) {
+      state = serialize(engines.elementAt(i));
+      out.putInt(state.length);
+      out.put(state);
+      index.put(engines.elementAt(i), i);
+    }
+    out.putInt(generation);
+    out.putInt(ga.getNumGenerations());
+    out.putInt(ga.species.size());
+    for (i = 0; i < ga.species.size(); i++) {
+      spec = (Species)ga.species.elementAt(i);
+      pops = spec.getPopulations();
+      out.putDouble(spec.migrationRate);
+      out.putInt(index.get(spec.getRandomEngine()));
+      out.putInt(pops.size());
+      for (j = 0; j < pops.size(); j++) {
+        pop = (Population)pops.elementAt(j);
+        out.putInt(pop.generation);
+        out.putDouble(pop.crossoverRate);
+        out.putDouble(pop.replacementRate);
+        out.putDouble(pop.archiveReplacementRate);
+        out.putInt(pop.archiveSize);
+        out.putInt(index.get(pop.getRandomEngine()));
+        encode(pop.genomes, out);
+        encodeArchive(pop, out);
+        out.put((byte)(pop.best == null ? 0 : 1));
+        if (pop.best != null) {
+          encode(pop.best, out);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the archive of a population to a buffer.  The archive holds the
+   * genomes of the population itself when they were among the most fit at
+   * the last sort, so those are written as their position in the
+   * population, to be shared again when the archive is read.
+   */
+  static void encodeArchive(Population pop, ByteBuffer out)
+      throws GAException {
+    IdentityHashMap<Genome, Integer> members;
+    Integer position;
+    int i;
+
+    if (pop.archive == null) {
+      out.putInt(-1);
+      return;
+    }
+    members = getIndex(pop.genomes);
+    out.putInt(pop.archive.size());
+    for (i = 0; i < pop.archive.size(); i++) {
+      position = members.get(pop.archive.elementAt(i));
+      if (position != null) {
+        out.put(SHARED);
+        out.putInt(position);
+      }
+      else {
+        encode(pop.archive.elementAt(i), out);
+      }
+    }
+  }
+
+  /**
+   * Writes a list of genomes to a buffer
+   */
+  static void encode(Vector<Genome> genomes, ByteBuffer out)
+      throws GAException {
+    int i;
+
+    out.putInt(genomes.size());
+    for (i = 0; i < genomes.size(); i++) {
+      encode(genomes.elementAt(i), out);
+    }
+  }
+
+  /**
+   * Writes a genome, its fitness, and its rank to a buffer
+   */
+  static void encode(Genome g, ByteBuffer out) throws GAException {
+    out.put((byte)(g.isEvaluated ? 1 : 0));
+    out.putDouble(g.rawFitness);
+    out.putDouble(g.scaledFitness);
+    out.putInt(g.rank);
+    out.putInt(g.getEncodedSize());
+    g.encode(out);
+  }
+
+  /**
+   * Restores a GA from a checkpoint file.  The GA must have the same number
+   * of species and populations as the GA that was saved, and each
+   * population must hold at least one genome, or have a best genome or an
+   * archive, of the structure saved, since these are copied to hold the
+   * genomes read.  The scaling and selection objects of each population are
+   * kept, and given the restored random number generators.
+   * @param ga The algorithm into which the checkpoint is read
+   * @param file The checkpoint file
+   */
+  public static void restore(GA ga, File file)
+      throws GAException, IOException {
+    MappedByteBuffer in;
+
+    try (FileChannel channel = FileChannel.open(file.toPath(),
+        StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new GAException("The checkpoint " + file
+            + " is larger than 2 GB");
+      }
+      in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    decode(ga, in);
+  }
+
+  /**
+   * Reads a GA from a buffer written by encode()
+   */
+  static void decode(GA ga, ByteBuffer in) throws GAException, IOException {
+    RandomEngine[] engines;
+    RandomEngine engine;
+    Vector pops;
+    Species spec;
+    Population pop;
+    Genome template;
+    byte[] state;
+    int i, j, n;
+
+    if (in.getInt() != MAGIC) {
+      throw new GAException("The file is not a GA checkpoint");
+    }
+    n = in.getInt();
+    if (n != VERSION) {
+      throw new GAException("Unsupported checkpoint version " + n);
+    }
+    engines = new RandomEngine[in.getInt()];
+    for (i = 0; i < engines.length; i++) {
+      state = new byte[in.getInt()];
+      in.get(state);
+      try (ObjectInputStream s = new ObjectInputStream(
+          new ByteArrayInputStream(state))) {
+        engines[i] = (RandomEngine)s.readObject();
+      }
+      catch (ClassNotFoundException ex) {
+        throw new GAException("Unknown random number generator "
+            + ex.getMessage());
+      }
+    }
+    ga.generation = in.getInt();
+    ga.setNumGenerations(in.getInt());
+    n = in.getInt();
+    if (n != ga.species.size()) {
+      throw new GAException("The checkpoint has " + n
+          + " species but the GA has " + ga.species.size());
+    }
+    for (i = 0; i < n; i++) {
+      spec = (Species)ga.species.elementAt(i);
+      pops = spec.getPopulations();
+      spec.migrationRate = in.getDouble();
+      spec.setRandomEngine(engines[in.getInt()]);
+      if (in.getInt() != pops.size()) {
+        throw new GAException("Species " + i
+            + " of the checkpoint has a different number of populations");
+      }
+      for (j = 0; j < pops.size(); j++) {
+        pop = (Population)pops.elementAt(j);
+        template = getTemplate(pop);
+        pop.generation = in.getInt();
+        pop.crossoverRate = in.getDouble();
+        pop.replacementRate = in.getDouble();
+        pop.archiveReplacementRate = in.getDouble();
+        pop.archiveSize = in.getInt();
+        engine = engines[in.getInt()];
+        pop.genomes = decode(template, in);
+        pop.archive = decodeArchive(pop.genomes, template, in);
+        pop.best = in.get() == 0 ? null : decode(template, in.get(), in);
+        pop.updateFitnessColumns();
+        pop.setRandomEngine(engine);
+      }
+    }
+  }
+
+  /**
+   * Returns a genome of a population to be copied to hold the genomes read
+   */
+  static Genome getTemplate(Population pop) throws GAException {
+    if (pop.genomes.size() > 0) {
+      return pop.genomes.firstElement();
+    }
+    if (pop.best != null) {
+      return pop.best;
+    }
+    if (pop.archive != null && pop.archive.size() > 0) {
+      return pop.archive.firstElement();
+    }
+    throw new GAException(
+        "A population must hold a genome to restore a checkpoint into it");
+  }
+
+  /**
+   * Reads a list of genomes written by encode()
+   */
+  static Vector<Genome> decode(Genome template, ByteBuffer in)
+      throws GAException {
+    Vector<Genome> genomes;
+    int i, n;
+
+    n = in.getInt();
+    genomes = new Vector<Genome>(n);
+    for (i = 0; i < n; i++) {
+      genomes.addElement(decode(template, in.get(), in));
+    }
+    return genomes;
+  }
+
+  /**
+   * Reads an archive written by encodeArchive(), or returns null if the
+   * archive was null
+   * @param genomes The genomes of the population, already read
+   */
+  static Vector<Genome> decodeArchive(Vector<Genome> genomes,
+      Genome template, ByteBuffer in) throws GAException {
+    Vector<Genome> archive;
+    byte flags;
+    int i, n;
+
+    n = in.getInt();
+    if (n < 0) {
+      return null;
+    }
+    archive = new Vector<Genome>(n);
+    for (i = 0; i < n; i++) {
+      flags = in.get();
+      if (flags == SHARED) {
+        archive.addElement(genomes.elementAt(in.getInt()));
+      }
+      else {
+        archive.addElement(decode(template, flags, in));
+      }
+    }
+    return archive;
+  }
+
+  /**
+   * Reads a genome written by encode() into a copy of the template
+   * @param flags The first byte of the genome, already read
+   */
+  static Genome decode(Genome template, int flags, ByteBuffer in)
+      throws GAException {
+    Genome g;
+    int size, end;
+
+    try {
+      g = template.copy();
+    }
+    catch (CloneNotSupportedException e) {
+      System.out.println(e.getMessage());
+      e.printStackTrace();
+      System.exit(1);
+      return null;
+    }
+    g.isEvaluated = (flags & 1) != 0;
+    g.rawFitness = in.getDouble();
+    g.scaledFitness = in.getDouble();
+    g.rank = in.getInt();
+    size = in.getInt();
+    end = in.position() + size;
+    g.decode(in);
+    if (in.position() != end) {
+      throw new GAException("A genome read " + (in.position() - end + size)
+          + " bytes but " + size + " were written");
+    }
+    return g;
+  }
+
+}
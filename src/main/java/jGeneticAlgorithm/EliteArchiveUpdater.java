@@ -1,32 +1,43 @@
 package jGeneticAlgorithm;
 
-import java.util.Collections;
-import java.util.Enumeration;
 import java.util.Vector;
 
 /**
  * Updates an archive by keeping the most elite members
  */
 public class EliteArchiveUpdater implements ArchiveUpdater {
+    /**
+     * Merges the most fit members of a population into the archive.  Both the
+     * population and the archive must be sorted by fitness, as they are after
+     * Population.sort(), so the archive is updated by a single merge rather
+     * than by sorting.  A genome enters a full archive only if it is more fit
+     * than the worst archive member, and archive members are kept ahead of
+     * genomes of equal fitness.
+     */
     @Override
     public void updateArchive(Vector<Genome> genomes, Vector<Genome> archive, int maxArchiveSize) {
-        Enumeration<Genome> e = genomes.elements();
-        while (e.hasMoreElements()) {
-            Genome genome = e.nextElement();
-            Genome worstArchive = archive.lastElement();
-            if (genome.compareTo(worstArchive) == -1) { // If the genome from the population is more fit
-                add(genome, archive, maxArchiveSize);
-            } else {
-                break;
-            }
+        Vector<Genome> merged;
+        int i = 0;
+        int j = 0;
+
+        if (genomes.isEmpty()) {
+            return;
+        }
+        if (archive.size() >= maxArchiveSize
+                && genomes.firstElement().compareTo(archive.lastElement()) >= 0) {
+            return;  // no genome is more fit than the worst archive member
         }
-    }
 
-    void add(Genome genome, Vector<Genome> archive, int maxArchiveSize) {
-        archive.add(genome);
-        Collections.sort(archive);
-        if(archive.size() > maxArchiveSize) {
-            archive.remove(archive.lastElement());
+        merged = new Vector<Genome>(maxArchiveSize);
+        while (merged.size() < maxArchiveSize && (i < archive.size() || j < genomes.size())) {
+            if (j >= genomes.size()
+                    || (i < archive.size() && genomes.elementAt(j).compareTo(archive.elementAt(i)) >= 0)) {
+                merged.add(archive.elementAt(i++));
+            } else {
+                merged.add(genomes.elementAt(j++));
+            }
         }
+        archive.clear();
+        archive.addAll(merged);
     }
 }
@@ -0,0 +1,28 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.util.Vector;
+
+/**
+ * An evaluator that can evaluate a list of genomes, rather than digging the
+ * genomes out of every species itself, implements this interface.  When
+ * the evaluator of a GA implements it, GA.evaluate gathers only the genomes
+ * of each population that are new since they were last evaluated and hands
+ * them to evaluateGenomes.  Survivors and archive members copied forward
+ * with their fitness are not evaluated again, and if there are no new
+ * genomes the evaluator is not called at all.
+ */
+public interface EvaluateGenomes extends Evaluate {
+  /**
+   * Evaluates each genome in the vector and sets its raw fitness.  This
+   * method returns when all of the genomes have been evaluated.
+   * @param genomes The genomes to evaluate
+   */
+  public void evaluateGenomes(Vector<Genome> genomes);
+}
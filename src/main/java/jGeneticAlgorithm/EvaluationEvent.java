@@ -0,0 +1,37 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A JDK Flight Recorder event spanning the evaluation of one genome by a
+ * ParallelEvaluator.  By default only evaluations lasting at least one
+ * millisecond are recorded, so that fast fitness functions do not flood
+ * the recording; the threshold may be changed in the recording settings.
+ */
+@Name("jGeneticAlgorithm.Evaluation")
+@Label("Genome Evaluation")
+@Category("Genetic Algorithm")
+@Description("The evaluation of the fitness of one genome")
+@Threshold("1 ms")
+@StackTrace(false)
+public class EvaluationEvent extends Event {
+
+  @Label("Genome Class")
+  Class<?> genomeClass;
+
+  @Label("Fitness")
+  double fitness;
+}
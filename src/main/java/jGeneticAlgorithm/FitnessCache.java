@@ -0,0 +1,151 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A FitnessCache remembers the raw fitness of recently evaluated genomes,
+ * keyed by the content of their chromosomes, so that an identical genome
+ * produced in a later generation need not be evaluated again.  Survivors,
+ * archive replacers, parents copied forward when crossover does not occur,
+ * and children left unchanged by mutation are all common sources of such
+ * duplicates.
+ *
+ * The cache holds at most maxSize entries and discards the least recently
+ * used entry when it is full.  Keys are deep copies of the genomes, so
+ * later changes to a genome do not affect the cache.  The genome classes
+ * used as keys must implement equals and hashCode by value, as ObjectGenome
+ * and ListGenome do.  The cache may be used from several threads at once.
+ */
+public class FitnessCache {
+
+  /**
+   * The cached fitness values in least recently used order
+   */
+  LinkedHashMap<Genome, Double> entries;
+
+  /**
+   * The maximum number of entries in the cache
+   */
+  int maxSize;
+
+  /**
+   * The number of lookups that found a cached fitness value
+   */
+  long hits = 0;
+
+  /**
+   * The number of lookups that did not find a cached fitness value
+   */
+  long misses = 0;
+
+  /**
+   * Constructor
+   * @param size The maximum number of genomes to remember.  Must be a
+   * positive integer.
+   * @throws GAException
+   */
+  public FitnessCache(int size) throws GAException {
+    if (size <= 0) {
+      throw new GAException(
+          "The size of a fitness cache must be a positive integer.");
+    }
+    maxSize = size;
+    entries = new LinkedHashMap<Genome, Double>(16, 0.75f, true) {
+      protected boolean removeEldestEntry(Map.Entry<Genome, Double> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached raw fitness of a genome with the same chromosome as
+   * the genome passed in, or null if there is none.
+   * @param g The genome to look up
+   */
+  public synchronized Double get(Genome g) {
+    Double fitness = entries.get(g);
+    if (fitness == null) {
+      misses++;
+    }
+    else {
+      hits++;
+    }
+    return fitness;
+  }
+
+  /**
+   * Stores the raw fitness of a genome in the cache
+   * @param g The evaluated genome
+   * @param fitness The raw fitness of the genome
+   */
+  public void put(Genome g, double fitness) {
+    Genome key = null;
+
+    try {
+      key = g.copy();
+    }
+    catch (CloneNotSupportedException e) {
+      System.out.println(e.getMessage());
+      e.printStackTrace();
+      System.exit(1);
+    }
+    synchronized (this) {
+      entries.put(key, Double.valueOf(fitness));
+    }
+  }
+
+  /**
+   * Removes all entries from the cache and resets the hit and miss counts
+   */
+  public synchronized void clear() {
+    entries.clear();
+    hits = 0;
+    misses = 0;
+  }
+
+  /**
+   * Returns the number of genomes currently in the cache
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the maximum number of genomes held in the cache
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Returns the number of lookups that found a cached fitness value
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of lookups that did not find a cached fitness value
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns the fraction of lookups that found a cached fitness value
+   */
+  public synchronized double getHitRate() {
+    if (hits + misses == 0) {
+      return 0;
+    }
+    return (double)hits / (hits + misses);
+  }
+}
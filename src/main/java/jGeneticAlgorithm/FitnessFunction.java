@@ -0,0 +1,25 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * An object which computes the fitness of a single genome implements this
+ * interface.  Unlike the Evaluate interface, which is handed every species
+ * in the algorithm at once, a FitnessFunction scores one genome at a time,
+ * which allows evaluators such as the ParallelEvaluator to decide how and
+ * where each genome is evaluated.  Implementations may be called from several
+ * threads at once, so they must not depend on shared mutable state.
+ */
+public interface FitnessFunction {
+  /**
+   * Computes the raw fitness of a genome.  The genome must not be modified.
+   * @param genome The genome to evaluate
+   * @return The raw fitness of the genome
+   */
+  public double evaluate(Genome genome);
+}
@@ -0,0 +1,84 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * A fitness memory holds the FitnessCache and PersistentFitnessStore of an
+ * evaluator, and looks up and remembers the fitness of genomes in both.  A
+ * genome that the store cannot encode is treated as not stored: it is
+ * evaluated as usual, and the failure is kept for the evaluator to report.
+ */
+class FitnessMemory {
+
+  /**
+   * The cache consulted before evaluating a genome, or null if there is none
+   */
+  FitnessCache cache = null;
+
+  /**
+   * The persistent store consulted after the cache, or null if there is none
+   */
+  PersistentFitnessStore store = null;
+
+  /**
+   * The last failure of the store to encode a genome, or null if it has not
+   * failed
+   */
+  volatile GAException lastFailure = null;
+
+  /**
+   * Returns true if there is neither a cache nor a store
+   */
+  boolean isEmpty() {
+    return cache == null && store == null;
+  }
+
+  /**
+   * Returns the raw fitness of a genome from the fitness cache or the
+   * fitness store, or null if neither holds it.  A fitness found only in
+   * the store is added to the cache.
+   */
+  Double lookup(Genome g) {
+    Double fitness = null;
+
+    if (cache != null) {
+      fitness = cache.get(g);
+    }
+    if (fitness == null && store != null) {
+      try {
+        fitness = store.get(g);
+      }
+      catch (GAException e) {
+        lastFailure = e;
+      }
+      if (fitness != null && cache != null) {
+        cache.put(g, fitness.doubleValue());
+      }
+    }
+    return fitness;
+  }
+
+  /**
+   * Adds the raw fitness of an evaluated genome to the fitness cache and the
+   * fitness store
+   */
+  void remember(Genome g, double fitness) {
+    if (cache != null) {
+      cache.put(g, fitness);
+    }
+    if (store != null) {
+      try {
+        store.put(g, fitness);
+      }
+      catch (GAException e) {
+        lastFailure = e;
+      }
+    }
+  }
+
+}
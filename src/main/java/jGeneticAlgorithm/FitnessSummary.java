@@ -0,0 +1,128 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * A FitnessSummary accumulates the count, minimum, maximum, mean, and
+ * variance of a stream of fitness values in a single pass, using Welford's
+ * method for the mean and variance.  It holds no references to the values,
+ * so one summary may be cleared and reused from one generation to the next.
+ */
+public class FitnessSummary {
+
+  /**
+   * The number of values added
+   */
+  int count;
+
+  /**
+   * The smallest and largest values added
+   */
+  double min;
+  double max;
+
+  /**
+   * The mean of the values added
+   */
+  double mean;
+
+  /**
+   * The sum of squared differences from the mean of the values added
+   */
+  double sumOfSquares;
+
+  /**
+   * Constructor
+   */
+  public FitnessSummary() {
+    super();
+    this.clear();
+  }
+
+  /**
+   * Removes all values from the summary
+   */
+  public void clear() {
+    count = 0;
+    min = Double.POSITIVE_INFINITY;
+    max = Double.NEGATIVE_INFINITY;
+    mean = 0;
+    sumOfSquares = 0;
+  }
+
+  /**
+   * Adds a value to the summary
+   * @param x The value to add
+   */
+  public void add(double x) {
+    double delta;
+
+    count++;
+    if (x < min) {
+      min = x;
+    }
+    if (x > max) {
+      max = x;
+    }
+    delta = x - mean;
+    mean += delta / count;
+    sumOfSquares += delta * (x - mean);
+  }
+
+  /**
+   * Returns the number of values added
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the smallest value added, or positive infinity if none
+   */
+  public double getMin() {
+    return min;
+  }
+
+  /**
+   * Returns the largest value added, or negative infinity if none
+   */
+  public double getMax() {
+    return max;
+  }
+
+  /**
+   * Returns the mean of the values added, or 0 if none
+   */
+  public double getMean() {
+    return mean;
+  }
+
+  /**
+   * Returns the population variance of the values added, or 0 if fewer
+   * than two values have been added
+   */
+  public double getVariance() {
+    if (count < 2) {
+      return 0;
+    }
+    return sumOfSquares / count;
+  }
+
+  /**
+   * Returns the population standard deviation of the values added
+   */
+  public double getStandardDeviation() {
+    return Math.sqrt(this.getVariance());
+  }
+
+  public String toString() {
+    return "count: " + count + " min: " + min + " max: " + max
+        + " mean: " + mean + " standard deviation: "
+        + this.getStandardDeviation();
+  }
+}
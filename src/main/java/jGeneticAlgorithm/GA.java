@@ -9,6 +9,7 @@ package jGeneticAlgorithm;
 
 import java.util.Vector;
 import java.util.Enumeration;
+import java.util.concurrent.ExecutorService;
 
 /**
  * The genetic algorithm object simply iterates evaluation, evolution, and migration
@@ -58,16 +59,32 @@ public class GA {
   int generation;
 
   /**
-   * Set this value to true to enable automatic recording of genomes.
-   * Not yet implemented
+   * The recorder to which every genome is written when it is evaluated, or
+   * null to record none
    */
-  boolean recordGenomes = false;
+  GenomeRecorder recorder = null;
+
+  /**
+   * The failure of the recorder during the last evaluation, or null if it
+   * did not fail
+   */
+  GAException recordFailure = null;
 
   /**
    * The object which evaluates all of species and their subpopulations
    */
   Evaluate evaluator;
 
+  /**
+   * The executor used to evolve all populations of all species concurrently,
+   * or null to evolve them one after another
+   */
+  ExecutorService executor = null;
+
+  /**
+   * The listeners to the phases of this algorithm
+   */
+  PhaseListeners listeners = new PhaseListeners();
 
   /**
    * Construcor
@@ -106,10 +123,152 @@ public class GA {
   }
 
   /**
-   * This method evaluates all members of all populations in each species
+   * This method evaluates all members of all populations in each species.
+   * If the evaluator implements EvaluateGenomes, only the genomes not yet
+   * evaluated are passed to it, and it is not called if there are none.
+   * Otherwise the evaluator is given every species.  If a genome recorder is
+   * set, each genome evaluated is then written to it; if the recorder fails,
+   * the failure is kept for getRecordFailure() and thrown by the next
+   * stepGeneration().
    */
   public void evaluate() {
-    evaluator.evaluate(species);
+    PhaseEvent e = null;
+    Vector<Genome> genomes = null;
+    Vector<Population> recordedPopulations = null;   // populations recorded
+    Vector<Vector<Genome>> recordedGenomes = null;   // and their genomes
+    int count = 0;
+
+    if (!listeners.isEmpty()) {
+      count = this.getUnevaluatedCount();
+      e = listeners.begin(this, Phase.EVALUATION, generation, count);
+    }
+    if (recorder != null) {
+      recordedPopulations = new Vector<Population>();
+      recordedGenomes = new Vector<Vector<Genome>>();
+      genomes = this.getUnevaluatedGenomes(recordedPopulations,
+          recordedGenomes);
+    }
+    if (evaluator instanceof EvaluateGenomes) {
+      if (genomes == null) {
+        genomes = Species.getUnevaluatedGenomes(species);
+      }
+      if (genomes.size() > 0) {
+        ((EvaluateGenomes)evaluator).evaluateGenomes(genomes);
+      }
+    }
+    else {
+      evaluator.evaluate(species);
+    }
+    if (recorder != null) {
+      try {
+        this.record(recordedPopulations, recordedGenomes);
+      }
+      catch (GAException ex) {
+        recordFailure = ex;
+      }
+    }
+    if (e != null) {
+      listeners.end(e, count);
+    }
+  }
+
+  /**
+   * Returns the unevaluated genomes of every population of every species,
+   * and adds each population and its unevaluated genomes to two vectors
+   * @param pops The vector to which the populations are added
+   * @param popGenomes The vector to which the unevaluated genomes of each
+   * population are added
+   */
+  Vector<Genome> getUnevaluatedGenomes(Vector<Population> pops,
+      Vector<Vector<Genome>> popGenomes) {
+    Vector<Genome> genomes;
+    Vector<Genome> unevaluated;
+    Vector specPops;
+    Population pop;
+    int i, j;
+
+    genomes = new Vector<Genome>();
+    for (i = 0; i < species.size(); i++) {
+      specPops = ((Species)species.elementAt(i)).getPopulations();
+      for (j = 0; j < specPops.size(); j++) {
+        pop = (Population)specPops.elementAt(j);
+        unevaluated = pop.getUnevaluatedGenomes();
+        pops.addElement(pop);
+        popGenomes.addElement(unevaluated);
+        genomes.addAll(unevaluated);
+      }
+    }
+    return genomes;
+  }
+
+  /**
+   * Writes the genomes evaluated this generation to the recorder
+   * @param pops The populations of the genomes
+   * @param popGenomes The genomes of each population that were not
+   * evaluated before this generation
+   */
+  void record(Vector<Population> pops, Vector<Vector<Genome>> popGenomes)
+      throws GAException {
+    Vector<Genome> genomes;
+    Genome g;
+    int id;
+    int i, j;
+
+    for (i = 0; i < pops.size(); i++) {
+      id = pops.elementAt(i).getId();
+      genomes = popGenomes.elementAt(i);
+      for (j = 0; j < genomes.size(); j++) {
+        g = genomes.elementAt(j);
+        if (g.getIsEvaluated()) {
+          recorder.record(generation, id, g);
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets the recorder to which every genome is written when it is
+   * evaluated.  The recorder is not closed by the GA.
+   * @param r The recorder, or null to record no genomes
+   */
+  public void setGenomeRecorder(GenomeRecorder r) {
+    recorder = r;
+  }
+
+  /**
+   * Returns the recorder to which evaluated genomes are written, or null
+   */
+  public GenomeRecorder getGenomeRecorder() {
+    return recorder;
+  }
+
+  /**
+   * Returns the failure of the genome recorder during the last evaluation
+   * not yet thrown by stepGeneration(), or null if there is none
+   */
+  public GAException getRecordFailure() {
+    return recordFailure;
+  }
+
+  /**
+   * Sets the executor used to evolve the populations of every species
+   * concurrently.  Each population evolves its next generation on its own
+   * worker, and migration begins once all of them have finished.  Populations
+   * evolved concurrently must not share a RandomEngine, Selector, or Scaler
+   * with state, and their genomes must not share a RandomEngine with genomes
+   * of another population.  Migrants are
+   * given the RandomEngine of their new population.
+   * @param e The executor, or null to evolve the populations one after another
+   */
+  public void setExecutor(ExecutorService e) {
+    executor = e;
+  }
+
+  /**
+   * Returns the executor used to evolve the populations concurrently, or null
+   */
+  public ExecutorService getExecutor() {
+    return executor;
   }
 
   /**
@@ -117,10 +276,29 @@ public class GA {
    * @throws GAException
    */
   public void evolveAllSpecies() throws GAException {
+    PhaseEvent e = null;
+
+    if (!listeners.isEmpty()) {
+      e = listeners.begin(this, Phase.EVOLUTION, generation,
+          this.getGenomeCount());
+    }
     Enumeration enu = species.elements();
-    while (enu.hasMoreElements()) {
-      Species spec = (Species)enu.nextElement();
-      spec.evolveAllPopulations();
+    if (executor != null) {  // evolve the populations of all species at once
+      Vector pops = new Vector();
+      while (enu.hasMoreElements()) {
+        Species spec = (Species)enu.nextElement();
+        pops.addAll(spec.getPopulations());
+      }
+      Species.evolveConcurrently(pops, executor);
+    }
+    else {
+      while (enu.hasMoreElements()) {
+        Species spec = (Species)enu.nextElement();
+        spec.evolveAllPopulations();
+      }
+    }
+    if (e != null) {
+      listeners.end(e, this.getGenomeCount());
     }
   }
 
@@ -128,10 +306,21 @@ public class GA {
    * This method performs migration for the species in the algorithm
    */
   public void performMigration() {
+    PhaseEvent e = null;
+    int count;
+
+    if (!listeners.isEmpty()) {
+      e = listeners.begin(this, Phase.MIGRATION, generation, 0);
+    }
+    count = 0;
     Enumeration enu = species.elements();
     while (enu.hasMoreElements()) {
       Species spec = (Species)enu.nextElement();
       spec.migrate();
+      count += spec.getLastMigrationCount();
+    }
+    if (e != null) {
+      listeners.end(e, count);
     }
   }
 
@@ -141,12 +330,142 @@ public class GA {
    * @throws GAException
    */
   public void stepGeneration() throws GAException {
-    this.evaluate();
-    this.evolveAllSpecies();
-    this.performMigration();
+    PhaseEvent e = null;
+    GenerationEvent generationEvent;   // the flight recorder event
+    GAException failure;               // the failure of the recorder
+
+    generationEvent = new GenerationEvent();
+    generationEvent.begin();
+    if (!listeners.isEmpty()) {
+      e = listeners.begin(this, Phase.GENERATION, generation,
+          this.getGenomeCount());
+    }
+    try {
+      this.evaluate();
+      if (recordFailure != null) {
+        failure = recordFailure;
+        recordFailure = null;
+        throw failure;
+      }
+      if (generationEvent.isEnabled()) {
+        this.summarizeFitness(generationEvent);
+      }
+      this.evolveAllSpecies();
+      this.performMigration();
+    }
+    finally {
+      // the listeners are told the phase ended even if a step failed
+      if (e != null) {
+        listeners.end(e, this.getGenomeCount());
+      }
+    }
+    generationEvent.end();
+    if (generationEvent.shouldCommit()) {
+      generationEvent.populationId = -1;
+      generationEvent.generation = generation;
+      generationEvent.commit();
+    }
     generation++;
   }
 
+  /**
+   * Sets the genome count and the best and mean fitness of a generation
+   * event from the statistics of every population.  The best fitness is
+   * taken from the genomes of the first population to decide whether
+   * fitness is minimized.
+   */
+  void summarizeFitness(GenerationEvent event) {
+    PopulationStatistics stats;
+    Vector pops;
+    double sum, best;
+    boolean minimize, first;
+    int count, n;
+    int i, j;
+
+    sum = 0;
+    best = 0;
+    count = 0;
+    minimize = false;
+    first = true;
+    for (i = 0; i < species.size(); i++) {
+      pops = ((Species)species.elementAt(i)).getPopulations();
+      for (j = 0; j < pops.size(); j++) {
+        stats = ((Population)pops.elementAt(j)).getStatistics();
+        synchronized (stats) {
+          n = stats.getEvaluatedCount();
+          if (n == 0) {
+            continue;
+          }
+          if (first) {
+            minimize = stats.minimize;
+            best = stats.getBestFitness();
+            first = false;
+          }
+          else if (minimize ? stats.getMin() < best : stats.getMax() > best) {
+            best = minimize ? stats.getMin() : stats.getMax();
+          }
+          sum += stats.getMean() * n;
+          count += n;
+        }
+      }
+    }
+    event.genomeCount = count;
+    event.bestFitness = best;
+    event.meanFitness = count > 0 ? sum / count : 0;
+  }
+
+  /**
+   * Adds a listener to be told of the generation, evaluation, evolution,
+   * and migration phases of this algorithm.  To observe the phases of each
+   * species or population, add the listener to them as well.
+   * @param l The listener
+   */
+  public void addListener(GAListener l) {
+    listeners.add(l);
+  }
+
+  /**
+   * Removes a listener from this algorithm
+   * @param l The listener
+   */
+  public void removeListener(GAListener l) {
+    listeners.remove(l);
+  }
+
+  /**
+   * Returns the total number of genomes in all species
+   */
+  public int getGenomeCount() {
+    int count;
+    int i;
+
+    count = 0;
+    for (i = 0; i < species.size(); i++) {
+      count += ((Species)species.elementAt(i)).getGenomeCount();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of genomes in all species not yet evaluated, as
+   * counted by the statistics of each population
+   */
+  int getUnevaluatedCount() {
+    Vector pops;
+    int count;
+    int i, j;
+
+    count = 0;
+    for (i = 0; i < species.size(); i++) {
+      pops = ((Species)species.elementAt(i)).getPopulations();
+      for (j = 0; j < pops.size(); j++) {
+        count += ((Population)pops.elementAt(j)).getStatistics()
+            .getUnevaluatedCount();
+      }
+    }
+    return count;
+  }
+
   /**
    *
    * @return The number of generations for the hGA
@@ -21,4 +21,8 @@ public class GAException extends Exception {
   public GAException(String s) {
     super(s);
   }
+
+  public GAException(String s, Throwable cause) {
+    super(s, cause);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * An object which observes the phases of a genetic algorithm must implement
+ * this interface and be added to a GA, Species, or Population with its
+ * addListener method.  Each phase is reported by a call to phaseStarted
+ * before it begins and a call to phaseEnded after it ends, with the same
+ * PhaseEvent.  The event is reused, so a listener that keeps any of its
+ * values must copy them.  When populations evolve concurrently, listeners
+ * of a population are called on the thread evolving it, so a listener
+ * shared by several populations must be thread safe.
+ */
+public interface GAListener {
+
+  /**
+   * Called before a phase begins.  Only the source, phase, generation, and
+   * genome count of the event are set.
+   * @param e The event describing the phase
+   */
+  public void phaseStarted(PhaseEvent e);
+
+  /**
+   * Called after a phase ends, with the elapsed time and allocation of the
+   * phase
+   * @param e The event describing the phase
+   */
+  public void phaseEnded(PhaseEvent e);
+}
@@ -0,0 +1,45 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event spanning the creation of one generation.
+ * Population.evolveNextGeneration records one for the population, and
+ * GA.stepGeneration records one for the whole algorithm with a population
+ * id of -1.  The fitness is that of the generation being replaced.
+ */
+@Name("jGeneticAlgorithm.Generation")
+@Label("Generation")
+@Category("Genetic Algorithm")
+@Description("The creation of the next generation of a population or of the whole algorithm")
+@StackTrace(false)
+public class GenerationEvent extends Event {
+
+  @Label("Population Id")
+  @Description("The id of the population, or -1 for the whole algorithm")
+  int populationId;
+
+  @Label("Generation")
+  int generation;
+
+  @Label("Genomes")
+  int genomeCount;
+
+  @Label("Best Fitness")
+  double bestFitness;
+
+  @Label("Mean Fitness")
+  double meanFitness;
+}
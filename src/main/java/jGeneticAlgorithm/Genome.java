@@ -9,6 +9,8 @@ package jGeneticAlgorithm;
 
 import java.io.Serializable;
 import java.lang.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import cern.jet.random.engine.RandomEngine;
 import cern.jet.random.Uniform;
 
@@ -44,6 +46,12 @@ public abstract class Genome implements Cloneable, Comparable {
    */
   protected boolean isEvaluated = false;
 
+  /**
+   * The statistics of the population this genome belongs to, updated when
+   * the genome is evaluated.  Set by the population; copies do not share it.
+   */
+  transient PopulationStatistics statistics = null;
+
   /**
    * Genome fitness after scaling with other members of the population.
    */
@@ -79,6 +87,16 @@ public abstract class Genome implements Cloneable, Comparable {
    */
   protected double mutationRate;
 
+  /**
+   * Set to true to choose the positions to mutate by skip sampling.  Instead
+   * of testing every position of the chromosome, the number of positions
+   * skipped before the next mutation is drawn from a geometric distribution.
+   * The distribution of mutations is the same, but the number of random
+   * numbers drawn grows with the number of mutations rather than with the
+   * length of the chromosome.  Default = false.
+   */
+  protected boolean skipSamplingMutation = false;
+
   /**
    * The number of children to produce when performing crossover.
    * The defaule value is 2;
@@ -96,6 +114,24 @@ public abstract class Genome implements Cloneable, Comparable {
     uniform = new Uniform(engine);
   }
 
+  /**
+   * Sets the random number generator used by this genome to perform random
+   * genetic operations.  Copies of this genome made afterward share it.
+   * @param engine A random number generator from the cern.jet.random.engine
+   * library.
+   */
+  public void setRandomEngine(RandomEngine engine) {
+    randomGenerator = engine;
+    uniform = new Uniform(engine);
+  }
+
+  /**
+   * Returns the random number generator used by this genome
+   */
+  public RandomEngine getRandomEngine() {
+    return randomGenerator;
+  }
+
   /**
    * Sets the evaluated condition of the genome.
    * @param b A boolean variable indicating whether or not the genome has
@@ -103,6 +139,15 @@ public abstract class Genome implements Cloneable, Comparable {
    * and rank to 0, their default values.
    */
   public void setIsEvaluated(boolean b) {
+    PopulationStatistics s = statistics;
+
+    if (s != null && b != isEvaluated) {
+      if (b) {
+        s.evaluated(false, 0, rawFitness);
+      } else {
+        s.unevaluated(rawFitness);
+      }
+    }
     isEvaluated = b;
 
     if (b == false) {  // if genome is not evaluated, set fitness values to defaults
@@ -171,6 +216,190 @@ public abstract class Genome implements Cloneable, Comparable {
    */
   public abstract Genome copy() throws CloneNotSupportedException;
 
+  /**
+   * Returns the number of bytes encode() writes for this genome.  Genomes
+   * that support binary encoding, for example to be checkpointed, override
+   * this method along with encode() and decode().  In this abstract class,
+   * it throws a GAException.
+   */
+  public int getEncodedSize() throws GAException {
+    throw new GAException(
+        this.getClass().getName() + " does not support binary encoding");
+  }
+
+  /**
+   * Writes the alleles of this genome to a buffer.  The fitness values and
+   * parameters of the genome are not written.  In this abstract class, it
+   * throws a GAException.
+   * @param out The buffer to write to
+   */
+  public void encode(ByteBuffer out) throws GAException {
+    throw new GAException(
+        this.getClass().getName() + " does not support binary encoding");
+  }
+
+  /**
+   * Replaces the alleles of this genome with alleles read from a buffer
+   * written by encode() of a genome of the same structure.  In this abstract
+   * class, it throws a GAException.
+   * @param in The buffer to read from
+   */
+  public void decode(ByteBuffer in) throws GAException {
+    throw new GAException(
+        this.getClass().getName() + " does not support binary encoding");
+  }
+
+  /**
+   * Writes the alleles of this genome to a buffer in the compact form used
+   * to record genomes, which may take fewer bytes than encode() but takes
+   * longer to read and write.  In this abstract class, it calls encode().
+   * @param out The buffer to write to
+   */
+  public void encodeCompact(ByteBuffer out) throws GAException {
+    this.encode(out);
+  }
+
+  /**
+   * Replaces the alleles of this genome with alleles read from a buffer
+   * written by encodeCompact().  In this abstract class, it calls decode().
+   * @param in The buffer to read from
+   */
+  public void decodeCompact(ByteBuffer in) throws GAException {
+    this.decode(in);
+  }
+
+  /**
+   * Writes the first n of an array of allele values in compact form: the
+   * number of values, then each IntegerAlleleValue as the difference from
+   * the integer value before it and each RealAlleleValue as its eight
+   * bytes.  The low bit of the first byte of a value tells which it is.
+   */
+  protected static void encodeAllelesCompact(AlleleValue[] values, int n,
+      ByteBuffer out) throws GAException {
+    long previous;   // the last integer value written
+    long value;
+    int i;
+
+    VarInt.put(out, n);
+    previous = 0;
+    for (i = 0; i < n; i++) {
+      if (values[i] instanceof IntegerAlleleValue) {
+        value = ((IntegerAlleleValue)values[i]).value;
+        VarInt.put(out, VarInt.zigzag(value - previous) << 1);
+        previous = value;
+      }
+      else if (values[i] instanceof RealAlleleValue) {
+        out.put((byte)1);
+        out.putDouble(((RealAlleleValue)values[i]).value);
+      }
+      else {
+        throw new GAException(values[i].getClass().getName()
+            + " does not support binary encoding");
+      }
+    }
+  }
+
+  /**
+   * Reads allele values written by encodeAllelesCompact().  Throws a
+   * GAException if the buffer does not hold the number of values it gives.
+   */
+  protected static AlleleValue[] decodeAllelesCompact(ByteBuffer in)
+      throws GAException {
+    AlleleValue[] values;
+    long previous;
+    long code;
+    long n;        // the number of values read from the buffer
+    int i;
+
+    try {
+      n = VarInt.get(in);
+      // every value takes at least one byte
+      if (n < 0 || n > in.remaining()) {
+        throw new GAException("An encoding of " + n
+            + " allele values is malformed");
+      }
+      values = new AlleleValue[(int)n];
+      previous = 0;
+      for (i = 0; i < n; i++) {
+        code = VarInt.get(in);
+        if ((code & 1) == 0) {
+          previous += VarInt.unzigzag(code >>> 1);
+          values[i] = new IntegerAlleleValue((int)previous);
+        }
+        else {
+          values[i] = new RealAlleleValue(in.getDouble());
+        }
+      }
+    }
+    catch (BufferUnderflowException e) {
+      throw new GAException("An encoding of allele values is malformed");
+    }
+    return values;
+  }
+
+  /**
+   * Returns the number of bytes encodeAllele() writes for an allele value
+   */
+  protected static int getEncodedSize(AlleleValue v) throws GAException {
+    if (v instanceof IntegerAlleleValue) {
+      return 5;
+    }
+    if (v instanceof RealAlleleValue) {
+      return 9;
+    }
+    throw new GAException(
+        v.getClass().getName() + " does not support binary encoding");
+  }
+
+  /**
+   * Writes an IntegerAlleleValue or RealAlleleValue to a buffer as a type
+   * byte followed by the value
+   */
+  protected static void encodeAllele(AlleleValue v, ByteBuffer out)
+      throws GAException {
+    if (v instanceof IntegerAlleleValue) {
+      out.put((byte)'I');
+      out.putInt(((IntegerAlleleValue)v).value);
+    }
+    else if (v instanceof RealAlleleValue) {
+      out.put((byte)'R');
+      out.putDouble(((RealAlleleValue)v).value);
+    }
+    else {
+      throw new GAException(
+          v.getClass().getName() + " does not support binary encoding");
+    }
+  }
+
+  /**
+   * Reads an allele value written by encodeAllele() from a buffer
+   */
+  protected static AlleleValue decodeAllele(ByteBuffer in)
+      throws GAException {
+    byte type;
+
+    type = in.get();
+    if (type == 'I') {
+      return new IntegerAlleleValue(in.getInt());
+    }
+    if (type == 'R') {
+      return new RealAlleleValue(in.getDouble());
+    }
+    throw new GAException("Unknown allele value type " + type);
+  }
+
+  /**
+   * Returns a shallow copy of the genome that does not belong to the
+   * population of this genome
+   */
+  protected Object clone() throws CloneNotSupportedException {
+    Genome copy;
+
+    copy = (Genome)super.clone();
+    copy.statistics = null;
+    return copy;
+  }
+
   /**
    * Subordinate classes must declare a method to perform crossover.
    * @param dad The genome with which to perform crossover
@@ -240,6 +469,74 @@ public abstract class Genome implements Cloneable, Comparable {
     return mutationRate;
   }
 
+  /**
+   * Sets whether the positions to mutate are chosen by skip sampling
+   * @param b Set to true to use skip sampling, or false to test each position
+   * of the chromosome with a separate random number
+   */
+  public void setSkipSamplingMutation(boolean b) {
+    skipSamplingMutation = b;
+  }
+
+  /**
+   * Returns true if the positions to mutate are chosen by skip sampling
+   */
+  public boolean isSkipSamplingMutation() {
+    return skipSamplingMutation;
+  }
+
+  /**
+   * Returns the next position of the chromosome, at or after start, which
+   * should be mutated, or length if no further position should be mutated.
+   * Each position is mutated with probability mutationRate.  Subordinate
+   * classes use this method to implement mutate() as follows:
+   *
+   *   for (i = nextMutationPosition(0, n); i < n;
+   *        i = nextMutationPosition(i + 1, n)) {
+   *     // mutate position i
+   *   }
+   *
+   * If skipSamplingMutation is set, the number of positions skipped is drawn
+   * from a geometric distribution, using one random number per mutation.
+   * Otherwise each position is tested with its own random number.
+   * @param start The first position to consider
+   * @param length The length of the chromosome
+   * @return The next position to mutate, or length if there is none
+   */
+  protected int nextMutationPosition(int start, int length) {
+    return nextMutationPosition(uniform, mutationRate, skipSamplingMutation,
+        start, length);
+  }
+
+  /**
+   * Returns the next position at or after start to mutate, as described for
+   * the instance method, for a genome with the given uniform distribution,
+   * mutation rate, and skip sampling setting
+   */
+  static int nextMutationPosition(Uniform uniform, double mutationRate,
+      boolean skipSamplingMutation, int start, int length) {
+    double skip;   // the number of positions skipped
+
+    if (!skipSamplingMutation) {
+      while (start < length && uniform.nextDoubleFromTo(0, 1) >= mutationRate) {
+        start++;
+      }
+      return start;
+    }
+    if (start >= length || mutationRate <= 0) {
+      return length;
+    }
+    if (mutationRate >= 1) {
+      return start;
+    }
+    // log1p keeps the denominator non-zero for very small rates
+    skip = Math.log(uniform.nextDoubleFromTo(0, 1)) / Math.log1p(-mutationRate);
+    if (!(skip < length - start)) {  // also catches an infinite skip
+      return length;
+    }
+    return start + (int)skip;
+  }
+
   /**
    * Returns a string description of this object's parameters
    * @return A string describing the GA parameters
@@ -254,6 +551,7 @@ public abstract class Genome implements Cloneable, Comparable {
     description += "isEvaluated: " + isEvaluated + "\n";
     description += "minimize: " + minimize + "\n";
     description += "mutationRate: " + mutationRate + "\n";
+    description += "skipSamplingMutation: " + skipSamplingMutation + "\n";
     description += "numChildren: " + numChildren + "\n";
 
     return description;
@@ -265,6 +563,11 @@ public abstract class Genome implements Cloneable, Comparable {
    * property to true.
    */
   public void setRawFitness(double f) {
+    PopulationStatistics s = statistics;
+
+    if (s != null) {
+      s.evaluated(isEvaluated, rawFitness, f);
+    }
     rawFitness = f;
     isEvaluated = true;
   }
@@ -0,0 +1,257 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A genome log reader streams the records of a log written by a
+ * GenomeRecorder, one segment after another, through a fixed buffer, so a
+ * log of any size may be read without holding it in memory.  next()
+ * returns each record in the order written, then null.
+ *
+ * A record cut short at the end of a segment, as left by a crash while
+ * writing, ends that segment; the records after it are not read.  So does a
+ * record whose length is zero or runs past the end of its segment.
+ */
+public class GenomeLogReader {
+
+  /**
+   * The segments of the log, in order
+   */
+  File[] segments;
+
+  /**
+   * The position in segments of the segment being read
+   */
+  int segmentIndex = -1;
+
+  /**
+   * The segment being read, or null if none is open
+   */
+  FileChannel segment = null;
+
+  /**
+   * True once the segment being read has no more bytes to give
+   */
+  boolean segmentEnded = false;
+
+  /**
+   * The buffer of bytes read from the segment and not yet decoded
+   */
+  ByteBuffer input = ByteBuffer.allocateDirect(1 << 20);
+
+  /**
+   * The generation and population id of the last record read in the
+   * segment
+   */
+  int lastGeneration, lastPopulationId;
+
+  /**
+   * The number of records cut short at the end of a segment
+   */
+  int truncatedCount = 0;
+
+  /**
+   * Constructor
+   * @param directory The directory holding the segments of the log
+   * @param name The name of the log
+   */
+  public GenomeLogReader(File directory, String name) throws IOException {
+    segments = getSegments(directory, name);
+    if (segments.length == 0) {
+      throw new IOException("There is no log " + name + " in " + directory);
+    }
+  }
+
+  /**
+   * Returns the file of a segment of a log
+   * @param number The number of the segment, starting at 0
+   */
+  static File getSegmentFile(File directory, String name, int number) {
+    return new File(directory, String.format("%s-%08d.log", name, number));
+  }
+
+  /**
+   * Returns the segments of a log in a directory, in order
+   */
+  static File[] getSegments(File directory, String name) {
+    File[] files;
+
+    files = directory.listFiles((dir, file) -> file.startsWith(name + "-")
+        && file.endsWith(".log")
+        && file.substring(name.length() + 1, file.length() - 4)
+            .matches("[0-9]{8,}"));
+    if (files == null) {
+      return new File[0];
+    }
+    Arrays.sort(files, (a, b) -> {
+      String x = a.getName(), y = b.getName();
+      return x.length() != y.length() ? x.length() - y.length()
+          : x.compareTo(y);
+    });
+    return files;
+  }
+
+  /**
+   * Returns the next record of the log, or null if all have been read
+   */
+  public GenomeRecord next() throws GAException, IOException {
+    long length;        // the length read for the record
+    int bodySize;
+    boolean complete;   // true if the whole record is in the buffer
+
+    while (true) {
+      if (segment == null) {
+        if (segmentIndex + 1 >= segments.length) {
+          return null;
+        }
+        this.openSegment(segments[++segmentIndex]);
+      }
+      this.fill(5);  // the length of a record takes at most five bytes
+      if (!input.hasRemaining()) {
+        this.closeSegment();
+        continue;
+      }
+      bodySize = 0;
+      try {
+        length = VarInt.get(input);
+        // a length the segment cannot hold was cut short or never written
+        complete = length > 0 && length <= this.remainingInSegment();
+        if (complete) {
+          bodySize = (int)length;
+          complete = this.fill(bodySize);
+        }
+      }
+      catch (BufferUnderflowException ex) {
+        complete = false;
+      }
+      if (!complete) {
+        truncatedCount++;
+        this.closeSegment();
+        continue;
+      }
+      return this.decode(bodySize);
+    }
+  }
+
+  /**
+   * Decodes a record whose length has been read and whose body is in the
+   * buffer
+   */
+  GenomeRecord decode(int bodySize) throws GAException {
+    GenomeRecord record;
+    byte[] chromosome;
+    int end;
+
+    end = input.position() + bodySize;
+    lastGeneration += (int)VarInt.getSigned(input);
+    lastPopulationId += (int)VarInt.getSigned(input);
+    record = new GenomeRecord(lastGeneration, lastPopulationId,
+        input.getDouble(), null);
+    if (input.position() > end) {
+      throw new GAException("A record of the genome log is malformed");
+    }
+    chromosome = new byte[end - input.position()];
+    input.get(chromosome);
+    record.chromosome = chromosome;
+    return record;
+  }
+
+  /**
+   * Reads from the segment until the buffer holds at least n bytes not yet
+   * decoded, growing the buffer if needed.  Returns false if the segment
+   * ends first.
+   */
+  boolean fill(int n) throws IOException {
+    ByteBuffer larger;
+
+    if (input.remaining() >= n) {
+      return true;
+    }
+    if (input.capacity() < n) {
+      larger = ByteBuffer.allocateDirect(Math.max(n, input.capacity() * 2));
+      larger.put(input);
+      larger.flip();
+      input = larger;
+    }
+    input.compact();
+    try {
+      while (input.position() < n && !segmentEnded) {
+        if (segment.read(input) < 0) {
+          segmentEnded = true;
+        }
+      }
+    }
+    finally {
+      input.flip();
+    }
+    return input.remaining() >= n;
+  }
+
+  /**
+   * Returns the number of bytes of the segment not yet decoded, whether in
+   * the buffer or not yet read
+   */
+  long remainingInSegment() throws IOException {
+    return input.remaining() + segment.size() - segment.position();
+  }
+
+  /**
+   * Opens a segment and reads its header
+   */
+  void openSegment(File file) throws GAException, IOException {
+    segment = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    segmentEnded = false;
+    input.clear();
+    input.flip();
+    if (!this.fill(GenomeRecorder.HEADER_SIZE)
+        || input.getInt() != GenomeRecorder.MAGIC) {
+      this.closeSegment();
+      throw new GAException(file + " is not a segment of a genome log");
+    }
+    if (input.getInt() != GenomeRecorder.VERSION) {
+      this.closeSegment();
+      throw new GAException(file + " has an unsupported version");
+    }
+    lastGeneration = 0;
+    lastPopulationId = 0;
+  }
+
+  /**
+   * Closes the segment being read
+   */
+  void closeSegment() throws IOException {
+    if (segment != null) {
+      segment.close();
+      segment = null;
+    }
+  }
+
+  /**
+   * Returns the number of records cut short at the end of a segment
+   */
+  public int getTruncatedCount() {
+    return truncatedCount;
+  }
+
+  /**
+   * Closes the log
+   */
+  public void close() throws IOException {
+    this.closeSegment();
+    segmentIndex = segments.length;
+  }
+
+}
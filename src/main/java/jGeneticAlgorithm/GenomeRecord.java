@@ -0,0 +1,114 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * A genome read from a log written by a GenomeRecorder.  It holds the
+ * generation in which the genome was evaluated, the id of its population,
+ * its raw fitness, and its alleles in compact form.  The alleles are read
+ * into a genome by toGenome().
+ */
+public class GenomeRecord {
+
+  /**
+   * The generation in which the genome was evaluated
+   */
+  int generation;
+
+  /**
+   * The id of the population holding the genome
+   */
+  int populationId;
+
+  /**
+   * The raw fitness of the genome
+   */
+  double rawFitness;
+
+  /**
+   * The alleles of the genome written by Genome.encodeCompact()
+   */
+  byte[] chromosome;
+
+  /**
+   * Constructor
+   */
+  public GenomeRecord(int generation, int populationId, double rawFitness,
+      byte[] chromosome) {
+    this.generation = generation;
+    this.populationId = populationId;
+    this.rawFitness = rawFitness;
+    this.chromosome = chromosome;
+  }
+
+  /**
+   * Returns the generation in which the genome was evaluated
+   */
+  public int getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Returns the id of the population holding the genome
+   */
+  public int getPopulationId() {
+    return populationId;
+  }
+
+  /**
+   * Returns the raw fitness of the genome
+   */
+  public double getRawFitness() {
+    return rawFitness;
+  }
+
+  /**
+   * Returns a read only buffer holding the alleles of the genome in compact
+   * form
+   */
+  public ByteBuffer getChromosome() {
+    return ByteBuffer.wrap(chromosome).asReadOnlyBuffer();
+  }
+
+  /**
+   * Returns a copy of a genome with the alleles and raw fitness of this
+   * record
+   * @param template A genome of the structure recorded
+   */
+  public Genome toGenome(Genome template) throws GAException {
+    Genome g = null;
+    ByteBuffer in;
+
+    try {
+      g = template.copy();
+    }
+    catch (CloneNotSupportedException e) {
+      System.out.println(e.getMessage());
+      e.printStackTrace();
+      System.exit(1);
+    }
+    in = ByteBuffer.wrap(chromosome);
+    g.decodeCompact(in);
+    if (in.hasRemaining()) {
+      throw new GAException("The record holds " + in.remaining()
+          + " bytes more than the genome read");
+    }
+    g.rawFitness = rawFitness;
+    g.isEvaluated = true;
+    return g;
+  }
+
+  public String toString() {
+    return "generation " + generation + ", population " + populationId
+        + ", raw fitness " + rawFitness + ", " + chromosome.length
+        + " bytes";
+  }
+
+}
@@ -0,0 +1,465 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A genome recorder writes evaluated genomes to an append-only log for
+ * offline analysis.  Each record holds the generation in which the genome
+ * was evaluated, the id of its population, its raw fitness, and its alleles
+ * in the compact form written by Genome.encodeCompact().  The log is read
+ * with a GenomeLogReader.
+ *
+ * The alleles of a genome are encoded on the thread calling record(), and
+ * the record is placed on a bounded queue.  A writer thread takes records
+ * from the queue and writes them to disk, so the GA waits for the disk only
+ * if the writer falls a full queue behind.  If the recorder is set to
+ * discard when full, records that do not fit in the queue are counted and
+ * dropped instead, and the GA never waits.
+ *
+ * The log is a series of segment files in a directory, named for the log
+ * and numbered from 0, as in run-00000000.log.  A new segment is started
+ * when the next record would make the current one larger than the segment
+ * size.  Each segment begins with a header, and each record is its length
+ * followed by the generation and population id as variable length
+ * differences from the record before in the segment, the raw fitness, and
+ * the alleles.
+ */
+public class GenomeRecorder {
+
+  /**
+   * The first four bytes of a segment, "JGAL"
+   */
+  static final int MAGIC = 0x4A47414C;
+
+  /**
+   * The version of the log format
+   */
+  static final int VERSION = 1;
+
+  /**
+   * The number of bytes in a segment header
+   */
+  static final int HEADER_SIZE = 8;
+
+  /**
+   * The directory holding the segments
+   */
+  File directory;
+
+  /**
+   * The name of the log, the first part of the name of each segment
+   */
+  String name;
+
+  /**
+   * The largest number of bytes in a segment, unless a single record is
+   * larger
+   */
+  long segmentSize;
+
+  /**
+   * The records waiting to be written
+   */
+  BlockingQueue<Entry> queue;
+
+  /**
+   * True to drop records when the queue is full rather than wait
+   */
+  volatile boolean discardWhenFull = false;
+
+  /**
+   * The buffer into which the alleles of a genome are encoded by record()
+   */
+  ByteBuffer chromosome = ByteBuffer.allocate(256);
+
+  /**
+   * The thread writing records to disk
+   */
+  Thread writer;
+
+  /**
+   * True once close() has been called
+   */
+  volatile boolean closed = false;
+
+  /**
+   * The number of records written to disk
+   */
+  volatile long recordCount = 0;
+
+  /**
+   * The number of records dropped because the queue was full
+   */
+  volatile long discardedCount = 0;
+
+  /**
+   * The number of segments started
+   */
+  volatile int segmentCount = 0;
+
+  /**
+   * The exception that stopped the writer, or null
+   */
+  volatile IOException lastFailure = null;
+
+  // state of the writer thread
+
+  /**
+   * The segment being written
+   */
+  FileChannel segment = null;
+
+  /**
+   * The number of bytes written to the segment, including the buffer
+   */
+  long segmentBytes = 0;
+
+  /**
+   * The buffer of bytes waiting to be written to the segment
+   */
+  ByteBuffer output = ByteBuffer.allocateDirect(1 << 20);
+
+  /**
+   * The generation and population id of the last record in the segment
+   */
+  int lastGeneration, lastPopulationId;
+
+  /**
+   * A record waiting to be written
+   */
+  static class Entry {
+    int generation;
+    int populationId;
+    double rawFitness;
+    byte[] chromosome;
+  }
+
+  /**
+   * The entry placed on the queue by close() to stop the writer
+   */
+  static final Entry END = new Entry();
+
+  /**
+   * Constructor
+   * Starts segments at 64 MB and holds up to 65536 records in the queue.
+   * @param directory The directory to hold the segments, created if needed
+   * @param name The name of the log
+   */
+  public GenomeRecorder(File directory, String name)
+      throws GAException, IOException {
+    this(directory, name, 64L << 20, 65536);
+  }
+
+  /**
+   * Constructor
+   * @param directory The directory to hold the segments, created if needed
+   * @param name The name of the log
+   * @param segmentSize The size in bytes at which a new segment is started
+   * @param queueCapacity The largest number of records waiting to be
+   * written
+   */
+  public GenomeRecorder(File directory, String name, long segmentSize,
+      int queueCapacity) throws GAException, IOException {
+    if (segmentSize <= HEADER_SIZE) {
+      throw new GAException("The segment size must be larger than "
+          + HEADER_SIZE + " bytes");
+    }
+    if (queueCapacity <= 0) {
+      throw new GAException("The queue capacity must be a positive integer");
+    }
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Cannot create the directory " + directory);
+    }
+    if (GenomeLogReader.getSegments(directory, name).length > 0) {
+      throw new GAException("The log " + name + " already exists in "
+          + directory);
+    }
+    this.directory = directory;
+    this.name = name;
+    this.segmentSize = segmentSize;
+    queue = new ArrayBlockingQueue<Entry>(queueCapacity);
+    writer = new Thread(this::writeRecords, "GA genome recorder " + name);
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Sets whether records are dropped when the queue is full rather than
+   * waiting for the writer
+   */
+  public void setDiscardWhenFull(boolean discard) {
+    discardWhenFull = discard;
+  }
+
+  /**
+   * Returns true if records are dropped when the queue is full
+   */
+  public boolean getDiscardWhenFull() {
+    return discardWhenFull;
+  }
+
+  /**
+   * Records an evaluated genome.  The alleles are encoded before this
+   * method returns, so the genome may be changed afterward.  Records from
+   * one recorder should be made by one thread at a time, as GA.evaluate()
+   * makes them.
+   * @param generation The generation in which the genome was evaluated
+   * @param populationId The id of the population holding the genome
+   * @param g The genome
+   */
+  public synchronized void record(int generation, int populationId,
+      Genome g) throws GAException {
+    Entry entry;
+
+    if (closed) {
+      throw new GAException("The genome recorder is closed");
+    }
+    if (lastFailure != null) {
+      throw new GAException("The genome recorder failed: "
+          + lastFailure.getMessage(), lastFailure);
+    }
+    entry = new Entry();
+    entry.generation = generation;
+    entry.populationId = populationId;
+    entry.rawFitness = g.getRawFitness();
+    entry.chromosome = this.encode(g);
+    if (discardWhenFull) {
+      if (!queue.offer(entry)) {
+        discardedCount++;
+      }
+      return;
+    }
+    try {
+      while (!queue.offer(entry, 100, TimeUnit.MILLISECONDS)) {
+        if (lastFailure != null) {
+          throw new GAException("The genome recorder failed: "
+              + lastFailure.getMessage(), lastFailure);
+        }
+      }
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      discardedCount++;
+    }
+  }
+
+  /**
+   * Returns the alleles of a genome in compact form
+   */
+  byte[] encode(Genome g) throws GAException {
+    while (true) {
+      chromosome.clear();
+      try {
+        g.encodeCompact(chromosome);
+        return Arrays.copyOf(chromosome.array(), chromosome.position());
+      }
+      catch (BufferOverflowException ex) {
+        chromosome = ByteBuffer.allocate(chromosome.capacity() * 2);
+      }
+    }
+  }
+
+  /**
+   * Writes the records waiting in the queue, closes the log, and stops the
+   * writer thread
+   */
+  public void close() throws IOException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    try {
+      queue.put(END);
+      writer.join();
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    if (lastFailure != null) {
+      throw lastFailure;
+    }
+  }
+
+  /**
+   * Returns the number of records written to disk
+   */
+  public long getRecordCount() {
+    return recordCount;
+  }
+
+  /**
+   * Returns the number of records dropped because the queue was full
+   */
+  public long getDiscardedCount() {
+    return discardedCount;
+  }
+
+  /**
+   * Returns the number of segments started
+   */
+  public int getSegmentCount() {
+    return segmentCount;
+  }
+
+  /**
+   * Returns the exception that stopped the writer, or null if it has not
+   * failed
+   */
+  public IOException getLastFailure() {
+    return lastFailure;
+  }
+
+  /**
+   * Returns the directory holding the segments
+   */
+  public File getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Returns the name of the log
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * The body of the writer thread.  Takes records from the queue until
+   * close() is called, writing the buffer to disk whenever the queue is
+   * empty or the buffer is full.
+   */
+  void writeRecords() {
+    Entry entry;
+
+    try {
+      while (true) {
+        entry = queue.poll();
+        if (entry == null) {
+          this.flush();
+          entry = queue.take();
+        }
+        if (entry == END) {
+          break;
+        }
+        this.write(entry);
+      }
+      this.closeSegment();
+    }
+    catch (IOException ex) {
+      lastFailure = ex;
+      System.err.println("Genome recorder " + name + " failed: "
+          + ex.getMessage());
+      queue.clear();
+    }
+    catch (InterruptedException ex) {
+      lastFailure = new IOException("The genome recorder was interrupted");
+    }
+  }
+
+  /**
+   * Writes a record, starting a new segment if it does not fit in this one
+   */
+  void write(Entry entry) throws IOException {
+    long generationDelta, populationDelta;
+    int bodySize, recordSize;
+
+    if (segment == null) {
+      this.startSegment();
+    }
+    generationDelta = VarInt.zigzag((long)entry.generation - lastGeneration);
+    populationDelta = VarInt.zigzag(
+        (long)entry.populationId - lastPopulationId);
+    bodySize = VarInt.size(generationDelta) + VarInt.size(populationDelta)
+        + 8 + entry.chromosome.length;
+    recordSize = VarInt.size(bodySize) + bodySize;
+    if (segmentBytes + recordSize > segmentSize
+        && segmentBytes > HEADER_SIZE) {
+      this.closeSegment();
+      this.startSegment();
+      generationDelta = VarInt.zigzag(entry.generation);
+      populationDelta = VarInt.zigzag(entry.populationId);
+      bodySize = VarInt.size(generationDelta) + VarInt.size(populationDelta)
+          + 8 + entry.chromosome.length;
+      recordSize = VarInt.size(bodySize) + bodySize;
+    }
+    if (output.remaining() < recordSize) {
+      this.flush();
+      if (output.capacity() < recordSize) {
+        output = ByteBuffer.allocateDirect(recordSize);
+      }
+    }
+    VarInt.put(output, bodySize);
+    VarInt.put(output, generationDelta);
+    VarInt.put(output, populationDelta);
+    output.putDouble(entry.rawFitness);
+    output.put(entry.chromosome);
+    segmentBytes += recordSize;
+    lastGeneration = entry.generation;
+    lastPopulationId = entry.populationId;
+    recordCount++;
+  }
+
+  /**
+   * Opens the next segment and writes its header
+   */
+  void startSegment() throws IOException {
+    File file;
+
+    file = GenomeLogReader.getSegmentFile(directory, name, segmentCount);
+    segment = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW,
+        StandardOpenOption.WRITE);
+    segmentCount++;
+    output.putInt(MAGIC);
+    output.putInt(VERSION);
+    segmentBytes = HEADER_SIZE;
+    lastGeneration = 0;
+    lastPopulationId = 0;
+  }
+
+  /**
+   * Writes the buffer to the segment
+   */
+  void flush() throws IOException {
+    if (segment == null) {
+      return;
+    }
+    output.flip();
+    while (output.hasRemaining()) {
+      segment.write(output);
+    }
+    output.clear();
+  }
+
+  /**
+   * Writes the buffer to the segment, forces the segment to disk, and
+   * closes it
+   */
+  void closeSegment() throws IOException {
+    if (segment == null) {
+      return;
+    }
+    this.flush();
+    segment.force(false);
+    segment.close();
+    segment = null;
+  }
+
+}
@@ -0,0 +1,281 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A genome store holds a fixed number of fixed length chromosomes and their
+ * fitness outside the Java heap, so that very large populations neither
+ * fill the heap nor lengthen garbage collection.  The memory is divided
+ * into slots, one per genome, each holding the raw fitness of the genome,
+ * whether it has been evaluated, and its chromosome.  The slots are held in
+ * chunks of up to 1 GB of direct memory, or of a memory-mapped file for
+ * stores larger than physical memory.
+ *
+ * The store is read and written through OffHeapGenome views.  A store is
+ * not synchronized; distinct slots may be written by different threads.
+ */
+public class GenomeStore {
+
+  /**
+   * The number of bytes before the chromosome in each slot
+   */
+  static final int HEADER_SIZE = 16;
+
+  /**
+   * The position of the raw fitness in a slot
+   */
+  static final int RAW_FITNESS = 0;
+
+  /**
+   * The position of the flags in a slot
+   */
+  static final int FLAGS = 8;
+
+  /**
+   * The flag set when the genome in a slot has been evaluated
+   */
+  static final int EVALUATED = 1;
+
+  /**
+   * The largest number of bytes in a chunk
+   */
+  static final int MAX_CHUNK_SIZE = 1 << 30;
+
+  /**
+   * The number of slots in the store
+   */
+  int capacity;
+
+  /**
+   * The number of bytes in each chromosome
+   */
+  int chromosomeBytes;
+
+  /**
+   * The number of bytes in each slot, a multiple of eight
+   */
+  int slotSize;
+
+  /**
+   * The number of slots in each chunk
+   */
+  int slotsPerChunk;
+
+  /**
+   * The memory holding the slots
+   */
+  ByteBuffer[] chunks;
+
+  /**
+   * The file mapped into the chunks, or null if they are direct memory
+   */
+  File file = null;
+
+  /**
+   * Constructor
+   * Allocates the store in direct memory.
+   * @param capacity The number of slots.  Must be a positive integer.
+   * @param chromosomeBytes The number of bytes in each chromosome
+   */
+  public GenomeStore(int capacity, int chromosomeBytes) throws GAException {
+    int i;
+
+    this.setSize(capacity, chromosomeBytes);
+    for (i = 0; i < chunks.length; i++) {
+      chunks[i] = ByteBuffer.allocateDirect(this.getChunkSize(i))
+          .order(ByteOrder.nativeOrder());
+    }
+  }
+
+  /**
+   * Constructor
+   * Maps the store from a file, which is created or extended to the size of
+   * the store.  The contents of the file are kept, so a store may be
+   * reopened with the same capacity and chromosome length.
+   * @param capacity The number of slots.  Must be a positive integer.
+   * @param chromosomeBytes The number of bytes in each chromosome
+   * @param file The file holding the store
+   */
+  public GenomeStore(int capacity, int chromosomeBytes, File file)
+      throws GAException, IOException {
+    MappedByteBuffer chunk;
+    long position;
+    int i;
+
+    this.setSize(capacity, chromosomeBytes);
+    this.file = file;
+    try (FileChannel channel = FileChannel.open(file.toPath(),
+        StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      position = 0;
+      for (i = 0; i < chunks.length; i++) {
+        chunk = channel.map(FileChannel.MapMode.READ_WRITE, position,
+            this.getChunkSize(i));
+        chunks[i] = chunk.order(ByteOrder.nativeOrder());
+        position += this.getChunkSize(i);
+      }
+    }
+  }
+
+  /**
+   * Checks the size of the store and divides it into chunks
+   */
+  void setSize(int capacity, int chromosomeBytes) throws GAException {
+    if (capacity <= 0) {
+      throw new GAException(
+          "The capacity of a genome store must be a positive integer");
+    }
+    if (chromosomeBytes < 0
+        || chromosomeBytes > MAX_CHUNK_SIZE - HEADER_SIZE - 8) {
+      throw new GAException("A chromosome of " + chromosomeBytes
+          + " bytes cannot be stored");
+    }
+    this.capacity = capacity;
+    this.chromosomeBytes = chromosomeBytes;
+    slotSize = HEADER_SIZE + (chromosomeBytes + 7) / 8 * 8;
+    slotsPerChunk = Math.min(MAX_CHUNK_SIZE / slotSize, capacity);
+    chunks = new ByteBuffer[(capacity + slotsPerChunk - 1) / slotsPerChunk];
+  }
+
+  /**
+   * Returns the number of bytes in a chunk
+   */
+  int getChunkSize(int chunk) {
+    return Math.min(slotsPerChunk, capacity - chunk * slotsPerChunk)
+        * slotSize;
+  }
+
+  /**
+   * Returns the chunk holding a slot
+   */
+  ByteBuffer getChunk(int slot) {
+    return chunks[slot / slotsPerChunk];
+  }
+
+  /**
+   * Returns the position of a slot in its chunk
+   */
+  int getOffset(int slot) {
+    return (slot % slotsPerChunk) * slotSize;
+  }
+
+  /**
+   * Returns the number of slots in the store
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of bytes in each chromosome
+   */
+  public int getChromosomeBytes() {
+    return chromosomeBytes;
+  }
+
+  /**
+   * Returns the file mapped into the store, or null if it is held in direct
+   * memory
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Returns the raw fitness of the genome in a slot
+   */
+  public double getRawFitness(int slot) {
+    return this.getChunk(slot).getDouble(this.getOffset(slot) + RAW_FITNESS);
+  }
+
+  /**
+   * Sets the raw fitness of the genome in a slot and marks it evaluated
+   */
+  public void setRawFitness(int slot, double f) {
+    ByteBuffer chunk;
+    int offset;
+
+    chunk = this.getChunk(slot);
+    offset = this.getOffset(slot);
+    chunk.putDouble(offset + RAW_FITNESS, f);
+    chunk.putInt(offset + FLAGS, chunk.getInt(offset + FLAGS) | EVALUATED);
+  }
+
+  /**
+   * Returns true if the genome in a slot has been evaluated
+   */
+  public boolean getIsEvaluated(int slot) {
+    return (this.getChunk(slot).getInt(this.getOffset(slot) + FLAGS)
+        & EVALUATED) != 0;
+  }
+
+  /**
+   * Marks the genome in a slot evaluated or not
+   */
+  public void setIsEvaluated(int slot, boolean evaluated) {
+    ByteBuffer chunk;
+    int offset, flags;
+
+    chunk = this.getChunk(slot);
+    offset = this.getOffset(slot);
+    flags = chunk.getInt(offset + FLAGS);
+    chunk.putInt(offset + FLAGS,
+        evaluated ? flags | EVALUATED : flags & ~EVALUATED);
+  }
+
+  /**
+   * Copies the whole of a slot, fitness and chromosome, to a slot of
+   * another store with chromosomes of the same length
+   */
+  public void copySlot(int slot, GenomeStore dest, int destSlot) {
+    copy(this.getChunk(slot), this.getOffset(slot), dest.getChunk(destSlot),
+        dest.getOffset(destSlot), HEADER_SIZE + chromosomeBytes);
+  }
+
+  /**
+   * Copies bytes between two buffers, eight at a time while it can
+   * @param from The position of the first byte in the source
+   * @param to The position of the first byte in the destination
+   * @param length The number of bytes
+   */
+  static void copy(ByteBuffer source, int from, ByteBuffer dest, int to,
+      int length) {
+    int i;
+
+    for (i = 0; i + 8 <= length; i += 8) {
+      dest.putLong(to + i, source.getLong(from + i));
+    }
+    for (; i < length; i++) {
+      dest.put(to + i, source.get(from + i));
+    }
+  }
+
+  /**
+   * Writes the changes to a store mapped from a file to the file.  Does
+   * nothing for a store in direct memory.
+   */
+  public void force() {
+    int i;
+
+    if (file == null) {
+      return;
+    }
+    for (i = 0; i < chunks.length; i++) {
+      ((MappedByteBuffer)chunks[i]).force();
+    }
+  }
+
+}
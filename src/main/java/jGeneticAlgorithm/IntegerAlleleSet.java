@@ -8,6 +8,7 @@ package jGeneticAlgorithm;
  */
 
 import cern.jet.random.engine.RandomEngine;
+import cern.jet.random.Uniform;
 
 /**
  * This allele set randomly generates integer AlleleValues in the
@@ -50,7 +51,17 @@ public  class IntegerAlleleSet extends AlleleSet {
    * @return An integer allele value between min and max
    */
   public AlleleValue getRandomValue() {
-    return new IntegerAlleleValue(uniform.nextIntFromTo(min, max));
+    return this.getRandomValue(uniform);
+  }
+
+  /**
+   * Returns a uniformly distributed IntegerAlleleValue from min to max drawn
+   * from the distribution passed in
+   * @param u The uniform distribution from which to draw the value
+   * @return An integer allele value between min and max
+   */
+  public AlleleValue getRandomValue(Uniform u) {
+    return new IntegerAlleleValue(u.nextIntFromTo(min, max));
   }
 
   /**
@@ -44,4 +44,21 @@ public class IntegerAlleleValue implements AlleleValue {
   public String display() {
     return Integer.toString(value);
   }
+
+  /**
+   * Returns true if o is an IntegerAlleleValue with the same value
+   */
+  public boolean equals(Object o) {
+    if (!(o instanceof IntegerAlleleValue)) {
+      return false;
+    }
+    return value == ((IntegerAlleleValue)o).value;
+  }
+
+  /**
+   * Returns a hash code based on the value
+   */
+  public int hashCode() {
+    return value;
+  }
 }
\ No newline at end of file
@@ -0,0 +1,726 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Vector;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An island node lets the populations of a species live in separate
+ * processes, perhaps on separate machines.  Each process runs a GA whose
+ * species holds one population, the island, and an island node that
+ * exchanges migrants with the islands in the other processes over TCP.
+ *
+ * The node listens to the GA and migrates at the end of the evaluation
+ * phase of every interval generations, so migrants carry their fitness and
+ * take part in the selection of the generation they arrive in.  The best
+ * genomes of the island are copied and sent to the islands chosen by the
+ * topology, and the migrants received since the last migration replace the
+ * worst genomes of the island.  The population keeps its size.
+ *
+ * Migrants are exchanged asynchronously.  The GA thread encodes the
+ * emigrants in the compact form written by Genome.encodeCompact() and
+ * places the message on a bounded queue, from which a sender thread writes
+ * it to each destination.  A receiver thread for each incoming connection
+ * decodes migrants as they arrive and holds them until the next migration.
+ * The GA therefore never waits for the network: a message that does not
+ * fit in the queue, or cannot be sent because its destination is not yet
+ * listening or has gone, is dropped and counted, and the connection is
+ * tried again with the next message.
+ *
+ * Every island must use genomes of the same structure and the same fitness
+ * function, and the island numbers must index the same array of addresses
+ * in every process.  For testing on one host, give every island a port on
+ * the loopback address.
+ */
+public class IslandNode implements GAListener {
+
+  /**
+   * The first four bytes sent on a connection, "JGAI"
+   */
+  static final int MAGIC = 0x4A474149;
+
+  /**
+   * The version of the migration protocol
+   */
+  static final int VERSION = 1;
+
+  /**
+   * The largest message accepted from another island
+   */
+  static final int MAX_MESSAGE_SIZE = 64 << 20;
+
+  /**
+   * The longest time, in milliseconds, to wait to connect to another island
+   */
+  static final int CONNECT_TIMEOUT = 1000;
+
+  /**
+   * An encoded message waiting to be sent
+   */
+  static class Message {
+    byte[] bytes;
+    int count;     // the number of genomes in the message
+  }
+
+  /**
+   * The message placed on the queue by close() to stop the sender
+   */
+  static final Message END = new Message();
+
+  /**
+   * The algorithm evolving the island
+   */
+  GA ga;
+
+  /**
+   * The population of this island
+   */
+  Population population;
+
+  /**
+   * The number of this island
+   */
+  int island;
+
+  /**
+   * The address on which each island listens, by island number
+   */
+  InetSocketAddress[] addresses;
+
+  /**
+   * The topology choosing the islands that migrants are sent to
+   */
+  IslandTopology topology = IslandTopology.RING;
+
+  /**
+   * The number of generations between migrations
+   */
+  int migrationInterval = 5;
+
+  /**
+   * The number of genomes sent to each destination at each migration
+   */
+  int migrantCount = 2;
+
+  /**
+   * A genome of the structure of the island, copied to decode migrants
+   */
+  Genome template;
+
+  /**
+   * The socket on which migrants from other islands are accepted
+   */
+  ServerSocketChannel server;
+
+  /**
+   * The connections from other islands
+   */
+  Vector<SocketChannel> incoming = new Vector<SocketChannel>();
+
+  /**
+   * The connection to each island, or null if there is none.  Used only by
+   * the sender thread.
+   */
+  SocketChannel[] outgoing;
+
+  /**
+   * The encoded messages waiting to be sent
+   */
+  BlockingQueue<Message> outbox = new ArrayBlockingQueue<Message>(16);
+
+  /**
+   * The migrants received and not yet added to the island
+   */
+  ConcurrentLinkedQueue<Genome> arrivals = new ConcurrentLinkedQueue<Genome>();
+
+  /**
+   * The buffer into which the alleles of an emigrant are encoded
+   */
+  ByteBuffer chromosome = ByteBuffer.allocate(256);
+
+  /**
+   * The thread accepting connections from other islands
+   */
+  Thread acceptor;
+
+  /**
+   * The thread sending messages to other islands
+   */
+  Thread sender;
+
+  /**
+   * True once close() has been called
+   */
+  volatile boolean closed = false;
+
+  /**
+   * The number of genomes sent to other islands, counting each destination
+   */
+  volatile long sentCount = 0;
+
+  /**
+   * The number of migrants received from other islands, counted by the
+   * receiver threads
+   */
+  LongAdder receivedCount = new LongAdder();
+
+  /**
+   * The number of migrants added to the island
+   */
+  long acceptedCount = 0;
+
+  /**
+   * The number of genomes dropped, sent or received, because a queue was
+   * full or a destination could not be reached, counted by the GA and
+   * sender threads
+   */
+  LongAdder droppedCount = new LongAdder();
+
+  /**
+   * The exception from the last failure to exchange migrants, or null
+   */
+  volatile Exception lastFailure = null;
+
+  /**
+   * Constructor
+   * Listens on the address of the island, starts the sender and receiver
+   * threads, and adds the node as a listener to the GA.
+   * @param ga The algorithm evolving the island
+   * @param population The population of this island.  It must hold at
+   * least one genome.
+   * @param island The number of this island
+   * @param addresses The address on which each island listens, by island
+   * number
+   */
+  public IslandNode(GA ga, Population population, int island,
+      InetSocketAddress[] addresses) throws GAException, IOException {
+    if (island < 0 || island >= addresses.length) {
+      throw new GAException("Island " + island + " has no address");
+    }
+    if (population.getGenomes().isEmpty()) {
+      throw new GAException("The population of an island must not be empty");
+    }
+    this.ga = ga;
+    this.population = population;
+    this.island = island;
+    this.addresses = addresses.clone();
+    outgoing = new SocketChannel[addresses.length];
+    try {
+      template = ((Genome)population.getGenomes().firstElement()).copy();
+    }
+    catch (CloneNotSupportedException e) {
+      System.out.println(e.getMessage());
+      e.printStackTrace();
+      System.exit(1);
+    }
+    server = ServerSocketChannel.open();
+    server.bind(addresses[island]);
+    acceptor = new Thread(this::acceptConnections, "GA island " + island
+        + " acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    sender = new Thread(this::sendMessages, "GA island " + island
+        + " sender");
+    sender.setDaemon(true);
+    sender.start();
+    ga.addListener(this);
+  }
+
+  /**
+   * Sets the topology choosing the islands that migrants are sent to
+   */
+  public void setTopology(IslandTopology t) {
+    topology = t;
+  }
+
+  /**
+   * Returns the topology choosing the islands that migrants are sent to
+   */
+  public IslandTopology getTopology() {
+    return topology;
+  }
+
+  /**
+   * Sets the number of generations between migrations
+   * @param n A positive integer
+   */
+  public void setMigrationInterval(int n) throws GAException {
+    if (n <= 0) {
+      throw new GAException(
+          "The migration interval must be a positive integer");
+    }
+    migrationInterval = n;
+  }
+
+  /**
+   * Returns the number of generations between migrations
+   */
+  public int getMigrationInterval() {
+    return migrationInterval;
+  }
+
+  /**
+   * Sets the number of genomes sent to each destination at each migration
+   * @param n A non-negative integer
+   */
+  public void setMigrantCount(int n) throws GAException {
+    if (n < 0) {
+      throw new GAException("The migrant count must not be negative");
+    }
+    migrantCount = n;
+  }
+
+  /**
+   * Returns the number of genomes sent to each destination at each
+   * migration
+   */
+  public int getMigrantCount() {
+    return migrantCount;
+  }
+
+  public void phaseStarted(PhaseEvent e) {
+  }
+
+  /**
+   * Migrates at the end of the evaluation phase of every interval
+   * generations
+   */
+  public void phaseEnded(PhaseEvent e) {
+    if (e.getSource() == ga && e.getPhase() == Phase.EVALUATION
+        && e.getGeneration() % migrationInterval == 0) {
+      this.migrate(e.getGeneration());
+    }
+  }
+
+  /**
+   * Sends copies of the best genomes of the island to its destinations and
+   * replaces the worst genomes with the migrants received since the last
+   * migration.  The genomes of the island must have been evaluated, and the
+   * GA must not be stepped by another thread meanwhile.
+   * @param generation The generation of the island
+   */
+  public void migrate(int generation) {
+    MigrationEvent event;    // the flight recorder event
+    Vector genomes;
+    int[] order;             // the genomes from best to worst
+    int emigrants, immigrants;
+
+    event = new MigrationEvent();
+    event.begin();
+    genomes = population.getGenomes();
+    population.updateFitnessColumns();
+    population.rankGenomes();
+    order = population.getFitnessOrder();
+
+    emigrants = 0;
+    if (topology.getDestinations(island, addresses.length).length > 0) {
+      emigrants = Math.min(migrantCount, genomes.size());
+      while (emigrants > 0
+          && !((Genome)genomes.elementAt(order[emigrants - 1])).isEvaluated) {
+        emigrants--;
+      }
+      if (emigrants > 0) {
+        this.send(generation, genomes, order, emigrants);
+      }
+    }
+
+    // the migrants take the places of the worst genomes, up to half of them
+    immigrants = 0;
+    while (immigrants < genomes.size() / 2 && !arrivals.isEmpty()) {
+      Genome g = arrivals.poll();
+      if (g.getRandomEngine() != population.getRandomEngine()) {
+        g.setRandomEngine(population.getRandomEngine());
+      }
+      population.replaceGenome(order[genomes.size() - 1 - immigrants], g);
+      immigrants++;
+    }
+    while (arrivals.poll() != null) {
+      droppedCount.increment();
+    }
+    acceptedCount += immigrants;
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.populationId = population.getId();
+      event.generation = generation;
+      event.emigrants = emigrants;
+      event.immigrants = immigrants;
+      event.commit();
+    }
+  }
+
+  /**
+   * Encodes copies of the best genomes and places them on the queue for the
+   * sender.  Each message is its length followed by the generation, the
+   * number of genomes, and for each its raw fitness, the length of its
+   * alleles, and its alleles in compact form.
+   */
+  void send(int generation, Vector genomes, int[] order, int n) {
+    Message entry;
+    ByteBuffer message;
+    byte[] alleles;
+    Genome g;
+    int i;
+
+    message = ByteBuffer.allocate(64);
+    try {
+      for (i = 0; i < n; i++) {
+        g = (Genome)genomes.elementAt(order[i]);
+        alleles = this.encode(g);
+        message = ensureRemaining(message, 8 + 5 + alleles.length);
+        if (i == 0) {
+          message.putInt(0);  // the length, set below
+          VarInt.put(message, generation);
+          VarInt.put(message, n);
+        }
+        message.putDouble(g.getRawFitness());
+        VarInt.put(message, alleles.length);
+        message.put(alleles);
+      }
+    }
+    catch (GAException ex) {
+      lastFailure = ex;
+      return;
+    }
+    message.putInt(0, message.position() - 4);
+    entry = new Message();
+    entry.bytes = Arrays.copyOf(message.array(), message.position());
+    entry.count = n;
+    if (closed || !outbox.offer(entry)) {
+      droppedCount.add(n);
+    }
+  }
+
+  /**
+   * Returns a buffer holding the contents of a buffer with room for at least
+   * n more bytes
+   */
+  static ByteBuffer ensureRemaining(ByteBuffer buffer, int n) {
+    ByteBuffer larger;
+
+    if (buffer.remaining() >= n + 16) {
+      return buffer;
+    }
+    larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2,
+        buffer.position() + n + 16));
+    buffer.flip();
+    larger.put(buffer);
+    return larger;
+  }
+
+  /**
+   * Returns the alleles of a genome in compact form
+   */
+  byte[] encode(Genome g) throws GAException {
+    while (true) {
+      chromosome.clear();
+      try {
+        g.encodeCompact(chromosome);
+        return Arrays.copyOf(chromosome.array(),
+            chromosome.position());
+      }
+      catch (BufferOverflowException ex) {
+        chromosome = ByteBuffer.allocate(chromosome.capacity() * 2);
+      }
+    }
+  }
+
+  /**
+   * Takes messages from the queue and writes each to every destination of
+   * the island, until close() is called.  Runs on the sender thread.
+   */
+  void sendMessages() {
+    ByteBuffer header;
+    Message message;
+    int[] destinations;
+    int i;
+
+    header = ByteBuffer.allocate(12);
+    while (true) {
+      try {
+        message = outbox.take();
+      }
+      catch (InterruptedException ex) {
+        break;
+      }
+      if (message == END) {
+        break;
+      }
+      destinations = topology.getDestinations(island, addresses.length);
+      for (i = 0; i < destinations.length; i++) {
+        try {
+          if (outgoing[destinations[i]] == null) {
+            outgoing[destinations[i]] = SocketChannel.open();
+            outgoing[destinations[i]].socket().connect(
+                addresses[destinations[i]], CONNECT_TIMEOUT);
+            outgoing[destinations[i]].socket().setTcpNoDelay(true);
+            header.clear();
+            header.putInt(MAGIC).putInt(VERSION).putInt(island).flip();
+            writeFully(outgoing[destinations[i]], header);
+          }
+          writeFully(outgoing[destinations[i]],
+              ByteBuffer.wrap(message.bytes));
+          sentCount += message.count;
+        }
+        catch (IOException ex) {
+          // the destination is not listening yet or has gone
+          this.closeOutgoing(destinations[i]);
+          droppedCount.add(message.count);
+        }
+      }
+    }
+    for (i = 0; i < outgoing.length; i++) {
+      this.closeOutgoing(i);
+    }
+  }
+
+  /**
+   * Closes the connection to an island, if there is one
+   */
+  void closeOutgoing(int destination) {
+    if (outgoing[destination] != null) {
+      try {
+        outgoing[destination].close();
+      }
+      catch (IOException ex) {
+      }
+      outgoing[destination] = null;
+    }
+  }
+
+  /**
+   * Accepts connections from other islands and starts a receiver thread for
+   * each, until close() is called.  Runs on the acceptor thread.
+   */
+  void acceptConnections() {
+    SocketChannel channel;
+
+    while (!closed) {
+      try {
+        channel = server.accept();
+      }
+      catch (ClosedChannelException ex) {
+        break;
+      }
+      catch (IOException ex) {
+        lastFailure = ex;
+        continue;
+      }
+      incoming.add(channel);
+      this.startReceiver(channel);
+    }
+  }
+
+  /**
+   * Starts a receiver thread for a connection from another island
+   */
+  void startReceiver(SocketChannel channel) {
+    Thread receiver;
+
+    receiver = new Thread(() -> this.receiveMigrants(channel),
+        "GA island " + island + " receiver");
+    receiver.setDaemon(true);
+    receiver.start();
+  }
+
+  /**
+   * Reads messages from another island and decodes their migrants until the
+   * connection is closed.  Runs on a receiver thread.
+   */
+  void receiveMigrants(SocketChannel channel) {
+    ByteBuffer header, body;
+    GenomeRecord record;
+    long length;     // a count or length read from the message
+    double fitness;  // the raw fitness of a migrant
+    int source, generation, size, count;
+    int i;
+
+    header = ByteBuffer.allocate(12);
+    try {
+      readFully(channel, header);
+      if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+        throw new GAException("A connection to island " + island
+            + " is not from an island of this version");
+      }
+      source = header.getInt();
+      while (!closed) {
+        header.clear().limit(4);
+        readFully(channel, header);
+        size = header.getInt();
+        if (size <= 0 || size > MAX_MESSAGE_SIZE) {
+          throw new GAException("A message of " + size
+              + " bytes from island " + source + " is malformed");
+        }
+        body = ByteBuffer.allocate(size);
+        readFully(channel, body);
+        generation = (int)VarInt.get(body);
+        length = VarInt.get(body);
+        // each migrant takes at least one byte
+        if (length < 0 || length > body.remaining()) {
+          throw new GAException("A message of " + length
+              + " migrants from island " + source + " is malformed");
+        }
+        count = (int)length;
+        for (i = 0; i < count; i++) {
+          fitness = body.getDouble();
+          length = VarInt.get(body);
+          if (length < 0 || length > body.remaining()) {
+            throw new GAException("A message with a migrant of " + length
+                + " bytes from island " + source + " is malformed");
+          }
+          record = new GenomeRecord(generation, source, fitness,
+              new byte[(int)length]);
+          body.get(record.chromosome);
+          arrivals.add(record.toGenome(template));
+          receivedCount.increment();
+        }
+      }
+    }
+    catch (EOFException | ClosedChannelException ex) {
+      // the other island or this one has closed the connection
+    }
+    catch (Exception ex) {
+      if (!closed) {
+        lastFailure = ex;
+      }
+    }
+    try {
+      channel.close();
+    }
+    catch (IOException ex) {
+    }
+    incoming.remove(channel);
+  }
+
+  /**
+   * Reads from a channel until a buffer is full, then flips it
+   */
+  static void readFully(SocketChannel channel, ByteBuffer buffer)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        throw new EOFException();
+      }
+    }
+    buffer.flip();
+  }
+
+  /**
+   * Writes the whole of a buffer to a channel
+   */
+  static void writeFully(SocketChannel channel, ByteBuffer buffer)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * Returns the number of this island
+   */
+  public int getIsland() {
+    return island;
+  }
+
+  /**
+   * Returns the population of this island
+   */
+  public Population getPopulation() {
+    return population;
+  }
+
+  /**
+   * Returns the address on which this island listens, with the port chosen
+   * if the address gave port 0
+   */
+  public InetSocketAddress getLocalAddress() throws IOException {
+    return (InetSocketAddress)server.getLocalAddress();
+  }
+
+  /**
+   * Returns the number of genomes sent to other islands, counting each
+   * destination
+   */
+  public long getSentCount() {
+    return sentCount;
+  }
+
+  /**
+   * Returns the number of migrants received from other islands
+   */
+  public long getReceivedCount() {
+    return receivedCount.sum();
+  }
+
+  /**
+   * Returns the number of migrants added to this island
+   */
+  public long getAcceptedCount() {
+    return acceptedCount;
+  }
+
+  /**
+   * Returns the number of genomes dropped because a queue was full or a
+   * destination could not be reached
+   */
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  /**
+   * Returns the exception from the last failure to exchange migrants, or
+   * null if there has been none
+   */
+  public Exception getLastFailure() {
+    return lastFailure;
+  }
+
+  /**
+   * Sends the messages waiting in the queue, closes every connection, and
+   * stops the threads of this node.  The node is removed from the GA.
+   */
+  public void close() throws IOException {
+    int i;
+
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    ga.removeListener(this);
+    try {
+      outbox.put(END);
+      sender.join();
+    }
+    catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      sender.interrupt();
+    }
+    server.close();
+    synchronized (incoming) {
+      for (i = 0; i < incoming.size(); i++) {
+        incoming.elementAt(i).close();
+      }
+    }
+  }
+
+}
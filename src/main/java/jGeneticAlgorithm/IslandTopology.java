@@ -0,0 +1,51 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * An island topology decides which islands of a distributed island model
+ * each island sends its migrants to.  Islands are numbered from 0.  The
+ * common topologies are provided as constants; others may be written as a
+ * lambda expression.
+ */
+public interface IslandTopology {
+
+  /**
+   * Each island sends to the next, and the last to the first
+   */
+  public static final IslandTopology RING = (island, islands) ->
+      islands <= 1 ? new int[0] : new int[] {(island + 1) % islands};
+
+  /**
+   * Each island sends to the islands before and after it in a ring
+   */
+  public static final IslandTopology BIDIRECTIONAL_RING = (island, islands) ->
+      islands <= 2 ? RING.getDestinations(island, islands)
+          : new int[] {(island + islands - 1) % islands,
+              (island + 1) % islands};
+
+  /**
+   * Each island sends to every other island
+   */
+  public static final IslandTopology FULLY_CONNECTED = (island, islands) -> {
+    int[] destinations = new int[Math.max(islands - 1, 0)];
+    int i;
+
+    for (i = 0; i < destinations.length; i++) {
+      destinations[i] = i < island ? i : i + 1;
+    }
+    return destinations;
+  };
+
+  /**
+   * Returns the islands to which an island sends its migrants
+   * @param island The number of the sending island
+   * @param islands The number of islands
+   */
+  public int[] getDestinations(int island, int islands);
+}
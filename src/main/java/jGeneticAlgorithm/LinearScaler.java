@@ -0,0 +1,86 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * The LinearScaler scales a Population so that the selection weight of each
+ * genome is a linear function of its fitness, chosen so that the most fit
+ * genome is selected a given multiple of the average number of times.  If
+ * that would give the least fit genomes a negative weight, the least fit
+ * genome gets a weight of 0 instead and the multiple is as large as
+ * possible.  If every genome has the same fitness, all are equally likely.
+ */
+public class LinearScaler extends StreamingScaler {
+
+  /**
+   * The ratio of the weight of the most fit genome to the average weight
+   */
+  double multiple;
+
+  /**
+   * The offset added to the merit of each genome above the least fit
+   */
+  double offset;
+
+  /**
+   * Constructor
+   * @param multiple The ratio of the weight of the most fit genome to the
+   * average weight.  Must be greater than 1.  Values from 1.2 to 2 are
+   * typical.
+   */
+  public LinearScaler(double multiple) throws GAException {
+    super();
+    this.setMultiple(multiple);
+  }
+
+  /**
+   * Sets the ratio of the weight of the most fit genome to the average
+   * weight
+   * @param multiple The ratio.  Must be greater than 1.
+   */
+  public void setMultiple(double multiple) throws GAException {
+    if (!(multiple > 1)) {
+      throw new GAException("The multiple must be greater than 1");
+    }
+    this.multiple = multiple;
+  }
+
+  /**
+   * Returns the ratio of the weight of the most fit genome to the average
+   * weight
+   */
+  public double getMultiple() {
+    return multiple;
+  }
+
+  /**
+   * Chooses the offset so that (max + offset) = multiple * (mean + offset),
+   * where max and mean are measured from the least fit genome
+   */
+  protected void prepare(FitnessSummary s) {
+    double range;        // the merit of the most fit above the least fit
+    double average;      // the average merit above the least fit
+
+    range = s.getMax() - s.getMin();
+    average = s.getMean() - s.getMin();
+    offset = (range - multiple * average) / (multiple - 1);
+    if (offset < 0) {
+      offset = 0;
+    }
+  }
+
+  /**
+   * Returns the merit of the genome above the least fit plus the offset
+   */
+  protected double weight(double merit, FitnessSummary s) {
+    if (s.getMax() == s.getMin()) {
+      return 1.0;
+    }
+    return merit - s.getMin() + offset;
+  }
+}
@@ -9,6 +9,7 @@ package jGeneticAlgorithm;
 
 import java.util.Vector;
 import java.util.Enumeration;
+import java.nio.ByteBuffer;
 import cern.jet.random.engine.RandomEngine;
 
 /**
@@ -61,37 +62,39 @@ public class ListGenome extends Genome {
 
   /**
    * Performs mutation on the genome by randomly testing each element in
-   * alleleValues for mutation using the mutationRate.  If a test for
+   * alleleValues for mutation using the mutationRate, or by skip sampling if
+   * it is selected.  If a test for
    * mutation is successful, replaces the value at alleleValues with a
    * new AlleleValue object generated by a call to alleleSets.getRandomValue()
+   * If any value is mutated, the genome is marked as not evaluated.
    */
   public void mutate() {
     int i;
 
 //		System.out.println("Before mutation: \n" + this.debug());
-    for (i = 0; i < alleleValues.size(); i++) {
-      if (uniform.nextDoubleFromTo(0, 1) < mutationRate) {
+    for (i = this.nextMutationPosition(0, alleleValues.size()); i < alleleValues.size();
+         i = this.nextMutationPosition(i + 1, alleleValues.size())) {
 //				System.out.println("Mutating allele " + i);
-        // add a point, replace a point, or delete a point with equal probability
-        int action = uniform.nextIntFromTo(1, 3);
-        if (action == 1) {
-          //System.out.println("Replacing element " + i);
-          alleleValues.setElementAt(alleleSet.getRandomValue(), i);
-        }
-        else if (action == 2) {
-          //System.out.println("Removing element " + i);
-          alleleValues.remove(i);
-        }
-        else if (action == 3) {
-          //System.out.println("Adding new element " + i);
-          alleleValues.add(i, alleleSet.getRandomValue());
-        }
-        else {
-          System.out.println("Illegal action value: " + action + " in ListGenome.mutate()");
-          GAException e = new GAException();
-          e.printStackTrace();
-          System.exit(1);
-        }
+      this.setIsEvaluated(false);
+      // add a point, replace a point, or delete a point with equal probability
+      int action = uniform.nextIntFromTo(1, 3);
+      if (action == 1) {
+        //System.out.println("Replacing element " + i);
+        alleleValues.setElementAt(alleleSet.getRandomValue(uniform), i);
+      }
+      else if (action == 2) {
+        //System.out.println("Removing element " + i);
+        alleleValues.remove(i);
+      }
+      else if (action == 3) {
+        //System.out.println("Adding new element " + i);
+        alleleValues.add(i, alleleSet.getRandomValue(uniform));
+      }
+      else {
+        System.out.println("Illegal action value: " + action + " in ListGenome.mutate()");
+        GAException e = new GAException();
+        e.printStackTrace();
+        System.exit(1);
       }
     }
 //		System.out.println("After mutation: \n" + this.debug());
@@ -162,7 +165,7 @@ public class ListGenome extends Genome {
     this.setIsEvaluated(false);
     s = uniform.nextIntFromTo(minValues, maxValues);
     for (i = 0; i < s; i++) {
-      alleleValues.add(alleleSet.getRandomValue());
+      alleleValues.add(alleleSet.getRandomValue(uniform));
     }
   }
 
@@ -190,6 +193,85 @@ public class ListGenome extends Genome {
     return alleleValues;
   }
 
+  /**
+   * Returns the number of bytes encode() writes for this genome
+   */
+  public int getEncodedSize() throws GAException {
+    int size;
+    int i;
+
+    size = 4;
+    for (i = 0; i < alleleValues.size(); i++) {
+      size += getEncodedSize((AlleleValue)alleleValues.elementAt(i));
+    }
+    return size;
+  }
+
+  /**
+   * Writes the length of the list followed by each allele value
+   */
+  public void encode(ByteBuffer out) throws GAException {
+    int i;
+
+    out.putInt(alleleValues.size());
+    for (i = 0; i < alleleValues.size(); i++) {
+      encodeAllele((AlleleValue)alleleValues.elementAt(i), out);
+    }
+  }
+
+  public void decode(ByteBuffer in) throws GAException {
+    Vector values;
+    int i, n;
+
+    n = in.getInt();
+    values = new Vector(n);
+    for (i = 0; i < n; i++) {
+      values.addElement(decodeAllele(in));
+    }
+    alleleValues = values;
+  }
+
+  /**
+   * Writes the allele values in compact form, integer values as the
+   * difference from the value before
+   */
+  public void encodeCompact(ByteBuffer out) throws GAException {
+    AlleleValue[] values;
+
+    values = (AlleleValue[])alleleValues.toArray(
+        new AlleleValue[alleleValues.size()]);
+    encodeAllelesCompact(values, values.length, out);
+  }
+
+  public void decodeCompact(ByteBuffer in) throws GAException {
+    AlleleValue[] values;
+    int i;
+
+    values = decodeAllelesCompact(in);
+    alleleValues = new Vector(values.length);
+    for (i = 0; i < values.length; i++) {
+      alleleValues.addElement(values[i]);
+    }
+  }
+
+  /**
+   * Returns true if o is a genome of the same class with an equal list of
+   * allele values.  Fitness values are not compared.
+   */
+  public boolean equals(Object o) {
+    if (o == null || o.getClass() != this.getClass()) {
+      return false;
+    }
+    return alleleValues.equals(((ListGenome)o).alleleValues);
+  }
+
+  /**
+   * Returns a hash code based on the allele values of this genome
+   */
+  public int hashCode() {
+    return alleleValues.hashCode();
+  }
+
   /**
    * Returns a string description of this object's parameters
    */
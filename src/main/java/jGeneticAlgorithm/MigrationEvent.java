@@ -0,0 +1,40 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event recorded by Species.migrate for each
+ * population of the species, and by IslandNode for its island, spanning the
+ * whole migration.
+ */
+@Name("jGeneticAlgorithm.Migration")
+@Label("Migration")
+@Category("Genetic Algorithm")
+@Description("The movement of genomes out of and into one population of a species")
+@StackTrace(false)
+public class MigrationEvent extends Event {
+
+  @Label("Population Id")
+  int populationId;
+
+  @Label("Generation")
+  int generation;
+
+  @Label("Emigrants")
+  int emigrants;
+
+  @Label("Immigrants")
+  int immigrants;
+}
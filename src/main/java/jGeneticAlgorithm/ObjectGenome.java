@@ -9,6 +9,8 @@ package jGeneticAlgorithm;
 
 import java.util.Vector;
 import java.util.Collections;
+import java.util.Arrays;
+import java.nio.ByteBuffer;
 import cern.jet.random.engine.RandomEngine;
 
 /**
@@ -98,7 +100,7 @@ public  class ObjectGenome extends Genome {
     this.setIsEvaluated(false);
     s = alleleSets.length;
     for (i = 0; i < s; i++) {
-      alleleValues[i] = alleleSets[i].getRandomValue();
+      alleleValues[i] = alleleSets[i].getRandomValue(uniform);
     }
   }
 
@@ -120,17 +122,20 @@ public  class ObjectGenome extends Genome {
 
   /**
    * Performs mutation on the genome by randomly testing each element in
-   * alleleValues[i] for mutation using the mutationRate.  If a test for
-   * mutation is successful, replaces the value at alleleValues[i] with a
-   * new AlleleValue object generated by a call to alleleSets[i].getRandomValue()
+   * alleleValues[i] for mutation using the mutationRate, or by skip sampling
+   * if it is selected.  If a test for mutation is successful, replaces the
+   * value at alleleValues[i] with a new AlleleValue object generated by a call
+   * to alleleSets[i].getRandomValue()
+   * If any value is replaced, the genome is marked as not evaluated.
    */
   public void mutate () {
-    int i;
+    int i, n;
 
-    for (i = 0; i < alleleValues.length; i++) {
-      if (uniform.nextDoubleFromTo(0, 1) < mutationRate) {
-        alleleValues[i] = alleleSets[i].getRandomValue();
-      }
+    n = alleleValues.length;
+    for (i = this.nextMutationPosition(0, n); i < n;
+         i = this.nextMutationPosition(i + 1, n)) {
+      alleleValues[i] = alleleSets[i].getRandomValue(uniform);
+      this.setIsEvaluated(false);
     }
   }
 
@@ -203,6 +208,85 @@ public  class ObjectGenome extends Genome {
     return returnValue;
   }
 
+  /**
+   * Returns the number of bytes encode() writes for this genome
+   */
+  public int getEncodedSize() throws GAException {
+    int size;
+    int i;
+
+    size = 4;
+    for (i = 0; i < alleleValues.length; i++) {
+      size += getEncodedSize(alleleValues[i]);
+    }
+    return size;
+  }
+
+  /**
+   * Writes the number of alleles followed by each allele value
+   */
+  public void encode(ByteBuffer out) throws GAException {
+    int i;
+
+    out.putInt(alleleValues.length);
+    for (i = 0; i < alleleValues.length; i++) {
+      encodeAllele(alleleValues[i], out);
+    }
+  }
+
+  public void decode(ByteBuffer in) throws GAException {
+    AlleleValue[] values;
+    int i, n;
+
+    n = in.getInt();
+    if (n != alleleSets.length) {
+      throw new GAException("Expected " + alleleSets.length
+          + " alleles but read " + n);
+    }
+    values = new AlleleValue[n];
+    for (i = 0; i < n; i++) {
+      values[i] = decodeAllele(in);
+    }
+    alleleValues = values;
+  }
+
+  /**
+   * Writes the allele values in compact form, integer values as the
+   * difference from the value before
+   */
+  public void encodeCompact(ByteBuffer out) throws GAException {
+    encodeAllelesCompact(alleleValues, alleleValues.length, out);
+  }
+
+  public void decodeCompact(ByteBuffer in) throws GAException {
+    AlleleValue[] values;
+
+    values = decodeAllelesCompact(in);
+    if (values.length != alleleSets.length) {
+      throw new GAException("Expected " + alleleSets.length
+          + " alleles but read " + values.length);
+    }
+    alleleValues = values;
+  }
+
+  /**
+   * Returns true if o is a genome of the same class with an equal chromosome.
+   * Fitness values are not compared.
+   */
+  public boolean equals(Object o) {
+    if (o == null || o.getClass() != this.getClass()) {
+      return false;
+    }
+    return Arrays.equals(alleleValues, ((ObjectGenome)o).alleleValues);
+  }
+
+  /**
+   * Returns a hash code based on the chromosome of this genome
+   */
+  public int hashCode() {
+    return Arrays.hashCode(alleleValues);
+  }
+
   /**
    * Returns a string description of this object's parameters
    */
@@ -0,0 +1,24 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * An object which computes the fitness of a genome held in a GenomeStore
+ * implements this interface.  It reads the alleles through the view passed
+ * to it, so no genome objects are created.  Implementations may be called
+ * from several threads at once, each with its own view, so they must not
+ * depend on shared mutable state.
+ */
+public interface OffHeapFitnessFunction {
+  /**
+   * Computes the raw fitness of a genome.  The genome must not be modified.
+   * @param genome A view of the genome to evaluate
+   * @return The raw fitness of the genome
+   */
+  public double evaluate(OffHeapGenome genome);
+}
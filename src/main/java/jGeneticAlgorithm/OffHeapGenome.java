@@ -0,0 +1,516 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import cern.jet.random.engine.RandomEngine;
+import cern.jet.random.Uniform;
+
+/**
+ * An off-heap genome is a view of one slot of a GenomeStore, with the same
+ * structure as an ObjectGenome whose allele sets are IntegerAlleleSets and
+ * RealAlleleSets.  Integer alleles take four bytes of the chromosome and
+ * real alleles eight.  Initialization, mutation, and crossover read and
+ * write the store directly, without creating allele value objects.
+ *
+ * A view is moved from slot to slot with moveTo(), so one view may be used
+ * for every genome of a population.  Views made with view() share the
+ * allele sets and random number generator of the view they were made from;
+ * a view is not safe for use by more than one thread at a time.
+ */
+public class OffHeapGenome {
+
+  /**
+   * The allele set of each position of the chromosome
+   */
+  AlleleSet[] alleleSets;
+
+  /**
+   * The position of each allele in the chromosome.  The last element is the
+   * length of the chromosome in bytes.
+   */
+  int[] offsets;
+
+  /**
+   * True for each allele that is real rather than integer
+   */
+  boolean[] real;
+
+  /**
+   * The random number generator used for initialization, mutation, and
+   * crossover
+   */
+  RandomEngine randomGenerator;
+
+  /**
+   * A uniform distribution object from the cern.jet.random library
+   */
+  Uniform uniform;
+
+  /**
+   * The probability that each allele is replaced by mutation
+   */
+  double mutationRate = 0;
+
+  /**
+   * True to choose the alleles to mutate by skip sampling
+   */
+  boolean skipSamplingMutation = false;
+
+  /**
+   * The number of crossover points
+   */
+  int crossoverPoints = 2;
+
+  /**
+   * The crossover points of the last crossover
+   */
+  int[] crossPoints;
+
+  /**
+   * The store holding the genome viewed, or null
+   */
+  GenomeStore store = null;
+
+  /**
+   * The slot of the genome viewed
+   */
+  int index = 0;
+
+  /**
+   * The chunk of the store holding the slot
+   */
+  ByteBuffer chunk = null;
+
+  /**
+   * The position of the slot in its chunk
+   */
+  int slotOffset = 0;
+
+  /**
+   * Constructor
+   * @param aSets The allele set of each position, each an IntegerAlleleSet
+   * or a RealAlleleSet
+   * @param engine The random number generator
+   */
+  public OffHeapGenome(AlleleSet[] aSets, RandomEngine engine)
+      throws GAException {
+    int i;
+
+    alleleSets = aSets;
+    offsets = new int[aSets.length + 1];
+    real = new boolean[aSets.length];
+    for (i = 0; i < aSets.length; i++) {
+      if (aSets[i] instanceof RealAlleleSet) {
+        real[i] = true;
+        offsets[i + 1] = offsets[i] + 8;
+      }
+      else if (aSets[i] instanceof IntegerAlleleSet) {
+        offsets[i + 1] = offsets[i] + 4;
+      }
+      else {
+        throw new GAException(aSets[i].getClass().getName()
+            + " cannot be stored off the heap");
+      }
+    }
+    crossPoints = new int[crossoverPoints];
+    this.setRandomEngine(engine);
+  }
+
+  /**
+   * Returns a new view of no genome with the same allele sets, parameters,
+   * and random number generator as this one
+   */
+  public OffHeapGenome view() {
+    return new OffHeapGenome(this);
+  }
+
+  /**
+   * Constructor used by view()
+   */
+  OffHeapGenome(OffHeapGenome g) {
+    alleleSets = g.alleleSets;
+    offsets = g.offsets;
+    real = g.real;
+    randomGenerator = g.randomGenerator;
+    uniform = g.uniform;
+    mutationRate = g.mutationRate;
+    skipSamplingMutation = g.skipSamplingMutation;
+    crossoverPoints = g.crossoverPoints;
+    crossPoints = new int[crossoverPoints];
+  }
+
+  /**
+   * Sets the random number generator used by this view
+   */
+  public void setRandomEngine(RandomEngine e) {
+    randomGenerator = e;
+    uniform = new Uniform(e);
+  }
+
+  /**
+   * Returns the random number generator used by this view
+   */
+  public RandomEngine getRandomEngine() {
+    return randomGenerator;
+  }
+
+  /**
+   * Moves the view to a slot of a store
+   * @param s The store, whose chromosomes must be getChromosomeBytes() long
+   * @param i The slot
+   */
+  public void moveTo(GenomeStore s, int i) {
+    store = s;
+    index = i;
+    chunk = s.getChunk(i);
+    slotOffset = s.getOffset(i);
+  }
+
+  /**
+   * Returns the store holding the genome viewed
+   */
+  public GenomeStore getStore() {
+    return store;
+  }
+
+  /**
+   * Returns the slot of the genome viewed
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * Returns the number of alleles
+   */
+  public int getLength() {
+    return real.length;
+  }
+
+  /**
+   * Returns the number of bytes in the chromosome
+   */
+  public int getChromosomeBytes() {
+    return offsets[real.length];
+  }
+
+  /**
+   * Returns the allele sets
+   */
+  public AlleleSet[] getAlleleSets() {
+    return alleleSets;
+  }
+
+  /**
+   * Returns true if an allele is real rather than integer
+   */
+  public boolean isReal(int allele) {
+    return real[allele];
+  }
+
+  /**
+   * Returns the position of an allele in the chunk
+   */
+  int position(int allele) {
+    return slotOffset + GenomeStore.HEADER_SIZE + offsets[allele];
+  }
+
+  /**
+   * Returns the value of an integer allele
+   */
+  public int getInt(int allele) {
+    return chunk.getInt(this.position(allele));
+  }
+
+  /**
+   * Returns the value of a real allele
+   */
+  public double getDouble(int allele) {
+    return chunk.getDouble(this.position(allele));
+  }
+
+  /**
+   * Returns the value of an allele of either kind
+   */
+  public double getValue(int allele) {
+    return real[allele] ? this.getDouble(allele) : this.getInt(allele);
+  }
+
+  /**
+   * Sets the value of an integer allele and marks the genome not evaluated
+   */
+  public void setInt(int allele, int v) {
+    chunk.putInt(this.position(allele), v);
+    store.setIsEvaluated(index, false);
+  }
+
+  /**
+   * Sets the value of a real allele and marks the genome not evaluated
+   */
+  public void setDouble(int allele, double v) {
+    chunk.putDouble(this.position(allele), v);
+    store.setIsEvaluated(index, false);
+  }
+
+  /**
+   * Returns the raw fitness of the genome
+   */
+  public double getRawFitness() {
+    return store.getRawFitness(index);
+  }
+
+  /**
+   * Sets the raw fitness of the genome and marks it evaluated
+   */
+  public void setRawFitness(double f) {
+    store.setRawFitness(index, f);
+  }
+
+  /**
+   * Returns true if the genome has been evaluated
+   */
+  public boolean getIsEvaluated() {
+    return store.getIsEvaluated(index);
+  }
+
+  /**
+   * Sets the mutation rate
+   * @param r The mutation rate must be between 0 and 1.
+   */
+  public void setMutationRate(double r) throws GAException {
+    if (r < 0 || r > 1) {
+      throw new GAException(
+          "The mutation rate must be between 0 and 1");
+    }
+    mutationRate = r;
+  }
+
+  /**
+   * Returns the mutation rate
+   */
+  public double getMutationRate() {
+    return mutationRate;
+  }
+
+  /**
+   * Sets whether the alleles to mutate are chosen by skip sampling, as
+   * described for Genome.nextMutationPosition()
+   */
+  public void setSkipSamplingMutation(boolean b) {
+    skipSamplingMutation = b;
+  }
+
+  /**
+   * Sets the number of crossover points
+   * @param n The number of crossover points, a positive integer
+   */
+  public void setCrossoverPoints(int n) throws GAException {
+    if (n <= 0) {
+      throw new GAException(
+          "The number of crossover points must be a positive integer");
+    }
+    crossoverPoints = n;
+    crossPoints = new int[n];
+  }
+
+  /**
+   * Returns the number of crossover points
+   */
+  public int getCrossoverPoints() {
+    return crossoverPoints;
+  }
+
+  /**
+   * Sets an allele to a random value of its allele set
+   */
+  void randomize(int allele) {
+    AlleleSet set;
+
+    set = alleleSets[allele];
+    if (real[allele]) {
+      chunk.putDouble(this.position(allele), uniform.nextDoubleFromTo(
+          ((RealAlleleSet)set).min, ((RealAlleleSet)set).max));
+    }
+    else {
+      chunk.putInt(this.position(allele), uniform.nextIntFromTo(
+          ((IntegerAlleleSet)set).min, ((IntegerAlleleSet)set).max));
+    }
+  }
+
+  /**
+   * Sets each allele to a random value of its allele set and marks the
+   * genome not evaluated
+   */
+  public void initialize() {
+    int i;
+
+    for (i = 0; i < real.length; i++) {
+      this.randomize(i);
+    }
+    store.setIsEvaluated(index, false);
+  }
+
+  /**
+   * Replaces each allele with a random value of its allele set with
+   * probability mutationRate.  If any allele is replaced, the genome is
+   * marked as not evaluated.
+   */
+  public void mutate() {
+    int i, n;
+
+    n = real.length;
+    for (i = this.nextMutationPosition(0, n); i < n;
+         i = this.nextMutationPosition(i + 1, n)) {
+      this.randomize(i);
+      store.setIsEvaluated(index, false);
+    }
+  }
+
+  /**
+   * Returns the next position at or after start to mutate, as
+   * Genome.nextMutationPosition() does
+   */
+  int nextMutationPosition(int start, int length) {
+    return Genome.nextMutationPosition(uniform, mutationRate,
+        skipSamplingMutation, start, length);
+  }
+
+  /**
+   * Performs n point crossover of this genome and dad, writing the child to
+   * the slot viewed by child, which is marked not evaluated.  The child
+   * takes the alleles of this genome up to the first crossover point, then
+   * those of dad up to the next, and so on, as ObjectGenome.crossWith()
+   * does.  The runs of alleles are copied between the slots as bytes.
+   * @param dad The other parent
+   * @param child The view of the slot to hold the child, which must not be
+   * either parent
+   */
+  public void crossWith(OffHeapGenome dad, OffHeapGenome child) {
+    this.drawCrossPoints();
+    this.crossWith(dad, child, crossPoints);
+  }
+
+  /**
+   * Draws new random crossover points into crossPoints, in order
+   */
+  void drawCrossPoints() {
+    int j;
+
+    for (j = 0; j < crossoverPoints; j++) {
+      crossPoints[j] = uniform.nextIntFromTo(0, real.length - 1);
+    }
+    Arrays.sort(crossPoints);
+  }
+
+  /**
+   * Performs crossover of this genome and dad at the given crossover
+   * points, as crossWith(dad, child) does.  Crossing dad with this genome
+   * at the same points gives the complementary child.
+   * @param dad The other parent
+   * @param child The view of the slot to hold the child, which must not be
+   * either parent
+   * @param points The crossover points, in order
+   */
+  void crossWith(OffHeapGenome dad, OffHeapGenome child, int[] points) {
+    OffHeapGenome parent;   // the parent being copied
+    int start, end;         // the alleles being copied
+    int j;
+
+    parent = this;
+    start = 0;
+    for (j = 0; j <= points.length; j++) {
+      end = j < points.length ? points[j] : real.length;
+      if (end > start) {
+        GenomeStore.copy(parent.chunk, parent.position(start), child.chunk,
+            child.position(start), offsets[end] - offsets[start]);
+        start = end;
+      }
+      parent = parent == this ? dad : this;
+    }
+    child.store.setIsEvaluated(child.index, false);
+  }
+
+  /**
+   * Copies the genome viewed, with its fitness, to the slot viewed by
+   * another view with the same allele sets
+   */
+  public void copyTo(OffHeapGenome dest) {
+    store.copySlot(index, dest.store, dest.index);
+  }
+
+  /**
+   * Returns a copy of an ObjectGenome with the alleles and fitness of the
+   * genome viewed, for use with fitness functions and other code written
+   * for heap genomes
+   * @param template An ObjectGenome with the same allele sets
+   */
+  public ObjectGenome toObjectGenome(ObjectGenome template) {
+    ObjectGenome g = null;
+    int i;
+
+    try {
+      g = (ObjectGenome)template.copy();
+    }
+    catch (CloneNotSupportedException e) {
+      System.out.println(e.getMessage());
+      e.printStackTrace();
+      System.exit(1);
+    }
+    for (i = 0; i < real.length; i++) {
+      g.alleleValues[i] = real[i] ? new RealAlleleValue(this.getDouble(i))
+          : new IntegerAlleleValue(this.getInt(i));
+    }
+    g.rawFitness = this.getRawFitness();
+    g.isEvaluated = this.getIsEvaluated();
+    return g;
+  }
+
+  /**
+   * Sets the alleles and fitness of the genome viewed to those of an
+   * ObjectGenome with the same allele sets
+   */
+  public void copyFrom(ObjectGenome g) {
+    int i;
+
+    for (i = 0; i < real.length; i++) {
+      if (real[i]) {
+        chunk.putDouble(this.position(i),
+            ((RealAlleleValue)g.alleleValues[i]).value);
+      }
+      else {
+        chunk.putInt(this.position(i),
+            ((IntegerAlleleValue)g.alleleValues[i]).value);
+      }
+    }
+    store.setRawFitness(index, g.rawFitness);
+    store.setIsEvaluated(index, g.isEvaluated);
+  }
+
+  public String toString() {
+    StringBuffer s;
+    int i;
+
+    s = new StringBuffer("[");
+    for (i = 0; i < real.length; i++) {
+      if (i > 0) {
+        s.append(", ");
+      }
+      if (real[i]) {
+        s.append(this.getDouble(i));
+      }
+      else {
+        s.append(this.getInt(i));
+      }
+    }
+    s.append("] raw fitness ").append(this.getRawFitness());
+    return s.toString();
+  }
+
+}
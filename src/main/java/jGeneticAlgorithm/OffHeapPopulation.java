@@ -0,0 +1,530 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import cern.jet.random.engine.RandomEngine;
+import cern.jet.random.Uniform;
+
+/**
+ * An off-heap population evolves a very large population of fixed length
+ * genomes held in GenomeStores rather than as Genome objects on the heap.
+ * Its genomes have the structure of an ObjectGenome whose allele sets are
+ * IntegerAlleleSets and RealAlleleSets, and are read and written through
+ * OffHeapGenome views.
+ *
+ * The population keeps two stores of the same size, one holding the
+ * current generation and one into which the next generation is bred, and
+ * exchanges them at the end of each generation, so evolving allocates no
+ * memory.  Each generation, the most fit fraction (1 - replacementRate) of
+ * the genomes survive, found with a quickselect partition as the
+ * TruncationSelector does.  The rest of the next generation is bred from
+ * parents chosen by tournament selection, crossed with probability
+ * crossoverRate and mutated, as Population.evolveNextGeneration() does,
+ * except that the two children of a crossover are a complementary pair
+ * crossed at the same points.
+ * The only memory used per genome on the heap is the twelve bytes of the
+ * arrays used to find the survivors.
+ *
+ * The stores may be mapped from files, for populations larger than
+ * physical memory.
+ */
+public class OffHeapPopulation {
+
+  /**
+   * The number of genomes evaluated by each task of a parallel evaluation
+   */
+  static final int EVALUATION_BATCH = 4096;
+
+  /**
+   * The store holding the current generation
+   */
+  GenomeStore current;
+
+  /**
+   * The store into which the next generation is bred
+   */
+  GenomeStore next;
+
+  /**
+   * A store of one slot holding the best genome evaluated so far
+   */
+  GenomeStore bestStore;
+
+  /**
+   * True once a genome has been copied to bestStore
+   */
+  boolean hasBest = false;
+
+  /**
+   * The view whose parameters are used for every genome of the population
+   */
+  OffHeapGenome prototype;
+
+  /**
+   * Views used while breeding
+   */
+  OffHeapGenome mom, dad, child;
+
+  /**
+   * The random number generator for this population
+   */
+  RandomEngine randomGenerator;
+
+  /**
+   * A uniform distribution object from the cern.jet.random library
+   */
+  Uniform uniform;
+
+  /**
+   * The number of genomes in the population
+   */
+  int size;
+
+  /**
+   * True if smaller raw fitness values are better
+   */
+  boolean minimize = false;
+
+  /**
+   * The generation of the population
+   */
+  int generation = 1;
+
+  /**
+   * The rate at which selected parents perform crossover to make children
+   */
+  double crossoverRate = 1.0;
+
+  /**
+   * The fraction of the population replaced each generation
+   */
+  double replacementRate = 1.0;
+
+  /**
+   * The number of genomes in each selection tournament
+   */
+  int tournamentSize = 2;
+
+  /**
+   * The indices of the genomes, partitioned to find the survivors
+   */
+  int[] order = new int[0];
+
+  /**
+   * The sort key of each genome, its raw fitness negated if maximizing
+   */
+  double[] keys = new double[0];
+
+  /**
+   * Constructor
+   * Holds the population in direct memory.
+   * @param aSets The allele set of each position, each an IntegerAlleleSet
+   * or a RealAlleleSet
+   * @param n The number of genomes.  Must be a positive integer.
+   * @param e The random number generator
+   */
+  public OffHeapPopulation(AlleleSet[] aSets, int n, RandomEngine e)
+      throws GAException {
+    prototype = new OffHeapGenome(aSets, e);
+    current = new GenomeStore(n, prototype.getChromosomeBytes());
+    next = new GenomeStore(n, prototype.getChromosomeBytes());
+    bestStore = new GenomeStore(1, prototype.getChromosomeBytes());
+    this.setUp(n, e);
+  }
+
+  /**
+   * Constructor
+   * Holds the population in two files mapped into memory, population-0.bin
+   * and population-1.bin in a directory.
+   * @param aSets The allele set of each position, each an IntegerAlleleSet
+   * or a RealAlleleSet
+   * @param n The number of genomes.  Must be a positive integer.
+   * @param e The random number generator
+   * @param directory The directory to hold the files
+   */
+  public OffHeapPopulation(AlleleSet[] aSets, int n, RandomEngine e,
+      File directory) throws GAException, IOException {
+    prototype = new OffHeapGenome(aSets, e);
+    current = new GenomeStore(n, prototype.getChromosomeBytes(),
+        new File(directory, "population-0.bin"));
+    next = new GenomeStore(n, prototype.getChromosomeBytes(),
+        new File(directory, "population-1.bin"));
+    bestStore = new GenomeStore(1, prototype.getChromosomeBytes());
+    this.setUp(n, e);
+  }
+
+  /**
+   * Sets the fields common to both constructors
+   */
+  void setUp(int n, RandomEngine e) {
+    size = n;
+    randomGenerator = e;
+    uniform = new Uniform(e);
+    this.updateViews();
+  }
+
+  /**
+   * Sets the mutation rate of every genome
+   * @param r The mutation rate must be between 0 and 1.
+   */
+  public void setMutationRate(double r) throws GAException {
+    prototype.setMutationRate(r);
+    this.updateViews();
+  }
+
+  /**
+   * Sets whether the alleles to mutate are chosen by skip sampling
+   */
+  public void setSkipSamplingMutation(boolean b) {
+    prototype.setSkipSamplingMutation(b);
+    this.updateViews();
+  }
+
+  /**
+   * Sets the number of crossover points
+   * @param n The number of crossover points, a positive integer
+   */
+  public void setCrossoverPoints(int n) throws GAException {
+    prototype.setCrossoverPoints(n);
+    this.updateViews();
+  }
+
+  /**
+   * Gives the breeding views the parameters of the prototype
+   */
+  void updateViews() {
+    mom = prototype.view();
+    dad = prototype.view();
+    child = prototype.view();
+  }
+
+  /**
+   * Sets whether smaller raw fitness values are better
+   */
+  public void setMinimize(boolean b) {
+    minimize = b;
+  }
+
+  /**
+   * Returns true if smaller raw fitness values are better
+   */
+  public boolean getMinimize() {
+    return minimize;
+  }
+
+  /**
+   * Sets the crossover rate
+   * @param r The rate, between 0 and 1
+   */
+  public void setCrossoverRate(double r) throws GAException {
+    if (r < 0 || r > 1) {
+      throw new GAException(
+          "The crossover rate for a population must be between 0 and 1.");
+    }
+    crossoverRate = r;
+  }
+
+  /**
+   * Returns the crossover rate
+   */
+  public double getCrossoverRate() {
+    return crossoverRate;
+  }
+
+  /**
+   * Sets the fraction of the population replaced each generation
+   * @param r The rate, between 0 and 1
+   */
+  public void setReplacementRate(double r) throws GAException {
+    if (r < 0 || r > 1) {
+      throw new GAException(
+          "The replacement rate for a population must be between 0 and 1.");
+    }
+    replacementRate = r;
+  }
+
+  /**
+   * Returns the fraction of the population replaced each generation
+   */
+  public double getReplacementRate() {
+    return replacementRate;
+  }
+
+  /**
+   * Sets the number of genomes in each selection tournament
+   * @param n The tournament size, a positive integer
+   */
+  public void setTournamentSize(int n) throws GAException {
+    if (n <= 0) {
+      throw new GAException(
+          "The tournament size must be a positive integer");
+    }
+    tournamentSize = n;
+  }
+
+  /**
+   * Returns the number of genomes in each selection tournament
+   */
+  public int getTournamentSize() {
+    return tournamentSize;
+  }
+
+  /**
+   * Returns the number of genomes in the population
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the generation of the population
+   */
+  public int getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Returns the store holding the current generation
+   */
+  public GenomeStore getStore() {
+    return current;
+  }
+
+  /**
+   * Returns a new view of a genome of the current generation
+   * @param i The index of the genome
+   */
+  public OffHeapGenome getGenome(int i) {
+    OffHeapGenome g;
+
+    g = prototype.view();
+    g.moveTo(current, i);
+    return g;
+  }
+
+  /**
+   * Returns a view of the best genome evaluated so far, or null if none has
+   * been evaluated
+   */
+  public OffHeapGenome getBest() {
+    OffHeapGenome g;
+
+    if (!hasBest) {
+      return null;
+    }
+    g = prototype.view();
+    g.moveTo(bestStore, 0);
+    return g;
+  }
+
+  /**
+   * Initializes every genome of the population to random values
+   */
+  public void initialize() {
+    int i;
+
+    for (i = 0; i < size; i++) {
+      child.moveTo(current, i);
+      child.initialize();
+    }
+    hasBest = false;
+  }
+
+  /**
+   * Evaluates every genome not yet evaluated with a fitness function, one
+   * after another, and updates the best genome
+   * @param f The fitness function
+   */
+  public void evaluate(OffHeapFitnessFunction f) {
+    this.evaluateRange(f, prototype.view(), 0, size);
+    this.updateBest();
+  }
+
+  /**
+   * Evaluates every genome not yet evaluated with a fitness function, in
+   * batches run on an executor, and updates the best genome
+   * @param f The fitness function
+   * @param executor The executor on which the batches are run
+   */
+  public void evaluate(OffHeapFitnessFunction f, ExecutorService executor)
+      throws GAException {
+    Vector<Callable<Object>> tasks;
+    int start;
+
+    tasks = new Vector<Callable<Object>>();
+    for (start = 0; start < size; start += EVALUATION_BATCH) {
+      final int first = start;
+      final int last = Math.min(start + EVALUATION_BATCH, size);
+      tasks.addElement(() -> {
+        this.evaluateRange(f, prototype.view(), first, last);
+        return null;
+      });
+    }
+    try {
+      for (Future<Object> result : executor.invokeAll(tasks)) {
+        result.get();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GAException("Evaluation was interrupted", e);
+    }
+    catch (ExecutionException e) {
+      throw new GAException("Evaluation failed: "
+          + e.getCause().getMessage(), e.getCause());
+    }
+    this.updateBest();
+  }
+
+  /**
+   * Evaluates the unevaluated genomes from first up to last
+   * @param view A view for the use of this call alone
+   */
+  void evaluateRange(OffHeapFitnessFunction f, OffHeapGenome view,
+      int first, int last) {
+    int i;
+
+    for (i = first; i < last; i++) {
+      if (!current.getIsEvaluated(i)) {
+        view.moveTo(current, i);
+        view.setRawFitness(f.evaluate(view));
+      }
+    }
+  }
+
+  /**
+   * Returns true if raw fitness a is better than raw fitness b
+   */
+  boolean isBetter(double a, double b) {
+    return minimize ? a < b : a > b;
+  }
+
+  /**
+   * Copies the most fit evaluated genome to the best store if it is better
+   * than the best so far
+   */
+  void updateBest() {
+    double bestFitness;
+    int best;
+    int i;
+
+    best = -1;
+    bestFitness = 0;
+    for (i = 0; i < size; i++) {
+      if (current.getIsEvaluated(i) && (best < 0
+          || this.isBetter(current.getRawFitness(i), bestFitness))) {
+        best = i;
+        bestFitness = current.getRawFitness(i);
+      }
+    }
+    if (best >= 0 && (!hasBest
+        || this.isBetter(bestFitness, bestStore.getRawFitness(0)))) {
+      current.copySlot(best, bestStore, 0);
+      hasBest = true;
+    }
+  }
+
+  /**
+   * Returns the index of a genome of the current generation chosen by a
+   * tournament of tournamentSize genomes drawn with replacement
+   */
+  int tournament() {
+    int best, contestant;
+    int i;
+
+    best = uniform.nextIntFromTo(0, size - 1);
+    for (i = 1; i < tournamentSize; i++) {
+      contestant = uniform.nextIntFromTo(0, size - 1);
+      if (this.isBetter(current.getRawFitness(contestant),
+          current.getRawFitness(best))) {
+        best = contestant;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Breeds the next generation from the current one, which should have been
+   * evaluated, and makes it the current generation
+   */
+  public void evolveNextGeneration() {
+    GenomeStore swap;
+    int numSurvivors;
+    int i, n;
+
+    // copy the most fit genomes to the next generation
+    numSurvivors = (int)(size * (1 - replacementRate));
+    if (numSurvivors > 0) {
+      if (order.length < size) {
+        order = new int[size];
+        keys = new double[size];
+      }
+      for (i = 0; i < size; i++) {
+        order[i] = i;
+        keys[i] = minimize ? current.getRawFitness(i)
+            : -current.getRawFitness(i);
+      }
+      if (numSurvivors < size) {
+        TruncationSelector.select(order, keys, size, numSurvivors);
+      }
+      for (i = 0; i < numSurvivors; i++) {
+        current.copySlot(order[i], next, i);
+      }
+    }
+
+    // breed the rest
+    n = numSurvivors;
+    while (n < size) {
+      dad.moveTo(current, this.tournament());
+      mom.moveTo(current, this.tournament());
+      if (uniform.nextDoubleFromTo(0, 1) < crossoverRate) {
+        // the two children are crossed at the same points, so each takes
+        // the alleles the other does not
+        mom.drawCrossPoints();
+        for (i = 0; i < 2 && n < size; i++) {
+          child.moveTo(next, n++);
+          if (i == 0) {
+            mom.crossWith(dad, child, mom.crossPoints);
+          }
+          else {
+            dad.crossWith(mom, child, mom.crossPoints);
+          }
+          child.mutate();
+        }
+      }
+      else {
+        for (i = 0; i < 2 && n < size; i++) {
+          child.moveTo(next, n++);
+          (i == 0 ? mom : dad).copyTo(child);
+          child.mutate();
+        }
+      }
+    }
+
+    swap = current;
+    current = next;
+    next = swap;
+    generation++;
+  }
+
+  /**
+   * Writes the current generation and its fitness to the files holding the
+   * population.  Does nothing for a population in direct memory.
+   */
+  public void force() {
+    current.force();
+  }
+
+}
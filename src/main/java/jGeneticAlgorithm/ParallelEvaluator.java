@@ -0,0 +1,261 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.util.Vector;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * The ParallelEvaluator evaluates the unevaluated genomes of every population
+ * in every species concurrently.  Rather than looping over the genomes itself,
+ * the modeler supplies a FitnessFunction that scores a single genome, and this
+ * evaluator applies it to each genome on an ExecutorService.  By default the
+ * evaluations run on the common ForkJoinPool, but any executor may be used,
+ * for example a fixed thread pool or a virtual thread per task executor.
+ *
+ * The fitness function runs on the worker threads, but the raw fitness of each
+ * genome is set on the thread calling evaluate, so genomes are never modified
+ * concurrently.  After each call, the number of evaluations performed and the
+ * throughput in evaluations per second are available from this object.
+ *
+ * If a FitnessCache is assigned, each genome is looked up in the cache before
+ * it is evaluated, and identical genomes within one call are evaluated only
+ * once.  If a PersistentFitnessStore is assigned, genomes not in the cache
+ * are looked up in the store, and evaluated genomes are added to it, so
+ * later runs need not evaluate them again.
+ */
+public class ParallelEvaluator implements EvaluateGenomes {
+
+  /**
+   * The function used to compute the fitness of each genome
+   */
+  FitnessFunction fitnessFunction;
+
+  /**
+   * The executor on which the fitness function is run
+   */
+  ExecutorService executor;
+
+  /**
+   * The cache and persistent store consulted before evaluating a genome
+   */
+  FitnessMemory memory = new FitnessMemory();
+
+  /**
+   * The number of fitness function evaluations in the last call to evaluate
+   */
+  int lastEvaluationCount = 0;
+
+  /**
+   * The elapsed time, in nanoseconds, of the last call to evaluate
+   */
+  long lastEvaluationNanos = 0;
+
+  /**
+   * Constructor
+   * Evaluates genomes on the common ForkJoinPool.
+   * @param f The fitness function applied to each genome
+   */
+  public ParallelEvaluator(FitnessFunction f) {
+    this(f, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructor
+   * @param f The fitness function applied to each genome
+   * @param e The executor on which the fitness function is run
+   */
+  public ParallelEvaluator(FitnessFunction f, ExecutorService e) {
+    super();
+    fitnessFunction = f;
+    executor = e;
+  }
+
+  /**
+   * Evaluates every unevaluated genome in every population of each species
+   * @param species A vector of the species to evaluate
+   */
+  public void evaluate(Vector<Genome> species) {
+    this.evaluateGenomes(Species.getUnevaluatedGenomes(species));
+  }
+
+  /**
+   * Evaluates each genome in the vector using the fitness function and sets
+   * its raw fitness.  This method returns when all of the genomes have been
+   * evaluated.
+   * @param genomes The genomes to evaluate
+   */
+  public void evaluateGenomes(Vector<Genome> genomes) {
+    Vector<Future<Double>> results;         // the pending fitness of each genome
+    HashMap<Genome, Future<Double>> pending; // evaluations submitted by this call
+    Future<Double> result;
+    Double cached;
+    long start;
+    int i;
+
+    start = System.nanoTime();
+    results = new Vector<Future<Double>>(genomes.size());
+    pending = new HashMap<Genome, Future<Double>>();
+    for (i = 0; i < genomes.size(); i++) {
+      Genome g = genomes.elementAt(i);
+      result = null;
+      if (memory.isEmpty()) {
+        result = this.submit(g);
+      }
+      else {
+        cached = memory.lookup(g);
+        if (cached != null) {
+          g.setRawFitness(cached.doubleValue());
+        }
+        else {
+          result = pending.get(g);
+          if (result == null) {  // not a duplicate of a genome in this call
+            result = this.submit(g);
+            pending.put(g, result);
+          }
+        }
+      }
+      results.add(result);
+    }
+
+    try {
+      for (i = 0; i < genomes.size(); i++) {
+        result = results.elementAt(i);
+        if (result != null) {
+          genomes.elementAt(i).setRawFitness(result.get());
+        }
+      }
+      for (Map.Entry<Genome, Future<Double>> entry : pending.entrySet()) {
+        memory.remember(entry.getKey(), entry.getValue().get());
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    catch (ExecutionException e) {
+      System.err.println("Fitness evaluation failed: " + e.getCause());
+      e.getCause().printStackTrace();
+      System.exit(1);
+    }
+    lastEvaluationNanos = System.nanoTime() - start;
+    lastEvaluationCount = memory.isEmpty()
+        ? genomes.size() : pending.size();
+  }
+
+  /**
+   * Submits the evaluation of a genome to the executor
+   */
+  Future<Double> submit(final Genome g) {
+    return executor.submit(new Callable<Double>() {
+      public Double call() {
+        EvaluationEvent event;   // the flight recorder event
+        double fitness;
+
+        event = new EvaluationEvent();
+        event.begin();
+        fitness = fitnessFunction.evaluate(g);
+        event.end();
+        if (event.shouldCommit()) {
+          event.genomeClass = g.getClass();
+          event.fitness = fitness;
+          event.commit();
+        }
+        return fitness;
+      }
+    });
+  }
+
+  /**
+   * Sets the cache consulted before a genome is evaluated
+   * @param cache The fitness cache, or null to evaluate every genome
+   */
+  public void setFitnessCache(FitnessCache cache) {
+    memory.cache = cache;
+  }
+
+  /**
+   * Returns the cache consulted before a genome is evaluated
+   */
+  public FitnessCache getFitnessCache() {
+    return memory.cache;
+  }
+
+  /**
+   * Sets the persistent store consulted before a genome is evaluated, after
+   * the fitness cache.  The store is not closed by this evaluator.  A
+   * genome the store cannot encode is evaluated without it, and the failure
+   * is returned by getFitnessStoreFailure().
+   * @param store The fitness store, or null for none
+   */
+  public void setFitnessStore(PersistentFitnessStore store) {
+    memory.store = store;
+    memory.lastFailure = null;
+  }
+
+  /**
+   * Returns the persistent store consulted before a genome is evaluated
+   */
+  public PersistentFitnessStore getFitnessStore() {
+    return memory.store;
+  }
+
+  /**
+   * Returns the last failure of the fitness store to encode a genome, or
+   * null if it has not failed
+   */
+  public GAException getFitnessStoreFailure() {
+    return memory.lastFailure;
+  }
+
+  /**
+   * Returns the fitness function used by this evaluator
+   */
+  public FitnessFunction getFitnessFunction() {
+    return fitnessFunction;
+  }
+
+  /**
+   * Returns the executor on which genomes are evaluated
+   */
+  public ExecutorService getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Returns the number of fitness function evaluations performed by the last
+   * call to evaluate.  Genomes found in the fitness cache are not counted.
+   */
+  public int getLastEvaluationCount() {
+    return lastEvaluationCount;
+  }
+
+  /**
+   * Returns the elapsed time, in nanoseconds, of the last call to evaluate
+   */
+  public long getLastEvaluationNanos() {
+    return lastEvaluationNanos;
+  }
+
+  /**
+   * Returns the throughput of the last call to evaluate in evaluations per
+   * second.  Returns 0 if no genomes have been evaluated.
+   */
+  public double getEvaluationsPerSecond() {
+    if (lastEvaluationNanos == 0) {
+      return 0;
+    }
+    return lastEvaluationCount / (lastEvaluationNanos / 1.0e9);
+  }
+}
@@ -0,0 +1,575 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A persistent fitness store remembers the raw fitness of evaluated genomes
+ * in a memory-mapped file, so that a genome scored by an earlier run of the
+ * same problem, perhaps with different GA parameters, need not be evaluated
+ * again.  Unlike a FitnessCache, which lives only as long as the run, the
+ * store survives the process and is reopened by the next run.
+ *
+ * Genomes are keyed by a 128 bit fingerprint of their class and of the
+ * alleles written by Genome.encode(), so the genome classes stored must
+ * support binary encoding.  The fingerprint depends only on the alleles, not
+ * on hashCode(), so it is the same in every run.  Two different genomes with
+ * the same fingerprint would share a fitness value, but with 128 bits this
+ * is vanishingly unlikely.
+ *
+ * The file holds an open addressing hash table of a fixed number of slots,
+ * which is the most genomes the store will hold.  A genome is kept in one of
+ * the PROBES slots following the slot its fingerprint hashes to.  When all
+ * of them are taken by other genomes, the one least recently used is
+ * evicted.  Lookups take no locks: each slot has a stamp that is odd while
+ * the slot is being written, and a lookup that sees the stamp change reads
+ * the slot again.  Stores lock two of a set of stripes covering the slots
+ * they may write, so stores of genomes far apart in the table proceed in
+ * parallel.
+ *
+ * The store may be used from several threads at once, but only one process
+ * may open the file at a time.  A store that was not closed, for example
+ * because the process died, is checked and repaired when it is reopened.
+ * The file is written in the byte order of the machine.
+ */
+public class PersistentFitnessStore {
+
+  /**
+   * The first four bytes of the file, "JGFS"
+   */
+  static final int MAGIC = 0x4A474653;
+
+  /**
+   * The version of the file format
+   */
+  static final int VERSION = 1;
+
+  /**
+   * The number of bytes before the first slot
+   */
+  static final int HEADER_SIZE = 64;
+
+  /**
+   * The positions of the fields of the header
+   */
+  static final int HEADER_MAGIC = 0, HEADER_VERSION = 4, HEADER_CAPACITY = 8,
+      HEADER_OPEN = 12, HEADER_COUNT = 16, HEADER_CLOCK = 24;
+
+  /**
+   * The number of bytes in a slot
+   */
+  static final int SLOT_SIZE = 40;
+
+  /**
+   * The positions of the fields of a slot: the stamp, the two halves of the
+   * fingerprint, the raw fitness, and the clock when it was last used
+   */
+  static final int STAMP = 0, HIGH = 8, LOW = 16, FITNESS = 24, USED = 32;
+
+  /**
+   * The number of slots in which a genome may be kept, and in which a
+   * lookup searches for it
+   */
+  static final int PROBES = 16;
+
+  /**
+   * The number of locks guarding stores
+   */
+  static final int STRIPES = 64;
+
+  /**
+   * The largest number of slots a store may have
+   */
+  static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE)
+      / SLOT_SIZE;
+
+  /**
+   * Atomic access to the longs of the mapped file
+   */
+  static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(
+      long[].class, ByteOrder.nativeOrder());
+
+  /**
+   * The buffer and fingerprint of each thread computing fingerprints
+   */
+  static final ThreadLocal<Fingerprint> fingerprints =
+      ThreadLocal.withInitial(Fingerprint::new);
+
+  /**
+   * The file holding the store
+   */
+  File file;
+
+  /**
+   * The channel to the file, held open to keep the file locked
+   */
+  FileChannel channel;
+
+  /**
+   * The lock that keeps other processes from opening the file
+   */
+  FileLock fileLock;
+
+  /**
+   * The mapped file
+   */
+  MappedByteBuffer map;
+
+  /**
+   * The number of slots in the table
+   */
+  int capacity;
+
+  /**
+   * The locks guarding stores to each group of PROBES slots
+   */
+  ReentrantLock[] stripes;
+
+  /**
+   * The number of lookups that found a stored fitness value
+   */
+  LongAdder hits = new LongAdder();
+
+  /**
+   * The number of lookups that did not find a stored fitness value
+   */
+  LongAdder misses = new LongAdder();
+
+  /**
+   * The number of genomes evicted to make room for others
+   */
+  LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructor
+   * Opens the store in a file, or creates it if the file does not exist.
+   * An existing store keeps the number of slots it was created with.
+   * @param file The file holding the store
+   * @param capacity The most genomes a new store will hold.  Must be a
+   * positive integer.
+   */
+  public PersistentFitnessStore(File file, int capacity)
+      throws GAException, IOException {
+    boolean created;   // true if the file is new
+    int i;
+
+    if (capacity <= 0 || capacity > MAX_CAPACITY) {
+      throw new GAException("The capacity of a fitness store must be a "
+          + "positive integer no greater than " + MAX_CAPACITY);
+    }
+    this.file = file;
+    created = !file.exists() || file.length() == 0;
+    channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      fileLock = channel.tryLock();
+      if (fileLock == null) {
+        throw new GAException(file + " is in use by another process");
+      }
+      if (created) {
+        this.map(capacity);
+        map.putInt(HEADER_MAGIC, MAGIC);
+        map.putInt(HEADER_VERSION, VERSION);
+        map.putInt(HEADER_CAPACITY, capacity);
+      }
+      else {
+        this.open();
+      }
+    }
+    catch (GAException | IOException | RuntimeException ex) {
+      channel.close();
+      throw ex;
+    }
+    map.putInt(HEADER_OPEN, 1);
+    map.force();
+    stripes = new ReentrantLock[Math.min(STRIPES,
+        (this.capacity + PROBES - 1) / PROBES)];
+    for (i = 0; i < stripes.length; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+  }
+
+  /**
+   * Maps a table of the given number of slots
+   */
+  void map(int capacity) throws IOException {
+    this.capacity = capacity;
+    map = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+        HEADER_SIZE + (long)capacity * SLOT_SIZE);
+    map.order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * Maps an existing store, checks its header, and repairs it if it was not
+   * closed
+   */
+  void open() throws GAException, IOException {
+    ByteBuffer header;
+    int size;
+
+    header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.nativeOrder());
+    while (header.hasRemaining() && channel.read(header) >= 0) {
+    }
+    header.flip();
+    if (header.remaining() < HEADER_SIZE
+        || header.getInt(HEADER_MAGIC) != MAGIC) {
+      throw new GAException(file + " is not a fitness store");
+    }
+    if (header.getInt(HEADER_VERSION) != VERSION) {
+      throw new GAException(file + " has an unsupported version");
+    }
+    size = header.getInt(HEADER_CAPACITY);
+    if (size <= 0 || size > MAX_CAPACITY
+        || channel.size() < HEADER_SIZE + (long)size * SLOT_SIZE) {
+      throw new GAException(file + " is not a complete fitness store");
+    }
+    this.map(size);
+    if (map.getInt(HEADER_OPEN) != 0) {
+      this.repair();
+    }
+  }
+
+  /**
+   * Empties the slots left half written when the store was last used and
+   * counts the genomes again.  An emptied slot may hide genomes stored
+   * after it, which are then evaluated again, but never gives a wrong
+   * fitness.
+   */
+  void repair() {
+    long count;
+    int offset, i;
+
+    count = 0;
+    for (i = 0; i < capacity; i++) {
+      offset = HEADER_SIZE + i * SLOT_SIZE;
+      if ((map.getLong(offset + STAMP) & 1) != 0) {
+        map.putLong(offset + HIGH, 0);
+        map.putLong(offset + LOW, 0);
+        map.putLong(offset + STAMP, map.getLong(offset + STAMP) + 1);
+      }
+      if (map.getLong(offset + HIGH) != 0 || map.getLong(offset + LOW) != 0) {
+        count++;
+      }
+    }
+    map.putLong(HEADER_COUNT, count);
+  }
+
+  /**
+   * Returns the stored raw fitness of a genome with the same alleles as the
+   * genome passed in, or null if there is none.  Takes no locks.
+   * @param g The genome to look up
+   */
+  public Double get(Genome g) throws GAException {
+    Fingerprint key;
+
+    key = this.fingerprint(g);
+    return this.get(key.high, key.low);
+  }
+
+  /**
+   * Returns the stored raw fitness of a fingerprint, or null if there is
+   * none
+   */
+  Double get(long high, long low) {
+    long stamp, h, l, clock;
+    double fitness;
+    int slot, offset, i;
+
+    slot = this.getHome(low);
+    for (i = 0; i < Math.min(PROBES, capacity); i++) {
+      offset = HEADER_SIZE + slot * SLOT_SIZE;
+      while (true) {
+        stamp = (long)LONGS.getAcquire(map, offset + STAMP);
+        if ((stamp & 1) != 0) {  // the slot is being written
+          Thread.onSpinWait();
+          continue;
+        }
+        h = map.getLong(offset + HIGH);
+        l = map.getLong(offset + LOW);
+        fitness = map.getDouble(offset + FITNESS);
+        VarHandle.loadLoadFence();
+        if ((long)LONGS.getOpaque(map, offset + STAMP) == stamp) {
+          break;
+        }
+      }
+      if (h == 0 && l == 0) {  // the genome would be in this empty slot
+        break;
+      }
+      if (h == high && l == low) {
+        clock = (long)LONGS.getOpaque(map, HEADER_CLOCK);
+        if ((long)LONGS.getOpaque(map, offset + USED) != clock) {
+          LONGS.setOpaque(map, offset + USED, clock);
+        }
+        hits.increment();
+        return fitness;
+      }
+      slot = slot + 1 == capacity ? 0 : slot + 1;
+    }
+    misses.increment();
+    return null;
+  }
+
+  /**
+   * Stores the raw fitness of a genome, evicting the least recently used of
+   * the genomes in its slots if they are all taken
+   * @param g The evaluated genome
+   * @param fitness The raw fitness of the genome
+   */
+  public void put(Genome g, double fitness) throws GAException {
+    Fingerprint key;
+
+    key = this.fingerprint(g);
+    this.put(key.high, key.low, fitness);
+  }
+
+  /**
+   * Stores the raw fitness of a fingerprint
+   */
+  void put(long high, long low, double fitness) {
+    long used, oldest;
+    int home, slot, offset, victim, probes, i;
+    int first, last;    // the stripes covering the slots searched
+
+    home = this.getHome(low);
+    probes = Math.min(PROBES, capacity);
+    first = (home / PROBES) % stripes.length;
+    last = (((home + probes - 1) % capacity) / PROBES) % stripes.length;
+    stripes[Math.min(first, last)].lock();
+    if (last != first) {  // lower stripe first, so stores never deadlock
+      stripes[Math.max(first, last)].lock();
+    }
+    try {
+      slot = home;
+      victim = home;
+      oldest = Long.MAX_VALUE;
+      for (i = 0; i < probes; i++) {
+        offset = HEADER_SIZE + slot * SLOT_SIZE;
+        if (map.getLong(offset + HIGH) == high
+            && map.getLong(offset + LOW) == low) {
+          this.write(offset, high, low, fitness);
+          return;
+        }
+        if (map.getLong(offset + HIGH) == 0 && map.getLong(offset + LOW) == 0) {
+          this.write(offset, high, low, fitness);
+          LONGS.getAndAdd(map, HEADER_COUNT, 1L);
+          return;
+        }
+        used = (long)LONGS.getOpaque(map, offset + USED);
+        if (used < oldest) {
+          oldest = used;
+          victim = slot;
+        }
+        slot = slot + 1 == capacity ? 0 : slot + 1;
+      }
+      this.write(HEADER_SIZE + victim * SLOT_SIZE, high, low, fitness);
+      evictions.increment();
+    }
+    finally {
+      if (last != first) {
+        stripes[last].unlock();
+      }
+      stripes[first].unlock();
+    }
+  }
+
+  /**
+   * Writes a slot.  The stamp is odd while the slot is written, so that
+   * lookups read it again.
+   */
+  void write(int offset, long high, long low, double fitness) {
+    long stamp;
+
+    stamp = map.getLong(offset + STAMP);
+    LONGS.setOpaque(map, offset + STAMP, stamp + 1);
+    VarHandle.storeStoreFence();
+    map.putLong(offset + HIGH, high);
+    map.putLong(offset + LOW, low);
+    map.putDouble(offset + FITNESS, fitness);
+    LONGS.setRelease(map, offset + STAMP, stamp + 2);
+    LONGS.setOpaque(map, offset + USED,
+        (long)LONGS.getAndAdd(map, HEADER_CLOCK, 1L) + 1);
+  }
+
+  /**
+   * Returns the first slot in which a genome with a fingerprint may be kept
+   */
+  int getHome(long low) {
+    return (int)(((low >>> 32) * capacity) >>> 32);
+  }
+
+  /**
+   * Computes the fingerprint of a genome into a fingerprint object owned by
+   * the calling thread
+   */
+  Fingerprint fingerprint(Genome g) throws GAException {
+    Fingerprint key;
+
+    key = fingerprints.get();
+    key.compute(g);
+    return key;
+  }
+
+  /**
+   * Returns the number of genomes in the store
+   */
+  public long size() {
+    return (long)LONGS.getVolatile(map, HEADER_COUNT);
+  }
+
+  /**
+   * Returns the most genomes the store will hold
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the file holding the store
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Returns the number of lookups since the store was opened that found a
+   * stored fitness value
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups since the store was opened that did not
+   * find a stored fitness value
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of genomes evicted since the store was opened
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * Writes the changes to the store to the file
+   */
+  public void force() {
+    map.force();
+  }
+
+  /**
+   * Writes the store to the file, marks it closed, and releases the file.
+   * The store may not be used after it is closed.
+   */
+  public void close() throws IOException {
+    int i;
+
+    for (i = 0; i < stripes.length; i++) {
+      stripes[i].lock();
+    }
+    try {
+      map.putInt(HEADER_OPEN, 0);
+      map.force();
+      channel.close();  // also releases the file lock
+    }
+    finally {
+      for (i = 0; i < stripes.length; i++) {
+        stripes[i].unlock();
+      }
+    }
+  }
+
+  /**
+   * The 128 bit fingerprint of a genome and the buffer its alleles are
+   * encoded into to compute it.  The hash mixes each eight bytes of the
+   * encoding into two independent 64 bit halves, then mixes the halves
+   * together.  It is not cryptographic.
+   */
+  static class Fingerprint {
+
+    /**
+     * The halves of the fingerprint.  They are never both 0, which marks an
+     * empty slot.
+     */
+    long high, low;
+
+    /**
+     * The buffer the alleles are encoded into, grown as needed
+     */
+    ByteBuffer buffer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Computes the fingerprint of a genome
+     */
+    void compute(Genome g) throws GAException {
+      long h1, h2, k;
+      int size, i;
+
+      size = g.getEncodedSize();
+      if (buffer.capacity() < size + 8) {
+        buffer = ByteBuffer.allocate(Math.max(size + 8, buffer.capacity() * 2))
+            .order(ByteOrder.LITTLE_ENDIAN);
+      }
+      buffer.clear();
+      g.encode(buffer);
+      if (buffer.position() != size) {
+        throw new GAException(g.getClass().getName()
+            + " wrote a different number of bytes than it reported");
+      }
+      buffer.putLong(0L);  // pads the last eight bytes with zeros
+
+      h1 = 0x9E3779B97F4A7C15L ^ g.getClass().getName().hashCode();
+      h2 = 0xC2B2AE3D27D4EB4FL + size;
+      for (i = 0; i < size; i += 8) {
+        k = buffer.getLong(i);
+        h1 = Long.rotateLeft(h1 ^ (k * 0x87C37B91114253D5L), 31)
+            * 0x4CF5AD432745937FL;
+        h2 = Long.rotateLeft(h2 ^ (k * 0x4CF5AD432745937FL), 33)
+            * 0x87C37B91114253D5L + h1;
+      }
+      h1 ^= size;
+      h2 ^= size;
+      h1 += h2;
+      h2 += h1;
+      high = mix(h1);
+      low = mix(h2);
+      if (high == 0 && low == 0) {
+        low = 1;
+      }
+    }
+
+    /**
+     * Spreads the bits of a 64 bit value over all of its bits
+     */
+    static long mix(long k) {
+      k ^= k >>> 33;
+      k *= 0xFF51AFD7ED558CCDL;
+      k ^= k >>> 33;
+      k *= 0xC4CEB9FE1A85EC53L;
+      k ^= k >>> 33;
+      return k;
+    }
+
+  }
+
+}
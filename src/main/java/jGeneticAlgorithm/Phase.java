@@ -0,0 +1,61 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * The phases of a generation reported to a GAListener.  The GA reports
+ * GENERATION, EVALUATION, EVOLUTION, and MIGRATION.  A Species reports
+ * EVOLUTION and MIGRATION.  A Population reports EVOLUTION and, within it,
+ * SCALING, SORTING, SELECTION, CROSSOVER, and MUTATION.
+ */
+public enum Phase {
+  /**
+   * One whole step of the GA: evaluation, evolution, and migration
+   */
+  GENERATION,
+
+  /**
+   * Evaluation of the unevaluated genomes of every species
+   */
+  EVALUATION,
+
+  /**
+   * Creation of the next generation of one or more populations
+   */
+  EVOLUTION,
+
+  /**
+   * Movement of genomes between the populations of a species
+   */
+  MIGRATION,
+
+  /**
+   * Fitness scaling of a population
+   */
+  SCALING,
+
+  /**
+   * Sorting of a population by fitness, including the archive update
+   */
+  SORTING,
+
+  /**
+   * Selection of the parents of the next generation
+   */
+  SELECTION,
+
+  /**
+   * Crossover of parents, or copying of parents not crossed
+   */
+  CROSSOVER,
+
+  /**
+   * Mutation of children
+   */
+  MUTATION
+}
@@ -0,0 +1,124 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * A PhaseEvent describes one phase of a genetic algorithm reported to a
+ * GAListener.  Some phases, such as crossover and mutation, are made of
+ * many short steps spread through the evolution of a population; their
+ * events report the total time and allocation of those steps.
+ */
+public class PhaseEvent {
+
+  /**
+   * The GA, Species, or Population reporting the phase
+   */
+  Object source;
+
+  /**
+   * The phase reported
+   */
+  Phase phase;
+
+  /**
+   * The generation of the source when the phase began
+   */
+  int generation;
+
+  /**
+   * The number of genomes the phase worked on
+   */
+  int genomeCount;
+
+  /**
+   * The time spent in the phase in nanoseconds
+   */
+  long elapsedNanos = 0;
+
+  /**
+   * The number of bytes allocated by the reporting thread during the phase,
+   * or -1 if the virtual machine cannot measure it
+   */
+  long allocatedBytes = 0;
+
+  /**
+   * The time and allocation counter when the phase was last resumed
+   */
+  long startNanos;
+  long startBytes;
+
+  /**
+   * Constructor
+   * @param source The GA, Species, or Population reporting the phase
+   * @param phase The phase reported
+   * @param generation The generation of the source
+   * @param genomeCount The number of genomes the phase works on
+   */
+  public PhaseEvent(Object source, Phase phase, int generation,
+      int genomeCount) {
+    super();
+    this.source = source;
+    this.phase = phase;
+    this.generation = generation;
+    this.genomeCount = genomeCount;
+  }
+
+  /**
+   * Returns the GA, Species, or Population reporting the phase
+   */
+  public Object getSource() {
+    return source;
+  }
+
+  /**
+   * Returns the phase reported
+   */
+  public Phase getPhase() {
+    return phase;
+  }
+
+  /**
+   * Returns the generation of the source when the phase began
+   */
+  public int getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Returns the number of genomes the phase worked on.  For evaluation
+   * this is the number of unevaluated genomes, for selection the number of
+   * parents selected, for crossover and mutation the number of children,
+   * and for migration the number of migrants.  Otherwise it is the number
+   * of genomes in the source.
+   */
+  public int getGenomeCount() {
+    return genomeCount;
+  }
+
+  /**
+   * Returns the time spent in the phase in nanoseconds, or 0 before the
+   * phase has ended
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Returns the number of bytes allocated by the reporting thread during
+   * the phase, or -1 if the virtual machine cannot measure it.  Allocation
+   * by other threads, such as the workers of an executor, is not included.
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  public String toString() {
+    return phase + " generation: " + generation + " genomes: " + genomeCount
+        + " nanos: " + elapsedNanos + " allocated bytes: " + allocatedBytes;
+  }
+}
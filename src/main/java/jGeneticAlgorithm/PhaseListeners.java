@@ -0,0 +1,204 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * The listeners of a GA, Species, or Population, together with the timing
+ * of the phases reported to them.  Callers check isEmpty() before creating
+ * an event, so a source with no listeners does no timing and creates no
+ * objects.
+ */
+class PhaseListeners {
+
+  /**
+   * The bean used to measure allocation, or null if the virtual machine
+   * cannot measure the allocation of a thread
+   */
+  static final com.sun.management.ThreadMXBean threadBean = allocationBean();
+
+  /**
+   * The listeners.  The array is replaced, never changed, so that it may be
+   * read without locking while listeners are added or removed.
+   */
+  volatile GAListener[] listeners = new GAListener[0];
+
+  /**
+   * Returns the thread bean if it can measure allocation, otherwise null
+   */
+  static com.sun.management.ThreadMXBean allocationBean() {
+    java.lang.management.ThreadMXBean bean;
+    com.sun.management.ThreadMXBean sunBean;
+
+    try {
+      bean = ManagementFactory.getThreadMXBean();
+      if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+        return null;
+      }
+      sunBean = (com.sun.management.ThreadMXBean)bean;
+      if (!sunBean.isThreadAllocatedMemorySupported()) {
+        return null;
+      }
+      if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+      }
+      return sunBean;
+    }
+    catch (RuntimeException e) {
+      return null;
+    }
+    catch (LinkageError e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the number of bytes allocated so far by the current thread, or
+   * -1 if it cannot be measured
+   */
+  static long allocatedBytes() {
+    if (threadBean == null) {
+      return -1;
+    }
+    return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Returns a new list holding the same listeners as this one
+   */
+  PhaseListeners copy() {
+    PhaseListeners copy;
+
+    copy = new PhaseListeners();
+    copy.listeners = listeners;
+    return copy;
+  }
+
+  /**
+   * Adds a listener
+   */
+  synchronized void add(GAListener l) {
+    GAListener[] larger;
+
+    larger = new GAListener[listeners.length + 1];
+    System.arraycopy(listeners, 0, larger, 0, listeners.length);
+    larger[listeners.length] = l;
+    listeners = larger;
+  }
+
+  /**
+   * Removes a listener.  Does nothing if the listener was not added.
+   */
+  synchronized void remove(GAListener l) {
+    GAListener[] smaller;
+    int i;
+
+    for (i = 0; i < listeners.length; i++) {
+      if (listeners[i] == l) {
+        smaller = new GAListener[listeners.length - 1];
+        System.arraycopy(listeners, 0, smaller, 0, i);
+        System.arraycopy(listeners, i + 1, smaller, i,
+            listeners.length - i - 1);
+        listeners = smaller;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns true if there are no listeners
+   */
+  boolean isEmpty() {
+    return listeners.length == 0;
+  }
+
+  /**
+   * Reports the start of a phase to every listener, starts timing it, and
+   * returns its event
+   */
+  PhaseEvent begin(Object source, Phase phase, int generation,
+      int genomeCount) {
+    PhaseEvent e;
+
+    e = this.announce(source, phase, generation, genomeCount);
+    this.resume(e);
+    return e;
+  }
+
+  /**
+   * Reports the start of a phase to every listener and returns its event
+   * without timing it.  Used for phases timed in several steps with resume
+   * and pause.
+   */
+  PhaseEvent announce(Object source, Phase phase, int generation,
+      int genomeCount) {
+    PhaseEvent e;
+    GAListener[] current;
+    int i;
+
+    e = new PhaseEvent(source, phase, generation, genomeCount);
+    current = listeners;
+    for (i = 0; i < current.length; i++) {
+      current[i].phaseStarted(e);
+    }
+    return e;
+  }
+
+  /**
+   * Resumes timing a phase
+   */
+  void resume(PhaseEvent e) {
+    e.startBytes = allocatedBytes();
+    e.startNanos = System.nanoTime();
+  }
+
+  /**
+   * Stops timing a phase and adds the time and allocation since it was last
+   * resumed to its event
+   */
+  void pause(PhaseEvent e) {
+    long nanos, bytes;
+
+    nanos = System.nanoTime();
+    bytes = allocatedBytes();
+    e.elapsedNanos += nanos - e.startNanos;
+    if (bytes < 0 || e.startBytes < 0) {
+      e.allocatedBytes = -1;
+    } else if (e.allocatedBytes >= 0) {
+      e.allocatedBytes += bytes - e.startBytes;
+    }
+  }
+
+  /**
+   * Stops timing a phase and reports its end to every listener
+   * @param e The event returned by begin
+   * @param genomeCount The number of genomes the phase worked on
+   */
+  void end(PhaseEvent e, int genomeCount) {
+    this.pause(e);
+    this.report(e, genomeCount);
+  }
+
+  /**
+   * Reports the end of a phase that has already been paused to every
+   * listener
+   * @param e The event returned by begin
+   * @param genomeCount The number of genomes the phase worked on
+   */
+  void report(PhaseEvent e, int genomeCount) {
+    GAListener[] current;
+    int i;
+
+    e.genomeCount = genomeCount;
+    current = listeners;
+    for (i = 0; i < current.length; i++) {
+      current[i].phaseEnded(e);
+    }
+  }
+}
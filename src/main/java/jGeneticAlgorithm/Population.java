@@ -11,6 +11,7 @@ import cern.colt.list.DoubleArrayList;
 import cern.jet.stat.Descriptive;
 import java.lang.Cloneable;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import cern.jet.random.engine.RandomEngine;
 import cern.jet.random.Uniform;
 
@@ -61,6 +62,17 @@ public class Population implements Cloneable {
    */
   Scaler scalingObject = null;
 
+  /**
+   * The source of population ids
+   */
+  static final AtomicInteger nextId = new AtomicInteger(1);
+
+  /**
+   * A number identifying this population in flight recorder events.  Every
+   * population, including every copy, has its own id.
+   */
+  int id = nextId.getAndIncrement();
+
   /**
    * Reference number (usually corresponds to generation) for this population
    */
@@ -117,6 +129,74 @@ public class Population implements Cloneable {
    */
   Genome best = null;
 
+  /**
+   * The raw fitness of each genome, indexed by the position of the genome in
+   * the genomes vector.  The fitness columns hold the same values as the
+   * fitness fields of the genomes in dense primitive arrays, so that scalers,
+   * selectors, and statistics can scan them without dereferencing each
+   * genome.  They are refreshed from the genomes by updateFitnessColumns().
+   */
+  double[] rawFitnessColumn = new double[0];
+
+  /**
+   * The scaled fitness of each genome, indexed like rawFitnessColumn
+   */
+  double[] scaledFitnessColumn = new double[0];
+
+  /**
+   * The temporary fitness of each genome, indexed like rawFitnessColumn
+   */
+  double[] tempFitnessColumn = new double[0];
+
+  /**
+   * The rank of each genome, indexed like rawFitnessColumn
+   */
+  int[] rankColumn = new int[0];
+
+  /**
+   * The number of genomes that were not evaluated when the fitness columns
+   * were last refreshed
+   */
+  int unevaluatedCount = 0;
+
+  /**
+   * The ranking engine which orders the genomes by fitness
+   */
+  RankingEngine rankingEngine = new RankingEngine();
+
+  /**
+   * True if the ordering of the ranking engine was computed from the current
+   * fitness columns
+   */
+  boolean orderValid = false;
+
+  /**
+   * A scratch array used when arranging the genomes in rank order
+   */
+  Genome[] sortScratch = new Genome[0];
+
+  /**
+   * The indices of the parents selected for the next generation, reused from
+   * one generation to the next
+   */
+  int[] parentIndices = new int[0];
+
+  /**
+   * Running statistics of the fitness of the genomes in this population
+   */
+  PopulationStatistics statistics = new PopulationStatistics();
+
+  /**
+   * A summary used when rebuilding the statistics
+   */
+  FitnessSummary statisticsSummary = new FitnessSummary();
+
+
+  /**
+   * The listeners to the phases of this population
+   */
+  PhaseListeners listeners = new PhaseListeners();
+
   /**
    * Constructor
    * Generates a new population with no scaling object and the default
@@ -132,6 +212,42 @@ public class Population implements Cloneable {
     selectionObject = new RoulletteWheelSelector(randomGenerator);
   }
 
+  /**
+   * Sets the random number generator used by this population, its selector,
+   * and all of its genomes.  Giving each population its own generator, for
+   * example from a RandomStreamFactory, makes the evolution of each population
+   * independent of the order in which populations are evolved.
+   * @param e A RandomEngine random number generator from the
+   * cern.jet.random.engine library
+   */
+  public void setRandomEngine(RandomEngine e) {
+    Enumeration<Genome> enu;
+
+    randomGenerator = e;
+    uniform = new Uniform(e);
+    selectionObject.setRandomEngine(e);
+    enu = genomes.elements();
+    while (enu.hasMoreElements()) {
+      enu.nextElement().setRandomEngine(e);
+    }
+    if (archive != null) {
+      enu = archive.elements();
+      while (enu.hasMoreElements()) {
+        enu.nextElement().setRandomEngine(e);
+      }
+    }
+    if (best != null) {
+      best.setRandomEngine(e);
+    }
+  }
+
+  /**
+   * Returns the random number generator used by this population
+   */
+  public RandomEngine getRandomEngine() {
+    return randomGenerator;
+  }
+
   /**
    * Sets the scaling object to be used by the population to scale the raw
    * fitness values of each genome in the population and store them as the
@@ -145,7 +261,8 @@ public class Population implements Cloneable {
   /**
    * Sets the selection object that the population uses to select individuals
    * from the population in order to produce offspring for subseqeunt
-   * generations.
+   * generations.  The selector should not be shared with other populations
+   * that evolve concurrently.
    * @param selector An subclass of the Selector class
    */
   public void setSelectionObject(Selector selector) {
@@ -197,6 +314,9 @@ public class Population implements Cloneable {
     Population copy;
     copy = (Population)this.clone();
     copy.genomes = new Vector();
+    copy.clearFitnessColumns();
+    copy.listeners = listeners.copy();
+    copy.id = nextId.getAndIncrement();
     return copy;
   }
 
@@ -218,55 +338,277 @@ public class Population implements Cloneable {
       copiedGenomes.addElement(((Genome)e.nextElement()).copy());
     }
     copy.genomes = copiedGenomes;
+    copy.clearFitnessColumns();
+    copy.listeners = listeners.copy();
+    copy.id = nextId.getAndIncrement();
+    copy.updateFitnessColumns();
     return copy;
   }
 
   /**
-   * Returns a cern.colt.list.DoubleArrayList of raw fitness for use with
-   * descriptive statistics from cern.jet.stat.Descriptive calls
+   * Copies the fitness values and rank of each genome into the fitness
+   * columns of the population, resizing the columns if the number of genomes
+   * has changed, and rebuilds the population statistics.  The columns are
+   * refreshed by scale() and sort(), so this method need only be called
+   * after the genomes are changed by other means.
    */
-  public DoubleArrayList getRawFitnessValues() {
-    DoubleArrayList l;
-    Enumeration e;
+  public void updateFitnessColumns() {
+    int i, n;
+
+    n = genomes.size();
+    if (rawFitnessColumn.length != n) {
+      rawFitnessColumn = new double[n];
+      scaledFitnessColumn = new double[n];
+      tempFitnessColumn = new double[n];
+      rankColumn = new int[n];
+    }
+    unevaluatedCount = 0;
+    orderValid = false;
+    statisticsSummary.clear();
+    for (i = 0; i < n; i++) {
+      Genome g = genomes.elementAt(i);
+      rawFitnessColumn[i] = g.rawFitness;
+      scaledFitnessColumn[i] = g.scaledFitness;
+      tempFitnessColumn[i] = g.tempFitness;
+      rankColumn[i] = g.rank;
+      g.statistics = statistics;
+      if (!g.isEvaluated) {
+        unevaluatedCount++;
+      }
+      else {
+        statisticsSummary.add(g.rawFitness);
+      }
+    }
+    this.resetStatistics();
+  }
 
-    l = new DoubleArrayList();
-    e = genomes.elements();
-    while (e.hasMoreElements()) {
-      l.add(((Genome)e.nextElement()).rawFitness);
+  /**
+   * Replaces the population statistics with the summary of fitness gathered
+   * while refreshing the fitness columns
+   */
+  void resetStatistics() {
+    boolean minimize;
+
+    minimize = genomes.size() > 0 && genomes.elementAt(0).minimize;
+    statistics.reset(statisticsSummary, unevaluatedCount, minimize);
+  }
+
+  /**
+   * Adds a listener to be told of the evolution, scaling, sorting,
+   * selection, crossover, and mutation phases of this population.  Copies
+   * of the population made afterward start with the same listeners.
+   * @param l The listener
+   */
+  public void addListener(GAListener l) {
+    listeners.add(l);
+  }
+
+  /**
+   * Removes a listener from this population
+   * @param l The listener
+   */
+  public void removeListener(GAListener l) {
+    listeners.remove(l);
+  }
+
+  /**
+   * Returns the running statistics of the fitness of the genomes in this
+   * population.  The same object is returned for the life of the population,
+   * and it may be read at any time from any thread.
+   */
+  public PopulationStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Empties the fitness columns so that they are not shared with a copy
+   */
+  void clearFitnessColumns() {
+    rawFitnessColumn = new double[0];
+    scaledFitnessColumn = new double[0];
+    tempFitnessColumn = new double[0];
+    rankColumn = new int[0];
+    rankingEngine = new RankingEngine();
+    orderValid = false;
+    sortScratch = new Genome[0];
+    parentIndices = new int[0];
+    statistics = new PopulationStatistics();
+    statisticsSummary = new FitnessSummary();
+  }
+
+  /**
+   * Orders the genomes by raw fitness using the values in the raw fitness
+   * column, and sets the rank column accordingly.  The genomes themselves
+   * are not moved; sort() arranges them in this order.  The ordering is
+   * computed once per generation and shared by the rank scaler, sort(), the
+   * best genome, and the archive update.
+   */
+  public void rankGenomes() {
+    int[] order;
+    int i;
+
+    if (genomes.isEmpty()) {
+      return;
     }
-    return l;
+    order = rankingEngine.rank(rawFitnessColumn, genomes.firstElement().minimize);
+    for (i = 0; i < order.length; i++) {
+      rankColumn[order[i]] = i + 1;
+    }
+    orderValid = true;
   }
 
   /**
-   * Returns a cern.colt.list.DoubleArrayList of scaled fitness for use with
-   * descriptive statistics from cern.jet.stat.Descriptive calls
+   * Returns the ordering of the genomes computed by rankGenomes().  Element k
+   * is the index of the genome with the (k + 1)th best fitness.  The array
+   * is owned by the population.
    */
-  public DoubleArrayList getScaledFitnessValues() {
-    DoubleArrayList l;
-    Enumeration e;
+  public int[] getFitnessOrder() {
+    return rankingEngine.getOrder();
+  }
 
-    l = new DoubleArrayList();
-    e = genomes.elements();
-    while (e.hasMoreElements()) {
-      l.add(((Genome)e.nextElement()).scaledFitness);
+  /**
+   * Returns true if the ordering of the ranking engine is valid for the
+   * current genomes, i.e. if it was computed from the fitness columns and no
+   * genome's raw fitness has changed since.
+   */
+  boolean isOrderCurrent() {
+    int i;
+
+    if (!orderValid || rawFitnessColumn.length != genomes.size()) {
+      return false;
     }
-    return l;
+    for (i = 0; i < rawFitnessColumn.length; i++) {
+      if (Double.doubleToLongBits(genomes.elementAt(i).rawFitness)
+          != Double.doubleToLongBits(rawFitnessColumn[i])) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
-   * Returns a cern.colt.list.DoubleArrayList of scaled fitness for use with
-   * descriptive statistics from cern.jet.stat.Descriptive calls
+   * Returns true if the fitness columns hold the current raw and scaled
+   * fitness of every genome and the count of unevaluated genomes is right,
+   * i.e. if no genome was replaced or re-evaluated by other means since the
+   * columns were last refreshed.
    */
-  public DoubleArrayList getTempFitnessValues() {
-    DoubleArrayList l;
-    Enumeration e;
+  boolean areColumnsCurrent() {
+    int unevaluated;
+    int i;
 
-    l = new DoubleArrayList();
-    e = genomes.elements();
-    while (e.hasMoreElements()) {
-      l.add(((Genome)e.nextElement()).tempFitness);
+    if (rawFitnessColumn.length != genomes.size()) {
+      return false;
+    }
+    unevaluated = 0;
+    for (i = 0; i < rawFitnessColumn.length; i++) {
+      Genome g = genomes.elementAt(i);
+      if (Double.doubleToLongBits(g.rawFitness)
+          != Double.doubleToLongBits(rawFitnessColumn[i])
+          || Double.doubleToLongBits(g.scaledFitness)
+          != Double.doubleToLongBits(scaledFitnessColumn[i])) {
+        return false;
+      }
+      if (!g.isEvaluated) {
+        unevaluated++;
+      }
+    }
+    return unevaluated == unevaluatedCount;
+  }
+
+  /**
+   * Refreshes the fitness columns unless they are already current
+   */
+  void refreshFitnessColumns() {
+    if (!this.areColumnsCurrent()) {
+      this.updateFitnessColumns();
     }
-    return l;
+  }
+
+  /**
+   * Copies the scaled fitness column into the scaledFitness of each genome
+   */
+  void writeScaledFitness() {
+    int i;
+
+    for (i = 0; i < scaledFitnessColumn.length; i++) {
+      genomes.elementAt(i).scaledFitness = scaledFitnessColumn[i];
+    }
+  }
+
+  /**
+   * Copies the temporary fitness column into the tempFitness of each genome
+   */
+  void writeTempFitness() {
+    int i;
+
+    for (i = 0; i < tempFitnessColumn.length; i++) {
+      genomes.elementAt(i).tempFitness = tempFitnessColumn[i];
+    }
+  }
+
+  /**
+   * Returns the raw fitness column.  Element i is the raw fitness of genome i
+   * as of the last refresh of the columns.  The array is owned by the
+   * population and must not be resized.
+   */
+  public double[] getRawFitnessColumn() {
+    return rawFitnessColumn;
+  }
+
+  /**
+   * Returns the scaled fitness column.  Element i is the scaled fitness of
+   * genome i.  The array is owned by the population and must not be resized.
+   */
+  public double[] getScaledFitnessColumn() {
+    return scaledFitnessColumn;
+  }
+
+  /**
+   * Returns the temporary fitness column.  Element i is the temporary fitness
+   * of genome i.  The array is owned by the population and must not be
+   * resized.
+   */
+  public double[] getTempFitnessColumn() {
+    return tempFitnessColumn;
+  }
+
+  /**
+   * Returns the rank column.  Element i is the rank of genome i.  The array
+   * is owned by the population and must not be resized.
+   */
+  public int[] getRankColumn() {
+    return rankColumn;
+  }
+
+  /**
+   * Returns a cern.colt.list.DoubleArrayList of raw fitness for use with
+   * descriptive statistics from cern.jet.stat.Descriptive calls.  The list
+   * is a copy of the raw fitness column; use getRawFitnessColumn() to read
+   * the fitness values without copying them.
+   */
+  public DoubleArrayList getRawFitnessValues() {
+    this.updateFitnessColumns();
+    return new DoubleArrayList(rawFitnessColumn.clone());
+  }
+
+  /**
+   * Returns a cern.colt.list.DoubleArrayList of scaled fitness for use with
+   * descriptive statistics from cern.jet.stat.Descriptive calls.  The list
+   * is a copy of the scaled fitness column.
+   */
+  public DoubleArrayList getScaledFitnessValues() {
+    this.updateFitnessColumns();
+    return new DoubleArrayList(scaledFitnessColumn.clone());
+  }
+
+  /**
+   * Returns a cern.colt.list.DoubleArrayList of temporary fitness for use with
+   * descriptive statistics from cern.jet.stat.Descriptive calls.  The list
+   * is a copy of the temporary fitness column.
+   */
+  public DoubleArrayList getTempFitnessValues() {
+    this.updateFitnessColumns();
+    return new DoubleArrayList(tempFitnessColumn.clone());
   }
 
   /**
@@ -290,10 +632,31 @@ public class Population implements Cloneable {
     return genomes;
   }
 
+  /**
+   * Returns a java.util.Vector object containing the genomes in the population
+   * that have not yet been evaluated.  Survivors and archive members copied
+   * forward with their fitness are not returned.
+   */
+  public Vector<Genome> getUnevaluatedGenomes() {
+    Vector<Genome> unevaluated;
+    Enumeration<Genome> e;
+
+    unevaluated = new Vector<Genome>();
+    e = genomes.elements();
+    while (e.hasMoreElements()) {
+      Genome g = e.nextElement();
+      if (!g.isEvaluated) {
+        unevaluated.addElement(g);
+      }
+    }
+    return unevaluated;
+  }
+
   /**
    * Initializes the population by creating n copies of the passed in Genome
    * object and initializing the value of each genome to a new random value
-   * by calling the initialize() method of each genome.
+   * by calling the initialize() method of each genome.  Each copy uses the
+   * random number generator of this population.
    * @param g A Genome object copied and initialized to create the initial
    * population
    * @param n The number of genomes in the initial population
@@ -306,10 +669,22 @@ public class Population implements Cloneable {
     genomes.clear();
     for (i = 0; i < n; i++) {
       copy = g.copy();
+      if (copy.getRandomEngine() != randomGenerator) {
+        copy.setRandomEngine(randomGenerator);
+      }
       copy.initialize();
       genomes.addElement(copy);
     }
     best = null;
+    this.updateFitnessColumns();
+  }
+
+  /**
+   * Returns the number identifying this population in flight recorder
+   * events
+   */
+  public int getId() {
+    return id;
   }
 
   /**
@@ -334,27 +709,77 @@ public class Population implements Cloneable {
   /**
    * This method sorts the evaluated population according to fitness.  It also
    * assigns a rank value to each member of the population.  Finally, it updates
-   * the best genome.
+   * the archive and the best genome.  If the genomes were already ranked this
+   * generation by rankGenomes(), that ordering is used rather than sorting
+   * them again.
    */
 
   public void sort() {
-    Enumeration e;
+    PhaseEvent e = null;
+
+    if (!listeners.isEmpty()) {
+      e = listeners.begin(this, Phase.SORTING, generation, genomes.size());
+    }
+    this.sortGenomes();
+    if (e != null) {
+      listeners.end(e, genomes.size());
+    }
+  }
+
+  /**
+   * Sorts the genomes, ranks them, and updates the archive and the best
+   * genome, as described for sort()
+   */
+  void sortGenomes() {
     Genome g;
-    int i;
+    int[] order;
+    int i, n;
 
-    // Sort the population by fitness
-    Collections.sort(genomes);
+    // rank the population by fitness unless it is already ranked
+    if (!this.isOrderCurrent()) {
+      this.updateFitnessColumns();
+      this.rankGenomes();
+    }
 
-    // assign a rank to each genome
-    e = genomes.elements();
-    i = 0;
-    while(e.hasMoreElements()) {
-      g = (Genome)e.nextElement();
-      i++;
-      g.rank = i;
+    // arrange the genomes and fitness columns in rank order
+    n = genomes.size();
+    order = rankingEngine.getOrder();
+    if (sortScratch.length < n) {
+      sortScratch = new Genome[n];
+    }
+    genomes.toArray(sortScratch);
+    unevaluatedCount = 0;
+    statisticsSummary.clear();
+    for (i = 0; i < n; i++) {
+      g = sortScratch[order[i]];
+      genomes.setElementAt(g, i);
+      g.rank = i + 1;
+      rawFitnessColumn[i] = g.rawFitness;
+      scaledFitnessColumn[i] = g.scaledFitness;
+      tempFitnessColumn[i] = g.tempFitness;
+      rankColumn[i] = i + 1;
+      g.statistics = statistics;
+      if (!g.isEvaluated) {
+        unevaluatedCount++;
+      }
+      else {
+        statisticsSummary.add(g.rawFitness);
+      }
+    }
+    Arrays.fill(sortScratch, 0, n, null);
+    rankingEngine.setIdentity();
+    this.resetStatistics();
+    if (n == 0) {
+      return;
     }
 
-    // Updaate the archive
+    // Update the archive
+    if (archiveSize > 0) {
+      if (archive == null) {
+        archive = new Vector<Genome>();
+      }
+      archiveUpdater.updateArchive(genomes, archive, archiveSize);
+    }
 
     // update the best genome
     try {
@@ -376,6 +801,51 @@ public class Population implements Cloneable {
 
   }
 
+  /**
+   * Replaces the genome at the given position with another genome, keeping
+   * the fitness columns, the population statistics, and the best genome up
+   * to date.  The genomes are no longer in rank order afterward, and the
+   * archive is not updated until the population is next sorted.
+   * @param index The position of the genome to replace
+   * @param g The genome to put in its place
+   * @return The genome replaced
+   */
+  public Genome replaceGenome(int index, Genome g) {
+    Genome old;
+
+    old = genomes.elementAt(index);
+    genomes.setElementAt(g, index);
+    old.statistics = null;
+    g.statistics = statistics;
+    statistics.replaced(old, g);
+    if (rawFitnessColumn.length == genomes.size()) {
+      rawFitnessColumn[index] = g.rawFitness;
+      scaledFitnessColumn[index] = g.scaledFitness;
+      tempFitnessColumn[index] = g.tempFitness;
+      rankColumn[index] = g.rank;
+      if (old.isEvaluated && !g.isEvaluated) {
+        unevaluatedCount++;
+      }
+      else if (!old.isEvaluated && g.isEvaluated) {
+        unevaluatedCount--;
+      }
+    }
+    orderValid = false;
+
+    // update the best genome
+    if (g.isEvaluated && (best == null || best.compareTo(g) > 0)) {
+      try {
+        best = g.copy();
+      }
+      catch (CloneNotSupportedException exception) {
+        System.err.println(exception.getMessage());
+        exception.printStackTrace();
+        System.exit(1);
+      }
+    }
+    return old;
+  }
+
   /**
    * Returns the best genome evaluated in this population so far
    */
@@ -389,21 +859,23 @@ public class Population implements Cloneable {
    * the scaledFitness value.
    */
   public void scale() throws GAException {
-    Enumeration e;
-    Genome g;
-    int i;
-
+    PhaseEvent e = null;
 
+    if (!listeners.isEmpty()) {
+      e = listeners.begin(this, Phase.SCALING, generation, genomes.size());
+    }
+    this.updateFitnessColumns();
     if (scalingObject == null) {
-      e = genomes.elements();
-      while(e.hasMoreElements()) {
-        g = (Genome)e.nextElement();
-        g.scaledFitness = g.rawFitness;
-      }
+      System.arraycopy(rawFitnessColumn, 0, scaledFitnessColumn, 0,
+        rawFitnessColumn.length);
+      this.writeScaledFitness();
     }
     else {
       scalingObject.scale(this);
     }
+    if (e != null) {
+      listeners.end(e, genomes.size());
+    }
   }
 
   /**
@@ -430,12 +902,42 @@ public class Population implements Cloneable {
     Vector nextGeneration;   // a Vecor object holding the next generation's genomes
     int i;
     int numSurvivors;
+    int numParents;      // the number of parents in the current batch
+    int nextParent;      // the position of the next parent in the batch
+    int numSelected, numCrossed, numMutated;
+    Vector pool;         // the genomes the selector selects from
+    boolean batched;     // true if the parents are selected with selectInto
     Genome mom, dad;
     Genome[] kids;
-
+    boolean observed;    // true if there are listeners to report to
+    PhaseEvent evolution = null, selection = null;
+    PhaseEvent crossover = null, mutation = null;
+    GenerationEvent generationEvent;   // flight recorder events
+    BreedingEvent breedingEvent;
+    double bestFitness, meanFitness;
+
+    generationEvent = new GenerationEvent();
+    generationEvent.begin();
+    observed = !listeners.isEmpty();
+    if (observed) {
+      evolution = listeners.begin(this, Phase.EVOLUTION, generation,
+          genomes.size());
+    }
     this.scale();  // scale the population
     this.sort();
+    bestFitness = statistics.getBestFitness();
+    meanFitness = statistics.getMean();
+    breedingEvent = new BreedingEvent();
+    breedingEvent.begin();
+    if (observed) {
+      selection = listeners.begin(this, Phase.SELECTION, generation, 0);
+    }
     this.initializeSelector();
+    if (observed) {
+      listeners.pause(selection);
+      crossover = listeners.announce(this, Phase.CROSSOVER, generation, 0);
+      mutation = listeners.announce(this, Phase.MUTATION, generation, 0);
+    }
     nextGeneration = new Vector();
 
     // copy a fraction of the genomes (1 - replacementRate) to the next generation
@@ -469,32 +971,118 @@ public class Population implements Cloneable {
       }
     }
 
-    // Add new genomes using selection, crossover, and mutation
-    // Select the dad
+    // Add new genomes using selection, crossover, and mutation.  The parents
+    //    are selected in batches, normally one batch for the generation.
+    pool = selectionObject.getSelectionPool(this);
+    batched = selectionObject.selectsInBatches();
+    numParents = 0;
+    nextParent = 0;
+    numSelected = 0;
+    numCrossed = 0;
+    numMutated = 0;
     while (nextGeneration.size() < n) {
       // select the parents
-      dad = selectionObject.selectFrom(this);
-      mom = selectionObject.selectFrom(this);
+      if (!batched) {  // one at a time, for selectors without selectInto
+        if (observed) {
+          listeners.resume(selection);
+        }
+        dad = selectionObject.selectFrom(this);
+        mom = selectionObject.selectFrom(this);
+        numSelected += 2;
+        if (observed) {
+          listeners.pause(selection);
+        }
+      }
+      else {
+        if (nextParent >= numParents) {
+          if (observed) {
+            listeners.resume(selection);
+          }
+          numParents = 2 * ((n - nextGeneration.size() + 1) / 2);
+          if (parentIndices.length < numParents) {
+            parentIndices = new int[numParents];
+          }
+          selectionObject.selectInto(this, numParents, parentIndices);
+          numSelected += numParents;
+          nextParent = 0;
+          if (observed) {
+            listeners.pause(selection);
+          }
+        }
+        dad = (Genome)pool.elementAt(parentIndices[nextParent++]);
+        mom = (Genome)pool.elementAt(parentIndices[nextParent++]);
+      }
 
+      if (observed) {
+        listeners.resume(crossover);
+      }
       if (uniform.nextDoubleFromTo(0, 1) < crossoverRate) { // perform crossover
         kids = mom.crossWith(dad);
       }
       else { // or simply copy parents to make kids
         kids = new Genome[2];
-        kids[0] = mom;
-        kids[1] = dad;
+        try {
+          kids[0] = mom.copy();
+          kids[1] = dad.copy();
+        }
+        catch (CloneNotSupportedException e) {
+          System.out.println(e.getMessage());
+          e.printStackTrace();
+          System.exit(1);
+        }
+      }
+
+      numCrossed += kids.length;
+      if (observed) {
+        listeners.pause(crossover);
+        listeners.resume(mutation);
       }
 
       // add kids to next generation
       for (i = 0; i < kids.length; i++) {
         kids[i].mutate();
+        numMutated++;
         nextGeneration.addElement(kids[i]);
         if (nextGeneration.size() == n) {
           break;
         }
       }
+      if (observed) {
+        listeners.pause(mutation);
+      }
+    }
+    if (observed) {
+      listeners.report(selection, numSelected);
+      listeners.report(crossover, numCrossed);
+      listeners.report(mutation, numMutated);
+    }
+    breedingEvent.end();
+    if (breedingEvent.shouldCommit()) {
+      breedingEvent.populationId = id;
+      breedingEvent.generation = generation;
+      breedingEvent.parentsSelected = numSelected;
+      breedingEvent.children = numMutated;
+      breedingEvent.commit();
+    }
+
+    // the old genomes no longer belong to this population
+    for (i = 0; i < genomes.size(); i++) {
+      genomes.elementAt(i).statistics = null;
     }
     genomes = nextGeneration;
+    this.updateFitnessColumns();
+    if (observed) {
+      listeners.end(evolution, genomes.size());
+    }
+    generationEvent.end();
+    if (generationEvent.shouldCommit()) {
+      generationEvent.populationId = id;
+      generationEvent.generation = generation;
+      generationEvent.genomeCount = genomes.size();
+      generationEvent.bestFitness = bestFitness;
+      generationEvent.meanFitness = meanFitness;
+      generationEvent.commit();
+    }
     generation++;
   }
 
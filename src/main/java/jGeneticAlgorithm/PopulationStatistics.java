@@ -0,0 +1,234 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * PopulationStatistics holds running statistics of the raw fitness of the
+ * genomes in a Population: the number of evaluated and unevaluated genomes,
+ * the mean and variance of fitness by Welford's method, and the minimum,
+ * maximum, and best fitness.  The population rebuilds the statistics
+ * whenever it refreshes its fitness columns or sorts, and between those
+ * times each genome of the population updates them as it is evaluated.
+ * Every read takes constant time and creates no objects, and the methods
+ * are synchronized so that the statistics may be read from another thread
+ * while the population is being evaluated.<p>
+ *
+ * When a genome that was already evaluated is re-evaluated or marked as not
+ * evaluated, the mean and variance are updated exactly, but the minimum and
+ * maximum are only widened, so they bound the fitness of the evaluated
+ * genomes until the population next rebuilds the statistics.
+ */
+public class PopulationStatistics {
+
+  /**
+   * The number of evaluated and unevaluated genomes in the population
+   */
+  int evaluatedCount = 0;
+  int unevaluatedCount = 0;
+
+  /**
+   * The mean fitness of the evaluated genomes
+   */
+  double mean = 0;
+
+  /**
+   * The sum of squared differences from the mean of the fitness of the
+   * evaluated genomes
+   */
+  double sumOfSquares = 0;
+
+  /**
+   * The smallest and largest fitness of the evaluated genomes
+   */
+  double min = Double.POSITIVE_INFINITY;
+  double max = Double.NEGATIVE_INFINITY;
+
+  /**
+   * True if the genomes of the population are minimizing fitness
+   */
+  boolean minimize = false;
+
+  /**
+   * Constructor
+   */
+  public PopulationStatistics() {
+    super();
+  }
+
+  /**
+   * Replaces the statistics with a summary of the evaluated genomes of the
+   * population
+   * @param s A summary of the fitness of the evaluated genomes
+   * @param unevaluated The number of genomes not yet evaluated
+   * @param minimize True if the genomes are minimizing fitness
+   */
+  synchronized void reset(FitnessSummary s, int unevaluated,
+      boolean minimize) {
+    evaluatedCount = s.count;
+    unevaluatedCount = unevaluated;
+    mean = s.mean;
+    sumOfSquares = s.sumOfSquares;
+    min = s.min;
+    max = s.max;
+    this.minimize = minimize;
+  }
+
+  /**
+   * Records the evaluation of a genome of the population
+   * @param wasEvaluated True if the genome was already evaluated
+   * @param oldFitness The fitness of the genome before evaluation
+   * @param newFitness The fitness of the genome after evaluation
+   */
+  synchronized void evaluated(boolean wasEvaluated, double oldFitness,
+      double newFitness) {
+    if (wasEvaluated) {
+      this.remove(oldFitness);
+    } else if (unevaluatedCount > 0) {
+      unevaluatedCount--;
+    }
+    this.add(newFitness);
+  }
+
+  /**
+   * Records that an evaluated genome of the population has been marked as
+   * not evaluated
+   * @param oldFitness The fitness of the genome before it was marked
+   */
+  synchronized void unevaluated(double oldFitness) {
+    this.remove(oldFitness);
+    unevaluatedCount++;
+  }
+
+  /**
+   * Records the replacement of one genome of the population by another
+   * @param oldGenome The genome removed
+   * @param newGenome The genome added in its place
+   */
+  synchronized void replaced(Genome oldGenome, Genome newGenome) {
+    if (oldGenome.isEvaluated) {
+      this.remove(oldGenome.rawFitness);
+    } else if (unevaluatedCount > 0) {
+      unevaluatedCount--;
+    }
+    if (newGenome.isEvaluated) {
+      this.add(newGenome.rawFitness);
+    } else {
+      unevaluatedCount++;
+    }
+  }
+
+  /**
+   * Adds a fitness value to the running moments
+   */
+  void add(double x) {
+    double delta;
+
+    evaluatedCount++;
+    if (x < min) {
+      min = x;
+    }
+    if (x > max) {
+      max = x;
+    }
+    delta = x - mean;
+    mean += delta / evaluatedCount;
+    sumOfSquares += delta * (x - mean);
+  }
+
+  /**
+   * Removes a fitness value from the running moments
+   */
+  void remove(double x) {
+    double oldMean;
+
+    if (evaluatedCount <= 1) {
+      evaluatedCount = 0;
+      mean = 0;
+      sumOfSquares = 0;
+      return;
+    }
+    oldMean = mean;
+    mean = (evaluatedCount * mean - x) / (evaluatedCount - 1);
+    sumOfSquares -= (x - oldMean) * (x - mean);
+    if (sumOfSquares < 0) {
+      sumOfSquares = 0;
+    }
+    evaluatedCount--;
+  }
+
+  /**
+   * Returns the number of evaluated genomes in the population
+   */
+  public synchronized int getEvaluatedCount() {
+    return evaluatedCount;
+  }
+
+  /**
+   * Returns the number of genomes in the population not yet evaluated
+   */
+  public synchronized int getUnevaluatedCount() {
+    return unevaluatedCount;
+  }
+
+  /**
+   * Returns the mean fitness of the evaluated genomes, or 0 if there are
+   * none
+   */
+  public synchronized double getMean() {
+    return mean;
+  }
+
+  /**
+   * Returns the population variance of the fitness of the evaluated
+   * genomes, or 0 if there are fewer than two
+   */
+  public synchronized double getVariance() {
+    if (evaluatedCount < 2) {
+      return 0;
+    }
+    return sumOfSquares / evaluatedCount;
+  }
+
+  /**
+   * Returns the population standard deviation of the fitness of the
+   * evaluated genomes
+   */
+  public synchronized double getStandardDeviation() {
+    return Math.sqrt(this.getVariance());
+  }
+
+  /**
+   * Returns the smallest fitness of the evaluated genomes, or positive
+   * infinity if there are none
+   */
+  public synchronized double getMin() {
+    return min;
+  }
+
+  /**
+   * Returns the largest fitness of the evaluated genomes, or negative
+   * infinity if there are none
+   */
+  public synchronized double getMax() {
+    return max;
+  }
+
+  /**
+   * Returns the fitness of the most fit evaluated genome: the minimum if
+   * minimizing and the maximum if maximizing
+   */
+  public synchronized double getBestFitness() {
+    return minimize ? min : max;
+  }
+
+  public synchronized String toString() {
+    return "evaluated: " + evaluatedCount + " unevaluated: "
+        + unevaluatedCount + " mean: " + mean + " standard deviation: "
+        + this.getStandardDeviation() + " min: " + min + " max: " + max;
+  }
+}
@@ -0,0 +1,65 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * The PowerLawScaler scales a Population so that the selection weight of
+ * each genome is (1 + d)^k, where d is the fitness of the genome above the
+ * least fit genome as a fraction of the range of fitness in the population.
+ * The least fit genome has a weight of 1 and the most fit a weight of 2^k,
+ * whatever the units of fitness.  Exponents greater than 1 increase
+ * selection pressure and exponents less than 1 reduce it.  If every genome
+ * has the same fitness, all are equally likely.
+ */
+public class PowerLawScaler extends StreamingScaler {
+
+  /**
+   * The exponent k
+   */
+  double exponent;
+
+  /**
+   * Constructor
+   * @param exponent The exponent k.  Must be positive.
+   */
+  public PowerLawScaler(double exponent) throws GAException {
+    super();
+    this.setExponent(exponent);
+  }
+
+  /**
+   * Sets the exponent k
+   * @param exponent The exponent.  Must be positive.
+   */
+  public void setExponent(double exponent) throws GAException {
+    if (!(exponent > 0)) {
+      throw new GAException("The exponent must be positive");
+    }
+    this.exponent = exponent;
+  }
+
+  /**
+   * Returns the exponent k
+   */
+  public double getExponent() {
+    return exponent;
+  }
+
+  /**
+   * Returns (1 + d)^k for the genome
+   */
+  protected double weight(double merit, FitnessSummary s) {
+    double range;        // the merit of the most fit above the least fit
+
+    range = s.getMax() - s.getMin();
+    if (range == 0) {
+      return 1.0;
+    }
+    return Math.pow(1 + (merit - s.getMin()) / range, exponent);
+  }
+}
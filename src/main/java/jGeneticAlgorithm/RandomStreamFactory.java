@@ -0,0 +1,108 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.util.Vector;
+import java.util.Enumeration;
+import cern.jet.random.engine.MersenneTwister;
+import cern.jet.random.engine.RandomEngine;
+
+/**
+ * A RandomStreamFactory derives independent random number generators from
+ * a single root seed.  Each stream is identified by a number, and the same
+ * root seed and stream number always produce the same sequence of random
+ * numbers.  A factory may also be split into child factories, each with its
+ * own derived root seed, so that a tree of streams can be built, for example
+ * one per species and, within each species, one per population.
+ *
+ * When every population evolves using only its own stream, as arranged by
+ * assignStreams, the result of a run depends only on the root seed and not
+ * on the number of threads used or on the order in which they run.
+ */
+public class RandomStreamFactory {
+
+  /**
+   * The root seed from which all streams are derived
+   */
+  long rootSeed;
+
+  /**
+   * Constructor
+   * @param seed The root seed from which all streams are derived
+   */
+  public RandomStreamFactory(long seed) {
+    super();
+    rootSeed = seed;
+  }
+
+  /**
+   * Returns the root seed of this factory
+   */
+  public long getRootSeed() {
+    return rootSeed;
+  }
+
+  /**
+   * Returns a new random number generator for the numbered stream.  Calling
+   * this method twice with the same number returns two generators producing
+   * the same sequence.
+   * @param streamId The number of the stream
+   */
+  public RandomEngine newStream(long streamId) {
+    long z = mix(rootSeed + (streamId + 1) * 0x9E3779B97F4A7C15L);
+    return new MersenneTwister((int)(z ^ (z >>> 32)));
+  }
+
+  /**
+   * Returns a child factory whose streams are independent of the streams of
+   * this factory and of its other children
+   * @param streamId The number of the child factory
+   */
+  public RandomStreamFactory split(long streamId) {
+    return new RandomStreamFactory(mix(mix(rootSeed) ^ (streamId * 0xC2B2AE3D27D4EB4FL)));
+  }
+
+  /**
+   * Gives each species and each population in a vector of species its own
+   * stream.  Species i uses stream 0 of child factory i for migration, and
+   * population j of species i uses stream j + 1 of the same child factory
+   * for selection, crossover, and mutation.
+   * @param species A vector of Species objects
+   */
+  public void assignStreams(Vector species) {
+    Enumeration enu;
+    Enumeration pops;
+    RandomStreamFactory speciesStreams;
+    int i, j;
+
+    enu = species.elements();
+    i = 0;
+    while (enu.hasMoreElements()) {
+      Species spec = (Species)enu.nextElement();
+      speciesStreams = this.split(i);
+      spec.setRandomEngine(speciesStreams.newStream(0));
+      pops = spec.getPopulations().elements();
+      j = 0;
+      while (pops.hasMoreElements()) {
+        Population pop = (Population)pops.nextElement();
+        pop.setRandomEngine(speciesStreams.newStream(j + 1));
+        j++;
+      }
+      i++;
+    }
+  }
+
+  /**
+   * The SplitMix64 finalizer, which scrambles the bits of a 64 bit value
+   */
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -7,8 +7,6 @@ package jGeneticAlgorithm;
  * @version 1.0
  */
 
-import java.util.*;
-
 /**
  * The RankScaler scales a Population so that the scaledFitness of each
  * genome will be (Count - rank + 1) where Count is the number of Genomes
@@ -34,26 +32,24 @@ public class RankScaler implements Scaler{
    * the Population.
    */
   public void scale(Population pop) throws GAException {
-    double i;
-    Vector genomes;          // population's vector of genomes
-    Enumeration genomeList;  // an enumeration of the genomes in this population
-    Genome g;                // a genome in the population
+    double[] scaled;         // the population's scaled fitness column
+    int[] order;             // the genome indices in order of fitness
 		int count;               // the number of genomes in the population
+    int i;
 
-    genomes = pop.getGenomes();
-		count = pop.getGenomes().size();
-    Collections.sort(genomes);
-    genomeList = genomes.elements();
-    i = 0;
-    while (genomeList.hasMoreElements()) {  // for each genome
-      i = i + 1.0;
-      g = (Genome)genomeList.nextElement();
-      if (g.isEvaluated == false) {
-        throw new GAException(
-          "You must evaluate a genome before scaling it.");
-      }
-      g.setScaledFitness(count - i + 1);
+    pop.refreshFitnessColumns();
+    if (pop.unevaluatedCount > 0) {
+      throw new GAException(
+        "You must evaluate a genome before scaling it.");
+    }
+    pop.rankGenomes();
+    order = pop.getFitnessOrder();
+    scaled = pop.getScaledFitnessColumn();
+    count = scaled.length;
+    for (i = 0; i < count; i++) {  // for each genome in order of fitness
+      scaled[order[i]] = count - i;
     }
+    pop.writeScaledFitness();
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,225 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The RankingEngine orders the genomes of a population by raw fitness.  It
+ * sorts an array of genome indices keyed by a primitive array of fitness
+ * values, rather than sorting the genomes themselves, so that one ordering
+ * can be computed once per generation and shared by scaling, sorting, best
+ * tracking, and archive updates.
+ *
+ * The sort is a stable merge sort, so genomes of equal fitness keep their
+ * relative order, exactly as Collections.sort would leave them.  It is
+ * adaptive: the leading run of genomes already in fitness order, such as
+ * the survivors copied forward from a sorted generation, is left in place,
+ * and only the remaining genomes are sorted and then merged with it.  For
+ * large populations the remaining genomes are sorted in parallel on the
+ * common ForkJoinPool.
+ *
+ * A ranking engine reuses its arrays from one generation to the next and
+ * should not be shared by populations that evolve concurrently.
+ */
+public class RankingEngine {
+
+  /**
+   * The number of genomes at or below which a range is sorted on a single
+   * thread
+   */
+  static final int PARALLEL_THRESHOLD = 8192;
+
+  /**
+   * The number of genomes at or below which a range is sorted by insertion
+   */
+  static final int INSERTION_THRESHOLD = 32;
+
+  /**
+   * order[k] is the index of the genome with the (k + 1)th best fitness
+   */
+  int[] order = new int[0];
+
+  /**
+   * A buffer used when merging sorted ranges of the order
+   */
+  int[] buffer = new int[0];
+
+  /**
+   * The sort key of each genome: its raw fitness if minimizing, or its
+   * negated raw fitness if maximizing, so that smaller keys are more fit
+   */
+  double[] keys = new double[0];
+
+  /**
+   * Constructor
+   */
+  public RankingEngine() {
+    super();
+  }
+
+  /**
+   * Orders the genomes by fitness and returns the ordering.  Element k of the
+   * returned array is the index of the genome with the (k + 1)th best
+   * fitness.  The array is owned by the engine and is overwritten by the
+   * next call.
+   * @param fitness The raw fitness of each genome
+   * @param minimize Set to true if lower fitness is better
+   */
+  public int[] rank(double[] fitness, boolean minimize) {
+    int i, n, run;
+
+    n = fitness.length;
+    if (order.length != n) {
+      order = new int[n];
+      buffer = new int[n];
+      keys = new double[n];
+    }
+    for (i = 0; i < n; i++) {
+      order[i] = i;
+      keys[i] = minimize ? fitness[i] : -fitness[i];
+    }
+
+    // find the leading run of genomes that are already in order
+    run = 1;
+    while (run < n && keys[run - 1] <= keys[run]) {
+      run++;
+    }
+    if (run >= n) {
+      return order;
+    }
+
+    // sort the rest, then merge it with the leading run
+    if (n - run > PARALLEL_THRESHOLD) {
+      new SortTask(order, buffer, keys, run, n).invoke();
+    }
+    else {
+      mergeSort(order, buffer, keys, run, n);
+    }
+    if (keys[order[run - 1]] > keys[order[run]]) {
+      merge(order, buffer, keys, 0, run, n);
+    }
+    return order;
+  }
+
+  /**
+   * Returns the ordering computed by the last call to rank
+   */
+  public int[] getOrder() {
+    return order;
+  }
+
+  /**
+   * Sets the ordering to the identity, indicating that the genomes are
+   * already arranged in order of fitness
+   */
+  void setIdentity() {
+    int i;
+
+    for (i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+  }
+
+  /**
+   * Stably sorts the indices in a[lo, hi) by their keys
+   */
+  static void mergeSort(int[] a, int[] tmp, double[] keys, int lo, int hi) {
+    int mid;
+
+    if (hi - lo <= INSERTION_THRESHOLD) {
+      insertionSort(a, keys, lo, hi);
+      return;
+    }
+    mid = (lo + hi) >>> 1;
+    mergeSort(a, tmp, keys, lo, mid);
+    mergeSort(a, tmp, keys, mid, hi);
+    if (keys[a[mid - 1]] > keys[a[mid]]) {
+      merge(a, tmp, keys, lo, mid, hi);
+    }
+  }
+
+  /**
+   * Stably sorts the indices in a[lo, hi) by insertion
+   */
+  static void insertionSort(int[] a, double[] keys, int lo, int hi) {
+    int i, j, index;
+    double key;
+
+    for (i = lo + 1; i < hi; i++) {
+      index = a[i];
+      key = keys[index];
+      j = i - 1;
+      while (j >= lo && keys[a[j]] > key) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = index;
+    }
+  }
+
+  /**
+   * Merges the sorted ranges a[lo, mid) and a[mid, hi).  On equal keys the
+   * index from the first range is taken first, which keeps the merge stable.
+   */
+  static void merge(int[] a, int[] tmp, double[] keys, int lo, int mid, int hi) {
+    int i, j, k;
+
+    System.arraycopy(a, lo, tmp, lo, mid - lo);
+    i = lo;
+    j = mid;
+    k = lo;
+    while (i < mid && j < hi) {
+      if (keys[a[j]] < keys[tmp[i]]) {
+        a[k++] = a[j++];
+      }
+      else {
+        a[k++] = tmp[i++];
+      }
+    }
+    while (i < mid) {
+      a[k++] = tmp[i++];
+    }
+  }
+
+  /**
+   * Sorts a range of the order by sorting its halves in parallel and merging
+   * them
+   */
+  static class SortTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    int[] a;
+    int[] tmp;
+    double[] keys;
+    int lo, hi;
+
+    SortTask(int[] a, int[] tmp, double[] keys, int lo, int hi) {
+      this.a = a;
+      this.tmp = tmp;
+      this.keys = keys;
+      this.lo = lo;
+      this.hi = hi;
+    }
+
+    protected void compute() {
+      int mid;
+
+      if (hi - lo <= PARALLEL_THRESHOLD) {
+        mergeSort(a, tmp, keys, lo, hi);
+        return;
+      }
+      mid = (lo + hi) >>> 1;
+      invokeAll(new SortTask(a, tmp, keys, lo, mid),
+        new SortTask(a, tmp, keys, mid, hi));
+      if (keys[a[mid - 1]] > keys[a[mid]]) {
+        merge(a, tmp, keys, lo, mid, hi);
+      }
+    }
+  }
+}
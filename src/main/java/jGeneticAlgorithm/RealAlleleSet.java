@@ -8,6 +8,7 @@ package jGeneticAlgorithm;
  */
 
 import cern.jet.random.engine.RandomEngine;
+import cern.jet.random.Uniform;
 
 /**
  * This allele set randomly generates real AlleleValues in the
@@ -47,7 +48,15 @@ public class RealAlleleSet extends AlleleSet {
    * Returns a uniformly distributed IntegerAlleleValue from min to max
    */
   public AlleleValue getRandomValue() {
-    return new RealAlleleValue(uniform.nextDoubleFromTo(min, max));
+    return this.getRandomValue(uniform);
+  }
+
+  /**
+   * Returns a uniformly distributed RealAlleleValue from min to max drawn
+   * from the distribution passed in
+   */
+  public AlleleValue getRandomValue(Uniform u) {
+    return new RealAlleleValue(u.nextDoubleFromTo(min, max));
   }
 
   /**
@@ -51,4 +51,23 @@ public class RealAlleleValue implements AlleleValue {
   public String display() {
     return format.format(value);
   }
+
+  /**
+   * Returns true if o is a RealAlleleValue with the same value
+   */
+  public boolean equals(Object o) {
+    if (!(o instanceof RealAlleleValue)) {
+      return false;
+    }
+    return Double.doubleToLongBits(value) ==
+      Double.doubleToLongBits(((RealAlleleValue)o).value);
+  }
+
+  /**
+   * Returns a hash code based on the value
+   */
+  public int hashCode() {
+    long bits = Double.doubleToLongBits(value);
+    return (int)(bits ^ (bits >>> 32));
+  }
 }
\ No newline at end of file
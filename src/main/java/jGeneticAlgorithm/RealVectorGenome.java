@@ -0,0 +1,311 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.util.Arrays;
+import java.text.DecimalFormat;
+import java.nio.ByteBuffer;
+import cern.jet.random.engine.RandomEngine;
+
+/**
+ * The RealVectorGenome is a fixed length chromosome of real numbers.  It
+ * represents the same solutions as an ObjectGenome built over an array of
+ * RealAlleleSets, but it stores its chromosome in a single double[] rather
+ * than as one RealAlleleValue object per position.  The value at each
+ * position lies in the interval [min, max] of the corresponding allele set.
+ *
+ * Copying, crossover, and mutation work directly on the primitive array, so
+ * the only object allocated for a new genome is its chromosome array.  This
+ * makes the RealVectorGenome suitable for very large populations of long
+ * real valued chromosomes.  The bounds arrays are shared by all copies of a
+ * genome and must not be modified.
+ */
+public class RealVectorGenome extends Genome {
+
+  /**
+   * The real values of the chromosome
+   */
+  double[] values;
+
+  /**
+   * The minimum value at each position of the chromosome
+   */
+  double[] min;
+
+  /**
+   * The maximum value at each position of the chromosome
+   */
+  double[] max;
+
+  /**
+   * The number of crossover points for the genome.  Default = 2.
+   */
+  int crossoverPoints = 2;
+
+  /**
+   * Constructor
+   * @param aSets The allele sets whose min and max bound each position of
+   * the chromosome
+   * @param engine A random number generator from the cern.jet.random.engine
+   * library.
+   */
+  public RealVectorGenome(RealAlleleSet[] aSets, RandomEngine engine) {
+    super(engine);
+    int i;
+
+    min = new double[aSets.length];
+    max = new double[aSets.length];
+    for (i = 0; i < aSets.length; i++) {
+      min[i] = aSets[i].min;
+      max[i] = aSets[i].max;
+    }
+    values = new double[aSets.length];
+  }
+
+  /**
+   * Constructor
+   * @param mins The minimum value at each position of the chromosome
+   * @param maxs The maximum value at each position of the chromosome
+   * @param engine A random number generator from the cern.jet.random.engine
+   * library.
+   * @throws GAException
+   */
+  public RealVectorGenome(double[] mins, double[] maxs, RandomEngine engine) throws GAException {
+    super(engine);
+    int i;
+
+    if (mins.length != maxs.length) {
+      throw new GAException(
+        "The min and max arrays must have the same length.");
+    }
+    for (i = 0; i < mins.length; i++) {
+      if (mins[i] >= maxs[i]) {
+        throw new GAException(
+          "When constructing a RealVectorGenome, each max must be > min");
+      }
+    }
+    min = mins.clone();
+    max = maxs.clone();
+    values = new double[mins.length];
+  }
+
+  /**
+   * Returns the chromosome of this genome.  Changes to the returned array
+   * change the genome.
+   */
+  public double[] getValues() {
+    return values;
+  }
+
+  /**
+   * This allows the values of this Genome to be externally set.
+   * @param v An array of values which becomes this Genome's chromosome.
+   * @throws GAException
+   */
+  public void setValues(double[] v) throws GAException {
+    if (v.length != values.length) {
+      throw new GAException(
+        "The value array must be the same length as the chromosome.");
+    }
+    values = v;
+  }
+
+  /**
+   * Returns the number of values on the chromosome
+   */
+  public int getLength() {
+    return values.length;
+  }
+
+  /**
+   * Set the number of crossover points for the genome.  Default = 2.
+   * @param n The number of crossover points must be a positive integer.
+   * @throws GAException
+   */
+  public void setCrossoverPoints(int n) throws GAException {
+    if (n <= 0) {
+      throw new GAException(
+        "The number of crossover points must be a positive integer.");
+    }
+    crossoverPoints = n;
+  }
+
+  /**
+   * Returns the number of crossover points for the genome.
+   */
+  public int getCrossoverPoints() {
+    return crossoverPoints;
+  }
+
+  /**
+   * Randomly initializes each value on the chromosome uniformly between its
+   * min and max.
+   */
+  public void initialize() {
+    int i;
+
+    this.setIsEvaluated(false);
+    for (i = 0; i < values.length; i++) {
+      values[i] = uniform.nextDoubleFromTo(min[i], max[i]);
+    }
+  }
+
+  /**
+   * Returns an independent deep copy of this Genome.
+   */
+  public Genome copy() throws CloneNotSupportedException {
+    RealVectorGenome copy;
+
+    copy = (RealVectorGenome)(super.clone());
+    copy.values = values.clone();
+    return copy;
+  }
+
+  /**
+   * Performs mutation on the genome by randomly testing each value for
+   * mutation using the mutationRate, or by skip sampling if it is selected.
+   * If a test for mutation is successful, replaces the value with a new value
+   * drawn uniformly between its min and max, and marks the genome as not
+   * evaluated.
+   */
+  public void mutate() {
+    int i, n;
+
+    n = values.length;
+    for (i = this.nextMutationPosition(0, n); i < n;
+         i = this.nextMutationPosition(i + 1, n)) {
+      values[i] = uniform.nextDoubleFromTo(min[i], max[i]);
+      this.setIsEvaluated(false);
+    }
+  }
+
+  /**
+   * Performs n point crossover using this genome and the dad Genome passed.
+   * Returns an array of children (numChildren) create by crossover.  Each
+   * child copies alternating segments of the parents' chromosomes between
+   * randomly generated crossover points.
+   */
+  public Genome[] crossWith(Genome dad) {
+    double[] dadValues;         // values for the dad genome
+    double[] currentValues;     // the values being copied (mom or dad)
+    int[] crossPoints;          // the sorted crossover points
+    RealVectorGenome child = null;
+    Genome[] returnValue;       // The array of children to return
+    int position;               // the first position not yet copied
+    int i, j;
+
+    dadValues = ((RealVectorGenome)dad).values;
+    crossPoints = new int[crossoverPoints];
+    returnValue = new Genome[numChildren];
+
+    for (i = 0; i < numChildren; i++) {
+      // create the child
+      try {
+        child = (RealVectorGenome)this.clone();
+      }
+      catch (CloneNotSupportedException e) {
+        System.out.print("Clone not supported exception: " + e.getMessage());
+        System.exit(1);
+      }
+      child.setIsEvaluated(false);
+      child.values = new double[values.length];
+
+      // generate the crossover points
+      for (j = 0; j < crossoverPoints; j++) {
+        crossPoints[j] = uniform.nextIntFromTo(0, values.length - 1);
+      }
+      Arrays.sort(crossPoints);
+
+      // copy alternating segments, starting with the mom's values
+      currentValues = values;
+      position = 0;
+      for (j = 0; j < crossoverPoints; j++) {
+        if (crossPoints[j] > position) {
+          System.arraycopy(currentValues, position, child.values, position,
+            crossPoints[j] - position);
+          position = crossPoints[j];
+        }
+        currentValues = (currentValues == values) ? dadValues : values;
+      }
+      System.arraycopy(currentValues, position, child.values, position,
+        values.length - position);
+      returnValue[i] = child;
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns the number of bytes encode() writes for this genome
+   */
+  public int getEncodedSize() {
+    return 4 + 8 * values.length;
+  }
+
+  /**
+   * Writes the number of values followed by the values
+   */
+  public void encode(ByteBuffer out) {
+    int i;
+
+    out.putInt(values.length);
+    for (i = 0; i < values.length; i++) {
+      out.putDouble(values[i]);
+    }
+  }
+
+  public void decode(ByteBuffer in) throws GAException {
+    int i, n;
+
+    n = in.getInt();
+    if (n != values.length) {
+      throw new GAException("Expected " + values.length
+          + " values but read " + n);
+    }
+    for (i = 0; i < n; i++) {
+      values[i] = in.getDouble();
+    }
+  }
+
+  /**
+   * Returns true if o is a genome of the same class with an equal chromosome.
+   * Fitness values are not compared.
+   */
+  public boolean equals(Object o) {
+    if (o == null || o.getClass() != this.getClass()) {
+      return false;
+    }
+    return Arrays.equals(values, ((RealVectorGenome)o).values);
+  }
+
+  /**
+   * Returns a hash code based on the chromosome of this genome
+   */
+  public int hashCode() {
+    return Arrays.hashCode(values);
+  }
+
+  /**
+   * Returns a string description of this object's parameters
+   */
+  public String describeParameters() {
+    String description;
+    DecimalFormat format;
+    int i;
+
+    description = super.describeParameters();
+    description += "crossoverPoints: " + crossoverPoints + "\n";
+
+    format = new DecimalFormat("#######.00");
+    for (i = 0; i < values.length; i++) {
+      description += format.format(values[i]) + " ";
+    }
+    description += "\n";
+
+    return description;
+  }
+}
@@ -7,10 +7,7 @@ package jGeneticAlgorithm;
  * @version 1.0
  */
 
-import cern.jet.random.EmpiricalWalker;
-import cern.jet.random.Empirical;
 import cern.jet.random.engine.RandomEngine;
-import java.util.*;
 
 /**
  * The RoulletteWheelSelector is the default Selector in the jGeneticAlgorithm
@@ -21,9 +18,27 @@ import java.util.*;
 public class RoulletteWheelSelector extends Selector {
 
   /**
-   * A random discrete distribution from cern.jet.random.EmpiricalWalker
+   * The probability of keeping each slot of the alias table rather than
+   * taking its alias
    */
-  EmpiricalWalker dist = null;
+  double[] probability = new double[0];
+
+  /**
+   * The alias of each slot of the alias table
+   */
+  int[] alias = new int[0];
+
+  /**
+   * Work lists of the slots below and above the average weight, used while
+   * building the alias table
+   */
+  int[] small = new int[0];
+  int[] large = new int[0];
+
+  /**
+   * The number of slots in the alias table, or 0 if not yet initialized
+   */
+  int size = 0;
 
   public RoulletteWheelSelector(RandomEngine e) {
     super(e);
@@ -36,50 +51,95 @@ public class RoulletteWheelSelector extends Selector {
    */
   public void initializeWith(Population p) {
     double[] pdf;        // the pdf for genome selection
-    Enumeration e;       // an enumeration of genomes in the population
-    Genome g;            // an individual genome in the population.
-    double minFitness;   // the minimum scaled fitness in the population
-    boolean b = true;
-    int i = 0;
-
-    // determine minimum fitness for the population at set temp fitness
-    //   equal to scaled fitness
-    e = p.getGenomes().elements();
-    minFitness = ((Genome)p.getGenomes().firstElement()).scaledFitness;
-    while (e.hasMoreElements()) {
-      g = (Genome)e.nextElement();
-      g.tempFitness = g.scaledFitness;
-      if (g.scaledFitness < minFitness) {
-        minFitness = g.scaledFitness;
-      }
+
+    pdf = selectionWeights(p);
+
+    // now build the alias table to use for the roullette wheel
+    buildAliasTable(pdf, pdf.length);
+  }
+
+  /**
+   * Rebuilds the alias table for the given weights using Vose's method.  The
+   * arrays of the table are reused as long as the population does not grow,
+   * so no objects are created from one generation to the next.  If the
+   * weights do not sum to a positive number, every slot is equally likely.
+   * @param weights The selection weight of each genome
+   * @param n The number of weights
+   */
+  void buildAliasTable(double[] weights, int n) {
+    double sum;          // the sum of the weights
+    int numSmall, numLarge;
+    int i, l, g;
+
+    if (probability.length < n) {
+      probability = new double[n];
+      alias = new int[n];
+      small = new int[n];
+      large = new int[n];
     }
+    size = n;
 
-    // if minFitness < 0, perform transformation
-    if (minFitness < 0.0) {
-      e = p.getGenomes().elements();
-      while (e.hasMoreElements()) {
-        g = (Genome)e.nextElement();
-        g.tempFitness = g.tempFitness * -1.1;
+    sum = 0;
+    for (i = 0; i < n; i++) {
+      sum += weights[i];
+    }
+
+    // scale the weights so that their average is 1 and sort them into the
+    //    work lists
+    numSmall = 0;
+    numLarge = 0;
+    for (i = 0; i < n; i++) {
+      if (sum > 0 && sum < Double.POSITIVE_INFINITY) {
+        probability[i] = weights[i] * n / sum;
+      } else {
+        probability[i] = 1.0;
+      }
+      alias[i] = i;
+      if (probability[i] < 1.0) {
+        small[numSmall++] = i;
+      } else {
+        large[numLarge++] = i;
       }
     }
 
-    // if minimizing set temp fitness equal to its inverse.
-    g = (Genome)p.getGenomes().firstElement();
-    if (g.minimize) {
-      e = p.getGenomes().elements();
-      while (e.hasMoreElements()) {
-        g = (Genome)e.nextElement();
-        if (g.tempFitness != 0) {
-          g.tempFitness = 1/g.tempFitness;
-        }
+    // pair each small slot with a large one that fills the rest of it
+    while (numSmall > 0 && numLarge > 0) {
+      l = small[--numSmall];
+      g = large[--numLarge];
+      alias[l] = g;
+      probability[g] = probability[g] + probability[l] - 1.0;
+      if (probability[g] < 1.0) {
+        small[numSmall++] = g;
+      } else {
+        large[numLarge++] = g;
       }
     }
 
-    // now create the EmpiricalWalker distribution to use for the roullette
-    //    wheel
-    dist = new EmpiricalWalker(p.getTempFitnessValues().elements(),
-      Empirical.NO_INTERPOLATION, randomEngine);
+    // whatever is left is full up to rounding error
+    while (numLarge > 0) {
+      probability[large[--numLarge]] = 1.0;
+    }
+    while (numSmall > 0) {
+      probability[small[--numSmall]] = 1.0;
+    }
+  }
+
+  /**
+   * Returns the index of a slot drawn from the alias table
+   */
+  int nextIndex() {
+    double x;
+    int i;
 
+    x = randomEngine.raw() * size;
+    i = (int)x;
+    if (i >= size) {
+      i = size - 1;
+    }
+    if (x - i < probability[i]) {
+      return i;
+    }
+    return alias[i];
   }
 
   /**
@@ -91,10 +151,39 @@ public class RoulletteWheelSelector extends Selector {
    * scaled fitness for the population.
    */
   public Genome selectFrom(Population p) throws GAException {
-    if (dist == null) {
+    if (size == 0) {
       throw new GAException(
         "You must initialize the RoulletteWheelSelector prior to use.");
     }
-    return (Genome)p.getGenomes().elementAt(dist.nextInt());
+    return (Genome)p.getGenomes().elementAt(nextIndex());
+  }
+
+  /**
+   * Returns true, since this selector implements selectInto directly
+   */
+  protected boolean selectsInBatches() {
+    return true;
+  }
+
+  /**
+   * Selects count genomes from the given population and writes their
+   * indices into outIndices.  Each selection is a constant time draw from
+   * the alias table built by initializeWith.
+   */
+  public void selectInto(Population p, int count, int[] outIndices)
+      throws GAException {
+    int i;
+
+    if (size == 0) {
+      throw new GAException(
+        "You must initialize the RoulletteWheelSelector prior to use.");
+    }
+    if (outIndices.length < count) {
+      throw new GAException(
+          "The index array is too small to hold " + count + " selections");
+    }
+    for (i = 0; i < count; i++) {
+      outIndices[i] = nextIndex();
+    }
   }
 }
\ No newline at end of file
@@ -15,7 +15,9 @@ public interface Scaler {
    * for each genome in the population.  This allows the modeler to account
    * for cases where the differences in fitness are either too small or too large
    * to yield appropriate probabilities of selection using the
-   * RoulletteWheelSelector.
+   * RoulletteWheelSelector.  Population.scale() refreshes the population's
+   * fitness columns before calling this method, so implementations may read
+   * the raw fitness column directly.
    */
   public void scale(Population pop) throws GAException;
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ package jGeneticAlgorithm;
  */
 
 import cern.jet.random.engine.RandomEngine;
+import java.util.IdentityHashMap;
+import java.util.Vector;
 
 /**
  * All implementations of the Selector class select Genomes from a population
@@ -29,6 +31,14 @@ public abstract class Selector {
     randomEngine = e;
   }
 
+  /**
+   * Sets the random number generator used by this selector
+   * @param e A random number generator from cern.jet.random.engine library
+   */
+  public void setRandomEngine(RandomEngine e) {
+    randomEngine = e;
+  }
+
   /**
    * Initializes the selector to perform selections on the given population
    * with its current fitness values.  In this abstract class, this method
@@ -40,8 +50,138 @@ public abstract class Selector {
   public void initializeWith(Population p) {
   }
 
+  /**
+   * Computes the fitness proportionate selection weight of each genome in
+   * the given population from its scaled fitness, stores the weights as the
+   * temp fitness of the genomes, and returns the temp fitness column of the
+   * population holding them.  If the minimum scaled fitness is less than 0,
+   * (-1.1 * min) is added to each weight.  If minimizing, each nonzero weight
+   * is replaced by its inverse.
+   */
+  protected double[] selectionWeights(Population p) {
+    double[] scaled;     // the scaled fitness of each genome
+    double[] pdf;        // the pdf for genome selection
+    double minFitness;   // the minimum scaled fitness in the population
+    int i, n;
+
+    p.refreshFitnessColumns();
+    scaled = p.getScaledFitnessColumn();
+    pdf = p.getTempFitnessColumn();
+    n = scaled.length;
+    if (n == 0) {
+      return pdf;
+    }
+
+    // determine minimum fitness for the population at set temp fitness
+    //   equal to scaled fitness
+    minFitness = scaled[0];
+    for (i = 0; i < n; i++) {
+      pdf[i] = scaled[i];
+      if (scaled[i] < minFitness) {
+        minFitness = scaled[i];
+      }
+    }
+
+    // if minFitness < 0, perform transformation
+    if (minFitness < 0.0) {
+      for (i = 0; i < n; i++) {
+        pdf[i] = pdf[i] - 1.1 * minFitness;
+      }
+    }
+
+    // if minimizing set temp fitness equal to its inverse.
+    if (((Genome)p.getGenomes().firstElement()).minimize) {
+      for (i = 0; i < n; i++) {
+        if (pdf[i] != 0) {
+          pdf[i] = 1/pdf[i];
+        }
+      }
+    }
+    p.writeTempFitness();
+    return pdf;
+  }
+
+  /**
+   * Returns a random integer from 0 to n - 1 drawn with the random number
+   * generator of this selector
+   * @param n The number of possible values.  Must be positive.
+   */
+  protected int randomIndex(int n) {
+    int i;
+
+    i = (int)(randomEngine.raw() * n);
+    if (i >= n) {
+      i = n - 1;
+    }
+    return i;
+  }
+
   /**
    * Returns a selected genome from the given population
    */
   public abstract Genome selectFrom(Population p) throws GAException;
+
+  /**
+   * Returns the vector of genomes from which this selector draws.  The
+   * indices written by selectInto refer to positions in this vector.  In this
+   * abstract class, the pool is the genome list of the population.
+   */
+  public Vector getSelectionPool(Population p) {
+    return p.getGenomes();
+  }
+
+  /**
+   * Returns true if this selector overrides selectInto with a direct
+   * implementation, so that Population.evolveNextGeneration selects parents
+   * in batches.  Otherwise parents are selected one at a time with
+   * selectFrom.  In this abstract class, it returns false.
+   */
+  protected boolean selectsInBatches() {
+    return false;
+  }
+
+  /**
+   * Selects count genomes from the given population and writes their
+   * indices in the selection pool into outIndices.  Selecting a whole batch
+   * at once lets a selector that has been initialized with the population
+   * draw each genome in constant time without creating any objects.  In this
+   * abstract class, each genome is selected with selectFrom and then located
+   * in the selection pool, by identity or else by equals, so selectors
+   * should override this method with a direct implementation and override
+   * selectsInBatches to return true.
+   * @param p The population to select from
+   * @param count The number of genomes to select
+   * @param outIndices The array that receives the selected indices.  It must
+   * hold at least count elements.
+   */
+  public void selectInto(Population p, int count, int[] outIndices)
+      throws GAException {
+    Vector pool;     // the vector of genomes selected from
+    IdentityHashMap<Object, Integer> positions;  // the index of each genome
+    Integer position;
+    Genome g;
+    int i;
+
+    if (outIndices.length < count) {
+      throw new GAException(
+          "The index array is too small to hold " + count + " selections");
+    }
+    pool = getSelectionPool(p);
+    positions = new IdentityHashMap<Object, Integer>(pool.size());
+    for (i = 0; i < pool.size(); i++) {
+      positions.put(pool.elementAt(i), i);
+    }
+    for (i = 0; i < count; i++) {
+      g = selectFrom(p);
+      position = positions.get(g);
+      if (position == null) {  // a copy, located by value
+        position = pool.indexOf(g);
+        if (position < 0) {
+          throw new GAException("The selected genome is not in the "
+              + "selection pool; use selectFrom for this selector");
+        }
+      }
+      outIndices[i] = position;
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * The SigmaTruncationScaler scales a Population so that the selection weight
+ * of each genome is its fitness less a baseline of c standard deviations
+ * below the mean fitness, truncated at 0.  Genomes more than c standard
+ * deviations less fit than the mean are never selected.  Because the
+ * baseline follows the spread of the population, selection pressure stays
+ * roughly constant as the population converges.  If every genome has the
+ * same fitness, all are equally likely.
+ */
+public class SigmaTruncationScaler extends StreamingScaler {
+
+  /**
+   * The number of standard deviations below the mean of the baseline
+   */
+  double c;
+
+  /**
+   * Constructor
+   * @param c The number of standard deviations below the mean of the
+   * baseline.  Must be positive.  Values from 1 to 3 are typical.
+   */
+  public SigmaTruncationScaler(double c) throws GAException {
+    super();
+    this.setC(c);
+  }
+
+  /**
+   * Sets the number of standard deviations below the mean of the baseline
+   * @param c The number of standard deviations.  Must be positive.
+   */
+  public void setC(double c) throws GAException {
+    if (!(c > 0)) {
+      throw new GAException("c must be positive");
+    }
+    this.c = c;
+  }
+
+  /**
+   * Returns the number of standard deviations below the mean of the
+   * baseline
+   */
+  public double getC() {
+    return c;
+  }
+
+  /**
+   * Returns the merit of the genome above the baseline, or 0 if below it
+   */
+  protected double weight(double merit, FitnessSummary s) {
+    double sigma;        // the standard deviation of merit
+    double w;
+
+    sigma = s.getStandardDeviation();
+    if (sigma == 0) {
+      return 1.0;
+    }
+    w = merit - (s.getMean() - c * sigma);
+    if (w < 0) {
+      w = 0;
+    }
+    return w;
+  }
+}
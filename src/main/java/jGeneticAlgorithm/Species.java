@@ -9,6 +9,10 @@ package jGeneticAlgorithm;
 
 import java.util.Vector;
 import java.util.Enumeration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import cern.jet.random.engine.RandomEngine;
 import cern.jet.random.Uniform;
 import cern.jet.random.Binomial;
@@ -29,6 +33,11 @@ public class Species {
    */
   Vector populations;
 
+  /**
+   * The random number generator used to perform migration
+   */
+  RandomEngine randomGenerator;
+
   /**
    * A uniform distribution object from the cern.jet.random library
    */
@@ -45,6 +54,22 @@ public class Species {
    */
   double migrationRate;
 
+  /**
+   * The executor used to evolve the populations concurrently, or null to
+   * evolve them one after another
+   */
+  ExecutorService executor = null;
+
+  /**
+   * The number of genomes moved by the last migration
+   */
+  int lastMigrationCount = 0;
+
+  /**
+   * The listeners to the phases of this species
+   */
+  PhaseListeners listeners = new PhaseListeners();
+
   /**
    * Constructor
    * @param vectorOfPopulations A vector of Population objects for this species
@@ -58,21 +83,68 @@ public class Species {
     }
     migrationRate = aMigrationRate;
     populations = vectorOfPopulations;
+    randomGenerator = e;
     uniform = new Uniform(e);
     binomial = new Binomial(2, .1, e);
   }
 
+  /**
+   * Sets the random number generator used by this species to perform
+   * migration
+   * @param e A RandomEngine random number generator from the
+   * cern.jet.random.engine library
+   */
+  public void setRandomEngine(RandomEngine e) {
+    randomGenerator = e;
+    uniform = new Uniform(e);
+    binomial = new Binomial(2, .1, e);
+  }
+
+  /**
+   * Returns the random number generator used by this species to perform
+   * migration
+   */
+  public RandomEngine getRandomEngine() {
+    return randomGenerator;
+  }
+
   /**
    * Moves members of one population to other populations according to the
-   * migration rate.
+   * migration rate.  A migrant that used a different random number generator
+   * than its new population is given the generator of its new population,
+   * so that populations with their own generators may evolve concurrently.
    */
   public void migrate() {
+    PhaseEvent e = null;
+
+    if (!listeners.isEmpty()) {
+      e = listeners.begin(this, Phase.MIGRATION, this.getGeneration(), 0);
+    }
+    this.moveMigrants();
+    if (e != null) {
+      listeners.end(e, lastMigrationCount);
+    }
+  }
+
+  /**
+   * Moves the migrants between populations, as described for migrate()
+   */
+  void moveMigrants() {
+    MigrationEvent[] events = null;  // flight recorder events of the populations
     int i,j;
 
     // no migration done if there is only one population or migration rate is 0
+    lastMigrationCount = 0;
     if (populations.size() <= 1 || migrationRate <= 0.0) {
       return;
     }
+    if (new MigrationEvent().isEnabled()) {
+      events = new MigrationEvent[populations.size()];
+      for (i = 0; i < events.length; i++) {
+        events[i] = new MigrationEvent();
+        events[i].begin();
+      }
+    }
 
     Vector migrants = new Vector();
     for (i = 0; i < populations.size(); i++) {
@@ -83,11 +155,16 @@ public class Species {
       Population sourcePop = (Population)populations.get(i);
       Vector genomes = sourcePop.getGenomes();
       int numMigrants = binomial.nextInt(genomes.size(), migrationRate);
+      lastMigrationCount += numMigrants;
+      if (events != null) {
+        events[i].emigrants = numMigrants;
+      }
       for (j = 0; j < numMigrants; j++) {
         Genome migrant = (Genome)genomes.remove(0);
-        int destination = i;
-        while (destination != i) {
-          destination = uniform.nextIntFromTo(0, populations.size());
+        // choose any population other than the source
+        int destination = uniform.nextIntFromTo(0, populations.size() - 2);
+        if (destination >= i) {
+          destination++;
         }
         Vector destinationPopulation = (Vector)migrants.get(destination);
         destinationPopulation.add(migrant);
@@ -101,9 +178,27 @@ public class Species {
       Enumeration enu = newMembers.elements();
       while (enu.hasMoreElements()) {
         Genome g = (Genome)enu.nextElement();
+        if (g.getRandomEngine() != newPop.getRandomEngine()) {
+          g.setRandomEngine(newPop.getRandomEngine());
+        }
         newGenomes.add(g);
       }
       newPop.sort();
+      if (events != null) {
+        events[i].immigrants = newMembers.size();
+      }
+    }
+
+    if (events != null) {
+      for (i = 0; i < events.length; i++) {
+        events[i].end();
+        if (events[i].shouldCommit()) {
+          Population pop = (Population)populations.get(i);
+          events[i].populationId = pop.getId();
+          events[i].generation = pop.getGeneration();
+          events[i].commit();
+        }
+      }
     }
   }
 
@@ -134,14 +229,168 @@ public class Species {
     return migrationRate;
   }
 
+  /**
+   * Sets the executor used to evolve the populations of this species
+   * concurrently, each population on its own worker.  Populations evolved
+   * concurrently must not share a RandomEngine, Selector, or Scaler with
+   * state, and their genomes must not share a RandomEngine with genomes of
+   * another population.  Migrants are
+   * given the RandomEngine of their new population.
+   * @param e The executor, or null to evolve the populations one after another
+   */
+  public void setExecutor(ExecutorService e) {
+    executor = e;
+  }
+
+  /**
+   * Returns the executor used to evolve the populations concurrently, or null
+   */
+  public ExecutorService getExecutor() {
+    return executor;
+  }
+
   /**
    * This method tells all populations in the species to evolve the next generations
    */
   public void evolveAllPopulations() throws GAException {
-    Enumeration enu = populations.elements();
+    PhaseEvent e = null;
+
+    if (!listeners.isEmpty()) {
+      e = listeners.begin(this, Phase.EVOLUTION, this.getGeneration(),
+          this.getGenomeCount());
+    }
+    if (executor != null) {
+      evolveConcurrently(populations, executor);
+    }
+    else {
+      Enumeration enu = populations.elements();
+      while (enu.hasMoreElements()) {
+        Population pop = (Population)enu.nextElement();
+        pop.evolveNextGeneration();
+      }
+    }
+    if (e != null) {
+      listeners.end(e, this.getGenomeCount());
+    }
+  }
+
+  /**
+   * Returns the unevaluated genomes of every population of each species, in
+   * order of species and then population
+   * @param species A vector of species
+   */
+  public static Vector<Genome> getUnevaluatedGenomes(Vector species) {
+    Vector<Genome> genomes;  // the unevaluated genomes of all species
+    Enumeration enu;
+    Enumeration pops;
+
+    genomes = new Vector<Genome>();
+    enu = species.elements();
     while (enu.hasMoreElements()) {
-      Population pop = (Population)enu.nextElement();
-      pop.evolveNextGeneration();
+      Species spec = (Species)enu.nextElement();
+      pops = spec.getPopulations().elements();
+      while (pops.hasMoreElements()) {
+        Population pop = (Population)pops.nextElement();
+        genomes.addAll(pop.getUnevaluatedGenomes());
+      }
+    }
+    return genomes;
+  }
+
+  /**
+   * Returns the number of genomes moved by the last migration
+   */
+  public int getLastMigrationCount() {
+    return lastMigrationCount;
+  }
+
+  /**
+   * Returns the total number of genomes in the populations of this species
+   */
+  public int getGenomeCount() {
+    int count;
+    int i;
+
+    count = 0;
+    for (i = 0; i < populations.size(); i++) {
+      count += ((Population)populations.elementAt(i)).getGenomes().size();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the generation of the first population of this species, or 0
+   * if it has none
+   */
+  int getGeneration() {
+    if (populations.size() == 0) {
+      return 0;
+    }
+    return ((Population)populations.firstElement()).getGeneration();
+  }
+
+  /**
+   * Adds a listener to be told of the evolution and migration phases of
+   * this species.  To observe the phases within each population, add the
+   * listener to the populations as well.
+   * @param l The listener
+   */
+  public void addListener(GAListener l) {
+    listeners.add(l);
+  }
+
+  /**
+   * Removes a listener from this species
+   * @param l The listener
+   */
+  public void removeListener(GAListener l) {
+    listeners.remove(l);
+  }
+
+  /**
+   * Evolves the next generation of each population in the vector on its own
+   * worker of the executor, and returns when all of them have finished.
+   * @param pops A vector of populations to evolve
+   * @param e The executor on which to evolve them
+   * @throws GAException
+   */
+  static void evolveConcurrently(Vector pops, ExecutorService e) throws GAException {
+    Vector<Callable<Object>> tasks;
+    Enumeration enu;
+
+    tasks = new Vector<Callable<Object>>(pops.size());
+    enu = pops.elements();
+    while (enu.hasMoreElements()) {
+      final Population pop = (Population)enu.nextElement();
+      tasks.add(new Callable<Object>() {
+        public Object call() throws GAException {
+          pop.evolveNextGeneration();
+          return null;
+        }
+      });
+    }
+
+    try {
+      for (Future<Object> result : e.invokeAll(tasks)) {
+        result.get();
+      }
+    }
+    catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new GAException("Interrupted while evolving populations", exception);
+    }
+    catch (ExecutionException exception) {
+      Throwable cause = exception.getCause();
+      if (cause instanceof GAException) {
+        throw (GAException)cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException)cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error)cause;
+      }
+      throw new GAException("Population evolution failed", cause);
     }
   }
 }
\ No newline at end of file
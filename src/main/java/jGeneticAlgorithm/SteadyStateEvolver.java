@@ -0,0 +1,505 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import cern.jet.random.Uniform;
+
+/**
+ * The SteadyStateEvolver evolves a Population one child at a time instead
+ * of one generation at a time.  It keeps a number of evaluations in flight
+ * on an executor.  Each time one finishes, the evaluated child is inserted
+ * into the population in place of a victim genome, and a new child is bred
+ * and submitted at once, so no worker waits for the slowest evaluation of a
+ * generation.  This suits fitness functions whose running time varies
+ * widely from one genome to the next.<p>
+ *
+ * The victim is either the least fit genome of the population or the least
+ * fit of a few genomes drawn at random.  A child less fit than its victim
+ * is discarded unless setReplaceIfLessFit(true) is called.  Parents are
+ * chosen by the evolver's selector, a binary tournament by default.  The
+ * population is scaled with its scaling object and the selector is
+ * re-initialized with it after every insertion, so selectors that use the
+ * scaled fitness, such as the RoulletteWheelSelector, see current values.<p>
+ *
+ * All breeding, selection, and insertion happen on the thread calling run,
+ * using the random number generator of the population; only the fitness
+ * function runs on the executor.  Because children are inserted in the
+ * order their evaluations finish, a run is not reproducible from its seed
+ * unless at most one evaluation is in flight.
+ */
+public class SteadyStateEvolver {
+
+  /**
+   * The ways of choosing the genome a new child replaces
+   */
+  public enum Replacement {
+    /**
+     * Replace the least fit genome of the population
+     */
+    WORST,
+
+    /**
+     * Replace the least fit of replacementTournamentSize genomes drawn at
+     * random
+     */
+    TOURNAMENT
+  }
+
+  /**
+   * The population evolved
+   */
+  Population population;
+
+  /**
+   * The fitness function applied to each child
+   */
+  FitnessFunction fitnessFunction;
+
+  /**
+   * The executor on which the fitness function runs
+   */
+  ExecutorService executor;
+
+  /**
+   * The largest number of evaluations in flight at once
+   */
+  int maxInFlight;
+
+  /**
+   * The selector used to choose parents
+   */
+  Selector selector;
+
+  /**
+   * The way of choosing the genome a new child replaces
+   */
+  Replacement replacement = Replacement.WORST;
+
+  /**
+   * The number of genomes drawn when choosing a victim by tournament
+   */
+  int replacementTournamentSize = 2;
+
+  /**
+   * Set to true to insert a child even if it is less fit than its victim
+   */
+  boolean replaceIfLessFit = false;
+
+  /**
+   * The cache consulted before a child is evaluated, or null
+   */
+  FitnessCache fitnessCache = null;
+
+  /**
+   * Children bred but not yet submitted for evaluation
+   */
+  Vector<Genome> unsubmitted = new Vector<Genome>();
+
+  /**
+   * The number of children inserted into and discarded from the population
+   * by the last run
+   */
+  int insertedCount = 0;
+  int discardedCount = 0;
+
+  /**
+   * A uniform distribution over the random number generator of the
+   * population
+   */
+  Uniform uniform;
+
+  /**
+   * Constructor.  The evaluations run on the common ForkJoinPool.
+   * @param pop The population to evolve.  Its genomes need not be evaluated.
+   * @param f The fitness function applied to each genome
+   * @param maxInFlight The largest number of evaluations in flight at once.
+   * Must be a positive integer.
+   */
+  public SteadyStateEvolver(Population pop, FitnessFunction f,
+      int maxInFlight) throws GAException {
+    this(pop, f, ForkJoinPool.commonPool(), maxInFlight);
+  }
+
+  /**
+   * Constructor
+   * @param pop The population to evolve.  Its genomes need not be evaluated.
+   * @param f The fitness function applied to each genome
+   * @param e The executor on which the fitness function runs
+   * @param maxInFlight The largest number of evaluations in flight at once.
+   * Must be a positive integer.
+   */
+  public SteadyStateEvolver(Population pop, FitnessFunction f,
+      ExecutorService e, int maxInFlight) throws GAException {
+    super();
+    if (maxInFlight <= 0) {
+      throw new GAException(
+          "The number of evaluations in flight must be a positive integer");
+    }
+    population = pop;
+    fitnessFunction = f;
+    executor = e;
+    this.maxInFlight = maxInFlight;
+    selector = new TournamentSelector(pop.getRandomEngine(), 2);
+    uniform = new Uniform(pop.getRandomEngine());
+  }
+
+  /**
+   * Sets the selector used to choose parents.  It is initialized with the
+   * population after every insertion, following scaling, so a selector
+   * whose initialization takes time proportional to the population, such as
+   * the RoulletteWheelSelector, adds that time to every child, as does the
+   * scaling object of the population.
+   * @param s The selector
+   */
+  public void setSelector(Selector s) {
+    selector = s;
+  }
+
+  /**
+   * Returns the selector used to choose parents
+   */
+  public Selector getSelector() {
+    return selector;
+  }
+
+  /**
+   * Sets the way of choosing the genome a new child replaces
+   */
+  public void setReplacement(Replacement r) {
+    replacement = r;
+  }
+
+  /**
+   * Returns the way of choosing the genome a new child replaces
+   */
+  public Replacement getReplacement() {
+    return replacement;
+  }
+
+  /**
+   * Sets the number of genomes drawn when choosing a victim by tournament
+   * @param n The number of genomes.  Must be a positive integer.
+   */
+  public void setReplacementTournamentSize(int n) throws GAException {
+    if (n <= 0) {
+      throw new GAException(
+          "The number of genomes in the tournament must be a positive integer");
+    }
+    replacementTournamentSize = n;
+  }
+
+  /**
+   * Returns the number of genomes drawn when choosing a victim by tournament
+   */
+  public int getReplacementTournamentSize() {
+    return replacementTournamentSize;
+  }
+
+  public boolean isReplaceIfLessFit() {
+    return replaceIfLessFit;
+  }
+
+  public void setReplaceIfLessFit(boolean replaceIfLessFit) {
+    this.replaceIfLessFit = replaceIfLessFit;
+  }
+
+  /**
+   * Sets the cache consulted before a child is evaluated
+   * @param cache The fitness cache, or null to evaluate every child
+   */
+  public void setFitnessCache(FitnessCache cache) {
+    fitnessCache = cache;
+  }
+
+  /**
+   * Returns the cache consulted before a child is evaluated
+   */
+  public FitnessCache getFitnessCache() {
+    return fitnessCache;
+  }
+
+  /**
+   * Returns the number of children inserted into the population by the last
+   * run
+   */
+  public int getInsertedCount() {
+    return insertedCount;
+  }
+
+  /**
+   * Returns the number of children discarded by the last run because they
+   * were less fit than their victims
+   */
+  public int getDiscardedCount() {
+    return discardedCount;
+  }
+
+  /**
+   * Evaluates any unevaluated genomes of the population, then breeds and
+   * evaluates the given number of children, inserting each into the
+   * population as soon as its evaluation finishes.  Returns when every child
+   * has been evaluated and inserted or discarded.  The population is sorted
+   * before returning, which also updates its archive.
+   * @param numChildren The number of children to breed
+   * @throws GAException
+   */
+  public void run(int numChildren) throws GAException {
+    ExecutorCompletionService<Evaluation> completion;
+    Evaluation done;     // an evaluation that has finished
+    Vector genomes;
+    int inFlight;        // the number of evaluations submitted but not taken
+    int bred;            // the number of children bred so far
+    int i;
+
+    if (population.getGenomes().size() == 0) {
+      throw new GAException("There are no genomes to evolve");
+    }
+    completion = new ExecutorCompletionService<Evaluation>(executor);
+    insertedCount = 0;
+    discardedCount = 0;
+    unsubmitted.clear();
+
+    // evaluate the members of the population first, since parents must be
+    //    evaluated before they can be selected
+    genomes = population.getGenomes();
+    inFlight = 0;
+    for (i = 0; i < genomes.size(); i++) {
+      Genome g = (Genome)genomes.elementAt(i);
+      if (!g.getIsEvaluated()) {
+        completion.submit(new Evaluation(g));
+        inFlight++;
+      }
+    }
+    while (inFlight > 0) {
+      done = this.take(completion);
+      inFlight--;
+      done.genome.setRawFitness(done.fitness);
+      this.cache(done.genome);
+    }
+    population.scale();
+    selector.initializeWith(population);
+
+    // keep the executor busy with children until all have been bred
+    bred = 0;
+    while (bred < numChildren || inFlight > 0 || unsubmitted.size() > 0) {
+      // submit children until the executor is full
+      while (inFlight < maxInFlight
+          && (bred < numChildren || unsubmitted.size() > 0)) {
+        if (unsubmitted.size() == 0) {
+          this.breed(numChildren - bred);
+          bred += unsubmitted.size();
+        }
+        Genome child = unsubmitted.remove(unsubmitted.size() - 1);
+        if (!this.lookUp(child)) {
+          completion.submit(new Evaluation(child));
+          inFlight++;
+        }
+      }
+      if (inFlight == 0) {
+        continue;
+      }
+
+      // insert the next child to finish
+      done = this.take(completion);
+      inFlight--;
+      done.genome.setRawFitness(done.fitness);
+      this.cache(done.genome);
+      this.insert(done.genome);
+    }
+    population.sort();
+  }
+
+  /**
+   * Breeds up to max children from two parents and adds them to the
+   * unsubmitted children
+   */
+  void breed(int max) throws GAException {
+    Genome mom, dad;
+    Genome[] kids;
+    int i;
+
+    dad = selector.selectFrom(population);
+    mom = selector.selectFrom(population);
+    if (uniform.nextDoubleFromTo(0, 1) < population.getCrossoverRate()) {
+      kids = mom.crossWith(dad);
+    }
+    else {
+      kids = new Genome[2];
+      try {
+        kids[0] = mom.copy();
+        kids[1] = dad.copy();
+      }
+      catch (CloneNotSupportedException e) {
+        System.out.println(e.getMessage());
+        e.printStackTrace();
+        System.exit(1);
+      }
+    }
+    for (i = 0; i < kids.length && i < max; i++) {
+      kids[i].mutate();
+      unsubmitted.addElement(kids[i]);
+    }
+  }
+
+  /**
+   * Inserts a child into the population without evaluating it if its
+   * fitness is already known, either because it is an unchanged copy of a
+   * parent or from the fitness cache.  Returns true if it did.
+   */
+  boolean lookUp(Genome child) throws GAException {
+    Double cached;
+
+    // a parent copied without crossover or mutation keeps its fitness
+    if (child.getIsEvaluated()) {
+      this.insert(child);
+      return true;
+    }
+    if (fitnessCache == null) {
+      return false;
+    }
+    cached = fitnessCache.get(child);
+    if (cached == null) {
+      return false;
+    }
+    child.setRawFitness(cached.doubleValue());
+    this.insert(child);
+    return true;
+  }
+
+  /**
+   * Puts the fitness of an evaluated genome in the fitness cache
+   */
+  void cache(Genome g) {
+    if (fitnessCache != null) {
+      fitnessCache.put(g, g.getRawFitness());
+    }
+  }
+
+  /**
+   * Inserts an evaluated child into the population in place of a victim,
+   * or discards it if it is less fit than the victim
+   */
+  void insert(Genome child) throws GAException {
+    Genome victim;
+    int index;
+    int size;
+
+    index = this.chooseVictim();
+    victim = (Genome)population.getGenomes().elementAt(index);
+    if (!replaceIfLessFit && child.compareTo(victim) > 0) {
+      discardedCount++;
+      return;
+    }
+    population.replaceGenome(index, child);
+    population.scale();
+    selector.initializeWith(population);
+    insertedCount++;
+
+    // count a generation for each population's worth of insertions
+    size = population.getGenomes().size();
+    if (insertedCount % size == 0) {
+      population.generation++;
+    }
+  }
+
+  /**
+   * Returns the index of the genome a new child replaces
+   */
+  int chooseVictim() {
+    Vector genomes;
+    Genome g, worst;
+    int worstIndex, index;
+    int i, n;
+
+    genomes = population.getGenomes();
+    n = genomes.size();
+    worstIndex = -1;
+    worst = null;
+    if (replacement == Replacement.TOURNAMENT) {
+      for (i = 0; i < replacementTournamentSize; i++) {
+        index = uniform.nextIntFromTo(0, n - 1);
+        g = (Genome)genomes.elementAt(index);
+        if (worst == null || g.compareTo(worst) > 0) {
+          worst = g;
+          worstIndex = index;
+        }
+      }
+      return worstIndex;
+    }
+    for (i = 0; i < n; i++) {
+      g = (Genome)genomes.elementAt(i);
+      if (worst == null || g.compareTo(worst) > 0) {
+        worst = g;
+        worstIndex = i;
+      }
+    }
+    return worstIndex;
+  }
+
+  /**
+   * Waits for the next evaluation to finish and returns it
+   */
+  Evaluation take(ExecutorCompletionService<Evaluation> completion)
+      throws GAException {
+    try {
+      return completion.take().get();
+    }
+    catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new GAException("Interrupted while evaluating genomes",
+          exception);
+    }
+    catch (ExecutionException exception) {
+      throw new GAException("Genome evaluation failed",
+          exception.getCause());
+    }
+  }
+
+  /**
+   * The evaluation of one genome on the executor.  The fitness is kept in
+   * the evaluation and set on the genome by the thread calling run, so that
+   * the population is only changed by that thread.
+   */
+  class Evaluation implements Callable<Evaluation> {
+
+    /**
+     * The genome evaluated
+     */
+    Genome genome;
+
+    /**
+     * The fitness of the genome, once evaluated
+     */
+    double fitness;
+
+    Evaluation(Genome g) {
+      genome = g;
+    }
+
+    public Evaluation call() {
+      EvaluationEvent event;   // the flight recorder event
+
+      event = new EvaluationEvent();
+      event.begin();
+      fitness = fitnessFunction.evaluate(genome);
+      event.end();
+      if (event.shouldCommit()) {
+        event.genomeClass = genome.getClass();
+        event.fitness = fitness;
+        event.commit();
+      }
+      return this;
+    }
+  }
+}
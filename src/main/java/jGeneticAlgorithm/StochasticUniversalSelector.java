@@ -0,0 +1,143 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import cern.jet.random.engine.RandomEngine;
+
+/**
+ * This Selector selects Genomes for producing offspring by stochastic
+ * universal sampling.  The genomes are laid out on a wheel as for the
+ * RoulletteWheelSelector, with the probability of selection proportional to
+ * scaled fitness (or its inverse if minimizing), but a whole batch of
+ * selections is made with a single spin: count equally spaced pointers
+ * starting from one random offset.  Each genome is therefore selected within
+ * one of its expected number of times, and a batch is selected in a single
+ * O(n) pass over the population.  The batch is shuffled so that the order of
+ * the selections, and so the pairing of parents, is random.
+ */
+public class StochasticUniversalSelector extends Selector {
+
+  /**
+   * The selection weight of each genome, from the temp fitness column of the
+   * population the selector was initialized with
+   */
+  double[] weights = null;
+
+  /**
+   * Selections made for calls to selectFrom
+   */
+  int[] buffer = new int[0];
+
+  /**
+   * The number of selections in the buffer and the position of the next one
+   */
+  int bufferCount = 0;
+  int bufferPosition = 0;
+
+  public StochasticUniversalSelector(RandomEngine e) {
+    super(e);
+  }
+
+  /**
+   * Initializes the selector to perform selections on the given population
+   * with its current fitness values.  This method must be called at each
+   * generation before selection can begin.
+   */
+  public void initializeWith(Population p) {
+    weights = selectionWeights(p);
+    bufferCount = 0;
+    bufferPosition = 0;
+  }
+
+  /**
+   * Returns a selected genome from the given population.  Selections are
+   * made a population's worth at a time and handed out one per call.
+   */
+  public Genome selectFrom(Population p) throws GAException {
+    int n;
+
+    if (bufferPosition >= bufferCount) {
+      n = p.getGenomes().size();
+      if (buffer.length < n) {
+        buffer = new int[n];
+      }
+      selectInto(p, n, buffer);
+      bufferCount = n;
+      bufferPosition = 0;
+    }
+    return (Genome)p.getGenomes().elementAt(buffer[bufferPosition++]);
+  }
+
+  /**
+   * Returns true, since this selector implements selectInto directly
+   */
+  protected boolean selectsInBatches() {
+    return true;
+  }
+
+  /**
+   * Selects count genomes from the given population with one spin of the
+   * wheel and writes their indices into outIndices in random order.
+   */
+  public void selectInto(Population p, int count, int[] outIndices)
+      throws GAException {
+    double total;        // the sum of the weights
+    double step;         // the distance between pointers
+    double pointer;      // the position of the next pointer on the wheel
+    double cumulative;   // the end of the current genome's slice of the wheel
+    boolean equal;       // true if every genome is equally likely
+    int i, j, k, n, t;
+
+    if (weights == null) {
+      throw new GAException(
+        "You must initialize the StochasticUniversalSelector prior to use.");
+    }
+    if (outIndices.length < count) {
+      throw new GAException(
+          "The index array is too small to hold " + count + " selections");
+    }
+    n = weights.length;
+    if (count <= 0) {
+      return;
+    }
+    if (n == 0) {
+      throw new GAException("There are no genomes to select from");
+    }
+
+    total = 0;
+    for (i = 0; i < n; i++) {
+      total += weights[i];
+    }
+    equal = !(total > 0 && total < Double.POSITIVE_INFINITY);
+    if (equal) {
+      total = n;
+    }
+
+    // place count equally spaced pointers on the wheel
+    step = total / count;
+    pointer = randomEngine.raw() * step;
+    cumulative = equal ? 1.0 : weights[0];
+    i = 0;
+    for (k = 0; k < count; k++) {
+      while (pointer >= cumulative && i < n - 1) {
+        i++;
+        cumulative += equal ? 1.0 : weights[i];
+      }
+      outIndices[k] = i;
+      pointer += step;
+    }
+
+    // shuffle the selections so that the parents are paired at random
+    for (k = count - 1; k > 0; k--) {
+      j = randomIndex(k + 1);
+      t = outIndices[k];
+      outIndices[k] = outIndices[j];
+      outIndices[j] = t;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+/**
+ * A StreamingScaler scales a Population in two passes over its raw fitness
+ * column without sorting it.  The first pass gathers the minimum, maximum,
+ * mean, and variance of the fitness into a FitnessSummary.  The second pass
+ * writes a scaled fitness for each genome computed by the subclass from its
+ * raw fitness and the summary.<p>
+ *
+ * Subclasses work in terms of a merit value, where larger is better: the
+ * raw fitness if maximizing and the negative of the raw fitness if
+ * minimizing.  Each subclass maps merit to a non-negative weight.  The
+ * scaled fitness is that weight when maximizing and its inverse when
+ * minimizing, so that the RoulletteWheelSelector, which selects in
+ * proportion to scaled fitness when maximizing and to its inverse when
+ * minimizing, selects each genome in proportion to its weight either way.
+ */
+public abstract class StreamingScaler implements Scaler {
+
+  /**
+   * The summary of the merit of the population last scaled
+   */
+  FitnessSummary summary = new FitnessSummary();
+
+  /**
+   * Constructor
+   */
+  public StreamingScaler() {
+    super();
+  }
+
+  /**
+   * Performs fitness scaling on an evaluated population by summarizing the
+   * merit of its genomes in one pass and setting the scaled fitness of each
+   * genome in a second pass.
+   */
+  public void scale(Population pop) throws GAException {
+    double[] raw;            // the population's raw fitness column
+    double[] scaled;         // the population's scaled fitness column
+    double weight;           // the selection weight of a genome
+    boolean minimize;
+    int count;               // the number of genomes in the population
+    int i;
+
+    pop.refreshFitnessColumns();
+    if (pop.unevaluatedCount > 0) {
+      throw new GAException(
+        "You must evaluate a genome before scaling it.");
+    }
+    raw = pop.getRawFitnessColumn();
+    scaled = pop.getScaledFitnessColumn();
+    count = raw.length;
+    if (count == 0) {
+      return;
+    }
+    minimize = ((Genome)pop.getGenomes().firstElement()).minimize;
+
+    // summarize the merit of the population
+    summary.clear();
+    for (i = 0; i < count; i++) {
+      summary.add(minimize ? -raw[i] : raw[i]);
+    }
+    this.prepare(summary);
+
+    // set the scaled fitness of each genome
+    for (i = 0; i < count; i++) {
+      weight = this.weight(minimize ? -raw[i] : raw[i], summary);
+      scaled[i] = minimize ? 1 / weight : weight;
+    }
+    pop.writeScaledFitness();
+  }
+
+  /**
+   * Returns the summary of the merit of the population last scaled
+   */
+  public FitnessSummary getSummary() {
+    return summary;
+  }
+
+  /**
+   * Called once per scaling after the summary is complete and before any
+   * weights are computed, so that subclasses can compute constants for the
+   * generation.  In this abstract class, this method does nothing.
+   * @param s The summary of the merit of the population
+   */
+  protected void prepare(FitnessSummary s) {
+  }
+
+  /**
+   * Returns the selection weight of a genome.  The weight must be
+   * non-negative and must not decrease as merit increases.
+   * @param merit The raw fitness of the genome if maximizing, or its
+   * negative if minimizing
+   * @param s The summary of the merit of the population
+   */
+  protected abstract double weight(double merit, FitnessSummary s);
+}
@@ -10,12 +10,14 @@ package jGeneticAlgorithm;
 import cern.jet.random.engine.RandomEngine;
 import cern.jet.random.Uniform;
 import java.util.Vector;
-import java.util.Collections;
 
 /**
  * This Selector selects a genome from a Population in order to produce
  * offspring.  It does so in a "tournamemt" of N randomly selected
- * genomes, where the most fit one is selected.
+ * genomes, where the most fit one is selected.  The genomes in the
+ * tournament may optionally be drawn without replacement, and the
+ * tournament may be made probabilistic so that the most fit genome wins
+ * only with a given probability.  Selection creates no objects.
  */
 public class TournamentSelector extends Selector {
 
@@ -42,6 +44,31 @@ public class TournamentSelector extends Selector {
    */
   boolean selectFromArchive = false;
 
+  /**
+   * Set to true in order to draw the genomes in a tournament without
+   * replacement, so that no genome appears in a tournament twice
+   */
+  boolean withoutReplacement = false;
+
+  /**
+   * The probability that the most fit genome in a tournament wins.  If it
+   * does not, the next most fit wins with the same probability, and so on.
+   * A value of 1 gives the ordinary deterministic tournament.
+   */
+  double selectionProbability = 1.0;
+
+  /**
+   * A permutation of the indices of the selection pool, partially shuffled
+   * to draw tournaments without replacement
+   */
+  int[] permutation = new int[0];
+
+  /**
+   * The indices of the genomes in the current tournament, used by
+   * probabilistic tournaments
+   */
+  int[] contestants = new int[0];
+
   /**
    * Constructor
    * @param e A RanomEngine object from the cern.jet.random.engine library
@@ -54,6 +81,15 @@ public class TournamentSelector extends Selector {
     this.setNumberInTournament(n);
   }
 
+  /**
+   * Sets the random number generator used by this selector
+   * @param e A random number generator from cern.jet.random.engine library
+   */
+  public void setRandomEngine(RandomEngine e) {
+    super.setRandomEngine(e);
+    uniform = new Uniform(e);
+  }
+
   /**
    * Sets the number of genomes to select for the tournament
    * @param n The number of genomes to select
@@ -73,6 +109,44 @@ public class TournamentSelector extends Selector {
     return numberInTournament;
   }
 
+  public boolean isWithoutReplacement() {
+    return withoutReplacement;
+  }
+
+  public void setWithoutReplacement(boolean withoutReplacement) {
+    this.withoutReplacement = withoutReplacement;
+  }
+
+  /**
+   * Sets the probability that the most fit genome in a tournament wins
+   * @param p The probability.  Must be greater than 0 and no more than 1.
+   */
+  public void setSelectionProbability(double p) throws GAException {
+    if (!(p > 0 && p <= 1)) {
+      throw new GAException(
+          "The selection probability must be in the interval (0, 1]");
+    }
+    selectionProbability = p;
+  }
+
+  /**
+   * Returns the probability that the most fit genome in a tournament wins
+   */
+  public double getSelectionProbability() {
+    return selectionProbability;
+  }
+
+
+  /**
+   * Returns the archive of the population if selecting from the archive,
+   * otherwise its genome list.
+   */
+  public Vector getSelectionPool(Population p) {
+    if (selectFromArchive) {
+      return p.getArchive();
+    }
+    return p.getGenomes();
+  }
 
   /**
    * Returns a selected genome from the given population using tournament
@@ -84,27 +158,110 @@ public class TournamentSelector extends Selector {
    */
   public Genome selectFrom(Population p) throws GAException {
     Vector genomes;      // the vector of genomes in the population
-    Vector selectedGenomes;  // those genomes randomly selected for the tournament
-    Genome g;
-    int maxIndex;        // The max index of the genomes vector
+
+    genomes = getSelectionPool(p);
+    return (Genome)genomes.elementAt(selectIndex(genomes));
+  }
+
+  /**
+   * Returns true, since this selector implements selectInto directly
+   */
+  protected boolean selectsInBatches() {
+    return true;
+  }
+
+  /**
+   * Runs count tournaments on the given population and writes the index of
+   * each winner in the selection pool into outIndices.
+   */
+  public void selectInto(Population p, int count, int[] outIndices)
+      throws GAException {
+    Vector genomes;      // the vector of genomes in the population
     int i;
 
-    selectedGenomes = new Vector(numberInTournament);
-    if (selectFromArchive) {
-      genomes = p.getArchive();
-    } else {
-      genomes = p.getGenomes();
+    if (outIndices.length < count) {
+      throw new GAException(
+          "The index array is too small to hold " + count + " selections");
     }
-    maxIndex = genomes.size() - 1;
+    genomes = getSelectionPool(p);
+    for (i = 0; i < count; i++) {
+      outIndices[i] = selectIndex(genomes);
+    }
+  }
 
-    for (i = 0; i < numberInTournament; i++) {
-      g = (Genome)genomes.elementAt(uniform.nextIntFromTo(0, maxIndex));
-      selectedGenomes.add(g);
+  /**
+   * Runs one tournament on the given genomes and returns the index of the
+   * winner.  Among genomes of equal fitness, the one drawn first wins.
+   * @param genomes The genomes to select from
+   */
+  int selectIndex(Vector genomes) throws GAException {
+    Genome best, g;
+    int maxIndex;        // The max index of the genomes vector
+    int bestIndex, index;
+    int size;            // the number of genomes in the tournament
+    int i, j, t;
+
+    maxIndex = genomes.size() - 1;
+    if (maxIndex < 0) {
+      throw new GAException("There are no genomes to select from");
+    }
+    size = numberInTournament;
+    if (withoutReplacement) {
+      if (size > maxIndex + 1) {
+        size = maxIndex + 1;
+      }
+      if (permutation.length != maxIndex + 1) {
+        permutation = new int[maxIndex + 1];
+        for (i = 0; i <= maxIndex; i++) {
+          permutation[i] = i;
+        }
+      }
+    }
+    if (selectionProbability < 1.0 && contestants.length < size) {
+      contestants = new int[size];
     }
 
-    // Sort the selected genomes by fitness
-    Collections.sort(selectedGenomes);
-    return (Genome)selectedGenomes.firstElement();
+    bestIndex = -1;
+    best = null;
+    for (i = 0; i < size; i++) {
+      // draw the next genome for the tournament
+      if (withoutReplacement) {
+        j = uniform.nextIntFromTo(i, maxIndex);
+        index = permutation[j];
+        permutation[j] = permutation[i];
+        permutation[i] = index;
+      } else {
+        index = uniform.nextIntFromTo(0, maxIndex);
+      }
 
+      if (selectionProbability < 1.0) {
+        // insert it in fitness order behind any genomes of equal fitness
+        g = (Genome)genomes.elementAt(index);
+        j = i;
+        while (j > 0
+            && g.compareTo(genomes.elementAt(contestants[j - 1])) < 0) {
+          contestants[j] = contestants[j - 1];
+          j--;
+        }
+        contestants[j] = index;
+      } else {
+        // keep the most fit genome so far
+        g = (Genome)genomes.elementAt(index);
+        if (best == null || g.compareTo(best) < 0) {
+          best = g;
+          bestIndex = index;
+        }
+      }
+    }
+
+    if (selectionProbability < 1.0) {
+      for (t = 0; t < size - 1; t++) {
+        if (uniform.nextDouble() < selectionProbability) {
+          return contestants[t];
+        }
+      }
+      return contestants[size - 1];
+    }
+    return bestIndex;
   }
 }
\ No newline at end of file
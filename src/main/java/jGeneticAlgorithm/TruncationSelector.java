@@ -0,0 +1,226 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import cern.jet.random.engine.RandomEngine;
+
+/**
+ * This Selector selects Genomes for producing offspring uniformly at random
+ * from the most fit fraction of the population, by raw fitness.  The most
+ * fit genomes are found with a quickselect partition of the population,
+ * which takes time proportional to the population size, rather than by
+ * sorting it.  Used with a replacement rate of 1, so that the parents
+ * do not survive, this selector gives a (mu, lambda) evolution strategy
+ * where mu is the number of genomes kept.
+ */
+public class TruncationSelector extends Selector {
+
+  /**
+   * The fraction of the population from which parents are selected
+   */
+  double truncationFraction;
+
+  /**
+   * The indices of the genomes in the population, partitioned so that the
+   * first numberKept are the most fit
+   */
+  int[] order = new int[0];
+
+  /**
+   * The sort key of each genome: its raw fitness, negated if maximizing, so
+   * that smaller keys are more fit
+   */
+  double[] keys = new double[0];
+
+  /**
+   * The number of genomes from which parents are selected, or 0 if the
+   * selector has not been initialized
+   */
+  int numberKept = 0;
+
+  /**
+   * Constructor
+   * @param e A random number generator from cern.jet.random.engine library
+   * @param fraction The fraction of the population from which parents are
+   * selected.  Must be greater than 0 and no more than 1.
+   */
+  public TruncationSelector(RandomEngine e, double fraction)
+      throws GAException {
+    super(e);
+    this.setTruncationFraction(fraction);
+  }
+
+  /**
+   * Sets the fraction of the population from which parents are selected
+   * @param fraction The fraction.  Must be greater than 0 and no more than 1.
+   */
+  public void setTruncationFraction(double fraction) throws GAException {
+    if (!(fraction > 0 && fraction <= 1)) {
+      throw new GAException(
+          "The truncation fraction must be in the interval (0, 1]");
+    }
+    truncationFraction = fraction;
+  }
+
+  /**
+   * Returns the fraction of the population from which parents are selected
+   */
+  public double getTruncationFraction() {
+    return truncationFraction;
+  }
+
+  /**
+   * Returns the number of genomes from which parents were selected after
+   * the last initialization
+   */
+  public int getNumberKept() {
+    return numberKept;
+  }
+
+  /**
+   * Initializes the selector to perform selections on the given population
+   * with its current fitness values by partitioning out its most fit
+   * genomes.  This method must be called at each generation before
+   * selection can begin.
+   */
+  public void initializeWith(Population p) {
+    double[] raw;        // the raw fitness of each genome
+    boolean minimize;
+    int i, n;
+
+    p.refreshFitnessColumns();
+    raw = p.getRawFitnessColumn();
+    n = raw.length;
+    if (n == 0) {
+      numberKept = 0;
+      return;
+    }
+    if (order.length < n) {
+      order = new int[n];
+      keys = new double[n];
+    }
+    minimize = ((Genome)p.getGenomes().firstElement()).minimize;
+    for (i = 0; i < n; i++) {
+      order[i] = i;
+      keys[i] = minimize ? raw[i] : -raw[i];
+    }
+
+    numberKept = (int)Math.ceil(truncationFraction * n);
+    if (numberKept > n) {
+      numberKept = n;
+    }
+    if (numberKept < n) {
+      select(order, keys, n, numberKept);
+    }
+  }
+
+  /**
+   * Partitions the first n entries of an order array so that the k indices
+   * with the smallest keys come first, in no particular order.
+   * @param order Indices into keys
+   * @param keys The key of each index
+   */
+  static void select(int[] order, double[] keys, int n, int k) {
+    double pivot;
+    int left, right, i, j, mid;
+
+    left = 0;
+    right = n - 1;
+    while (left < right) {
+      // take the median of three as the pivot
+      mid = (left + right) >>> 1;
+      if (keys[order[mid]] < keys[order[left]]) {
+        swap(order, mid, left);
+      }
+      if (keys[order[right]] < keys[order[left]]) {
+        swap(order, right, left);
+      }
+      if (keys[order[right]] < keys[order[mid]]) {
+        swap(order, right, mid);
+      }
+      pivot = keys[order[mid]];
+
+      // partition around the pivot
+      i = left;
+      j = right;
+      while (i <= j) {
+        while (keys[order[i]] < pivot) {
+          i++;
+        }
+        while (keys[order[j]] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          swap(order, i, j);
+          i++;
+          j--;
+        }
+      }
+
+      // continue in the part that holds the kth position
+      if (k - 1 <= j) {
+        right = j;
+      } else if (k - 1 >= i) {
+        left = i;
+      } else {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Exchanges two entries of an order array
+   */
+  static void swap(int[] order, int i, int j) {
+    int t;
+
+    t = order[i];
+    order[i] = order[j];
+    order[j] = t;
+  }
+
+  /**
+   * Returns a genome selected uniformly at random from the most fit
+   * genomes of the given population
+   */
+  public Genome selectFrom(Population p) throws GAException {
+    if (numberKept == 0) {
+      throw new GAException(
+        "You must initialize the TruncationSelector prior to use.");
+    }
+    return (Genome)p.getGenomes().elementAt(order[randomIndex(numberKept)]);
+  }
+
+  /**
+   * Returns true, since this selector implements selectInto directly
+   */
+  protected boolean selectsInBatches() {
+    return true;
+  }
+
+  /**
+   * Selects count genomes uniformly at random from the most fit genomes of
+   * the given population and writes their indices into outIndices.
+   */
+  public void selectInto(Population p, int count, int[] outIndices)
+      throws GAException {
+    int i;
+
+    if (numberKept == 0) {
+      throw new GAException(
+        "You must initialize the TruncationSelector prior to use.");
+    }
+    if (outIndices.length < count) {
+      throw new GAException(
+          "The index array is too small to hold " + count + " selections");
+    }
+    for (i = 0; i < count; i++) {
+      outIndices[i] = order[randomIndex(numberKept)];
+    }
+  }
+}
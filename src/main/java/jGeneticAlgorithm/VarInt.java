@@ -0,0 +1,92 @@
+package jGeneticAlgorithm;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * Variable length encoding of integers, seven bits to a byte with the high
+ * bit set on every byte but the last.  Signed values are zigzag encoded
+ * first, so that values near zero of either sign take a single byte.
+ */
+class VarInt {
+
+  /**
+   * Returns a signed value mapped to an unsigned one, 0, -1, 1, -2, ... to
+   * 0, 1, 2, 3, ...
+   */
+  static long zigzag(long v) {
+    return (v << 1) ^ (v >> 63);
+  }
+
+  /**
+   * Returns the signed value of a zigzag encoded value
+   */
+  static long unzigzag(long v) {
+    return (v >>> 1) ^ -(v & 1);
+  }
+
+  /**
+   * Returns the number of bytes used to write an unsigned value
+   */
+  static int size(long v) {
+    int n;
+
+    n = 1;
+    while ((v & ~0x7FL) != 0) {
+      v >>>= 7;
+      n++;
+    }
+    return n;
+  }
+
+  /**
+   * Writes an unsigned value
+   */
+  static void put(ByteBuffer out, long v) {
+    while ((v & ~0x7FL) != 0) {
+      out.put((byte)((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    out.put((byte)v);
+  }
+
+  /**
+   * Writes a signed value
+   */
+  static void putSigned(ByteBuffer out, long v) {
+    put(out, zigzag(v));
+  }
+
+  /**
+   * Reads an unsigned value
+   */
+  static long get(ByteBuffer in) throws GAException {
+    long v;
+    int shift;
+    byte b;
+
+    v = 0;
+    for (shift = 0; shift < 64; shift += 7) {
+      b = in.get();
+      v |= (long)(b & 0x7F) << shift;
+      if (b >= 0) {
+        return v;
+      }
+    }
+    throw new GAException("Malformed variable length integer");
+  }
+
+  /**
+   * Reads a signed value
+   */
+  static long getSigned(ByteBuffer in) throws GAException {
+    return unzigzag(get(in));
+  }
+
+}
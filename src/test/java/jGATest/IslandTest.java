@@ -0,0 +1,131 @@
+package jGATest;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import jGeneticAlgorithm.*;
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import cern.jet.random.engine.*;
+
+/**
+ * A test class not intended for use external to the jGeneticAlgorithm package.
+ * Runs a distributed island model on one host.  Run without arguments, it
+ * starts one JVM per island, each running this class with the number of its
+ * island and the loopback ports of every island, and prints what each island
+ * reports.  Each island evolves its own population and exchanges migrants
+ * with the others through an IslandNode.
+ */
+public class IslandTest {
+  public static void main(String[] args) throws Exception {
+    if (args.length > 0) {
+      runIsland(Integer.parseInt(args[0]),
+          Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+
+    int numIslands = 4;
+    Vector<Process> islands = new Vector<Process>();
+    Vector<String> command = new Vector<String>();
+    int i;
+
+    command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(IslandTest.class.getName());
+    command.add("0");
+    for (i = 0; i < numIslands; i++) {
+      ServerSocket socket = new ServerSocket(0);  // find a free port
+      command.add(Integer.toString(socket.getLocalPort()));
+      socket.close();
+    }
+    for (i = 0; i < numIslands; i++) {
+      command.set(4, Integer.toString(i));
+      islands.add(new ProcessBuilder(command).redirectErrorStream(true)
+          .start());
+    }
+    for (i = 0; i < numIslands; i++) {
+      Process p = islands.get(i);
+      BufferedReader output = new BufferedReader(
+          new InputStreamReader(p.getInputStream()));
+      String line;
+      while ((line = output.readLine()) != null) {
+        System.out.println(line);
+      }
+      System.out.println("Island " + i + " exited with " + p.waitFor());
+    }
+  }
+
+  /**
+   * Evolves one island, migrating to every other island every three
+   * generations, and prints its best fitness and migration counts
+   */
+  public static void runIsland(int island, String[] ports) throws Exception {
+    RandomEngine engine;
+    AlleleSet[] alleleSets;
+    ObjectGenome mom;
+    Vector populations;
+    Vector specs;
+    Population pop;
+    InetSocketAddress[] addresses;
+    IslandNode node;
+    int genomeLength = 10;
+    int popSize = 100;
+    int generations = 200;
+    int i;
+
+    engine = new MersenneTwister(100 + island);
+    alleleSets = new AlleleSet[genomeLength];
+    for (i = 0; i < genomeLength; i++) {
+      alleleSets[i] = new RealAlleleSet(engine, 0, 20);
+    }
+    mom = new ObjectGenome(alleleSets, engine);
+    mom.setMutationRate(0.1);
+    mom.minimize = true;
+    mom.initialize();
+
+    pop = new Population(engine);
+    pop.setReplacementRate(.9);
+    pop.setCrossoverRate(0.8);
+    pop.setScalingObject(new RankScaler());
+    pop.setSelectionObject(new TournamentSelector(engine, 2));
+    pop.initializeWith(mom, popSize);
+    populations = new Vector();
+    populations.add(pop);
+    specs = new Vector();
+    specs.add(new Species(populations, 0, engine));
+
+    GA ga = new GA(generations, new ParallelEvaluator(new FitnessFunction() {
+      public double evaluate(Genome g) {
+        AlleleValue[] values = ((ObjectGenome)g).getAlleleValues();
+        double fitness = 0;
+        for (int j = 0; j < values.length; j++) {
+          fitness += Math.abs(((RealAlleleValue)values[j]).value - j);
+        }
+        return fitness;
+      }
+    }), specs);
+
+    addresses = new InetSocketAddress[ports.length];
+    for (i = 0; i < ports.length; i++) {
+      addresses[i] = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+          Integer.parseInt(ports[i]));
+    }
+    node = new IslandNode(ga, pop, island, addresses);
+    node.setTopology(IslandTopology.FULLY_CONNECTED);
+    node.setMigrationInterval(3);
+    node.setMigrantCount(2);
+    ga.evolve();
+    node.close();
+
+    System.out.println("Island " + island + ": best " + pop.getBest().getRawFitness()
+      + ", sent " + node.getSentCount() + ", received " + node.getReceivedCount()
+      + ", accepted " + node.getAcceptedCount() + ", dropped " + node.getDroppedCount()
+      + (node.getLastFailure() == null ? "" : ", failure " + node.getLastFailure()));
+  }
+}
@@ -0,0 +1,298 @@
+package jGATest;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import jGeneticAlgorithm.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import cern.jet.random.engine.*;
+
+/**
+ * A test class not intended for use external to the jGeneticAlgorithm package.
+ * Writes the state of a GA to disk in each of the ways the package offers,
+ * reads it back, and checks that the state read is the state written: a
+ * Checkpointer checkpoint restored into a new GA, a genome log written in
+ * several segments, an off-heap population mapped from files, and a
+ * persistent fitness store reopened from its file.
+ */
+public class PersistenceTest {
+
+  /**
+   * The distance of each allele from its position
+   */
+  static final FitnessFunction FITNESS = new FitnessFunction() {
+    public double evaluate(Genome g) {
+      AlleleValue[] values = ((ObjectGenome)g).getAlleleValues();
+      double fitness = 0;
+      for (int j = 0; j < values.length; j++) {
+        fitness += Math.abs(((RealAlleleValue)values[j]).value - j);
+      }
+      return fitness;
+    }
+  };
+
+  public static void main(String[] args) throws Exception {
+    File directory = Files.createTempDirectory("jGATest").toFile();
+
+    try {
+      checkpoint(directory);
+      genomeLog(directory);
+      offHeapPopulation(directory);
+      fitnessStore(directory);
+    }
+    finally {
+      delete(directory);
+    }
+  }
+
+  /**
+   * Evolves a GA with a checkpoint part way, restores the checkpoint into a
+   * new GA seeded differently, and checks that both end with the same
+   * genomes
+   */
+  public static void checkpoint(File directory) throws Exception {
+    File file = new File(directory, "checkpoint.bin");
+    Vector<Population> original = new Vector<Population>();
+    Vector<Population> restored = new Vector<Population>();
+    GA ga;
+    Checkpointer checkpointer;
+    int expected, actual;
+
+    ga = build(original, 55);
+    checkpointer = new Checkpointer(ga, file, 12);
+    ga.stepNGenerations(12);
+    checkpointer.close();
+    ga.evolve();
+    expected = hash(original);
+
+    ga = build(restored, 56);
+    Checkpointer.restore(ga, file);
+    ga.evolve();
+    actual = hash(restored);
+    System.out.println("Checkpoint restored: " + actual
+      + (actual == expected ? " (identical)" : " (DIFFERENT)"));
+  }
+
+  /**
+   * Records every genome evaluated by a GA in a log of small segments, reads
+   * the log back, and checks that each record decodes to a genome with the
+   * fitness recorded
+   */
+  public static void genomeLog(File directory) throws Exception {
+    Vector<Population> populations = new Vector<Population>();
+    GenomeRecorder recorder;
+    GenomeLogReader reader;
+    GenomeRecord record;
+    Genome template;
+    GA ga;
+    long count = 0;
+    int wrong = 0;
+
+    ga = build(populations, 55);
+    recorder = new GenomeRecorder(directory, "log", 4096, 1024);
+    ga.setGenomeRecorder(recorder);
+    ga.evolve();
+    recorder.close();
+
+    template = (Genome)populations.elementAt(0).getGenomes().elementAt(0);
+    reader = new GenomeLogReader(directory, "log");
+    while ((record = reader.next()) != null) {
+      count++;
+      if (FITNESS.evaluate(record.toGenome(template))
+          != record.getRawFitness()) {
+        wrong++;
+      }
+    }
+    reader.close();
+    System.out.println("Genome log read " + count + " of "
+      + recorder.getRecordCount() + " records from "
+      + recorder.getSegmentCount() + " segments"
+      + (count == recorder.getRecordCount() && wrong == 0
+          && reader.getTruncatedCount() == 0 ? " (identical)" : " (DIFFERENT)"));
+  }
+
+  /**
+   * Evolves an off-heap population held in files, maps the file of the
+   * last generation again, and checks that it holds the same genomes
+   */
+  public static void offHeapPopulation(File directory) throws Exception {
+    RandomEngine engine;
+    AlleleSet[] alleleSets;
+    OffHeapPopulation pop;
+    OffHeapFitnessFunction f;
+    GenomeStore store;
+    OffHeapGenome view;
+    int expected, actual;
+    int genomeLength = 10;
+    int popSize = 1000;
+    int i;
+
+    engine = new MersenneTwister(55);
+    alleleSets = new AlleleSet[genomeLength];
+    for (i = 0; i < genomeLength; i++) {
+      alleleSets[i] = i % 2 == 0 ? new RealAlleleSet(engine, 0, 20)
+          : new IntegerAlleleSet(engine, 0, 20);
+    }
+    pop = new OffHeapPopulation(alleleSets, popSize, engine, directory);
+    pop.setMutationRate(0.1);
+    pop.setMinimize(true);
+    f = g -> {
+      double fitness = 0;
+      for (int j = 0; j < g.getLength(); j++) {
+        fitness += Math.abs(g.getValue(j) - j);
+      }
+      return fitness;
+    };
+    pop.initialize();
+    for (i = 0; i < 5; i++) {
+      pop.evaluate(f);
+      pop.evolveNextGeneration();
+    }
+    pop.evaluate(f);
+    pop.force();
+
+    expected = 0;
+    for (i = 0; i < popSize; i++) {
+      expected = 31 * expected + hash(pop.getGenome(i));
+    }
+    store = new GenomeStore(popSize, pop.getStore().getChromosomeBytes(),
+        pop.getStore().getFile());
+    view = new OffHeapGenome(alleleSets, engine);
+    actual = 0;
+    for (i = 0; i < popSize; i++) {
+      view.moveTo(store, i);
+      actual = 31 * actual + hash(view);
+    }
+    System.out.println("Off-heap population reopened: " + actual
+      + (actual == expected ? " (identical)" : " (DIFFERENT)"));
+  }
+
+  /**
+   * Stores the fitness of the genomes of an evolved GA in a persistent
+   * fitness store, reopens the store, and checks that it returns the same
+   * fitness for each genome
+   */
+  public static void fitnessStore(File directory) throws Exception {
+    File file = new File(directory, "fitness.bin");
+    Vector<Population> populations = new Vector<Population>();
+    Vector<Genome> genomes = new Vector<Genome>();
+    PersistentFitnessStore store;
+    GA ga;
+    Double fitness;
+    int wrong = 0;
+    int i;
+
+    ga = build(populations, 55);
+    ga.evolve();
+    ga.evaluate();  // evaluate the children of the last generation
+    for (i = 0; i < populations.size(); i++) {
+      genomes.addAll(populations.elementAt(i).getGenomes());
+    }
+    store = new PersistentFitnessStore(file, 4 * genomes.size());
+    for (i = 0; i < genomes.size(); i++) {
+      store.put(genomes.elementAt(i), genomes.elementAt(i).getRawFitness());
+    }
+    store.close();
+
+    store = new PersistentFitnessStore(file, 4 * genomes.size());
+    for (i = 0; i < genomes.size(); i++) {
+      fitness = store.get(genomes.elementAt(i));
+      if (fitness == null
+          || fitness.doubleValue() != genomes.elementAt(i).getRawFitness()) {
+        wrong++;
+      }
+    }
+    store.close();
+    System.out.println("Fitness store reopened: " + (genomes.size() - wrong)
+      + " of " + genomes.size() + " genomes found"
+      + (wrong == 0 ? " (identical)" : " (DIFFERENT)"));
+  }
+
+  /**
+   * Returns a GA of four seeded populations to evolve for thirty generations,
+   * and adds its populations to a vector
+   * @param populations The vector to which the populations are added
+   * @param seed The seed of the random number generators
+   */
+  public static GA build(Vector<Population> populations, int seed)
+      throws GAException, CloneNotSupportedException {
+    RandomEngine engine;
+    AlleleSet[] alleleSets;
+    ObjectGenome mom;
+    Vector specs;
+    Population pop;
+    int genomeLength = 10;
+    int numPopulations = 4;
+    int popSize = 50;
+    int generations = 30;
+    int i;
+
+    engine = new MersenneTwister(seed);
+    alleleSets = new AlleleSet[genomeLength];
+    for (i = 0; i < genomeLength; i++) {
+      alleleSets[i] = new RealAlleleSet(engine, 0, 20);
+    }
+    mom = new ObjectGenome(alleleSets, engine);
+    mom.setMutationRate(0.1);
+    mom.minimize = true;
+    mom.initialize();
+
+    for (i = 0; i < numPopulations; i++) {
+      pop = new Population(engine);
+      pop.setReplacementRate(.9);
+      pop.setCrossoverRate(0.8);
+      pop.setScalingObject(new RankScaler());
+      pop.setSelectionObject(new TournamentSelector(engine, 2));
+      populations.add(pop);
+    }
+    specs = new Vector();
+    specs.add(new Species(new Vector(populations), 0.05, engine));
+
+    new RandomStreamFactory(seed).assignStreams(specs);
+    for (i = 0; i < numPopulations; i++) {
+      populations.elementAt(i).initializeWith(mom, popSize);
+    }
+    return new GA(generations, new ParallelEvaluator(FITNESS), specs);
+  }
+
+  /**
+   * Returns a hash of the genomes of every population
+   */
+  static int hash(Vector<Population> populations) {
+    int hash = 0;
+    int i;
+
+    for (i = 0; i < populations.size(); i++) {
+      hash = 31 * hash + populations.elementAt(i).getGenomes().hashCode();
+    }
+    return hash;
+  }
+
+  /**
+   * Returns a hash of the alleles and fitness of an off-heap genome
+   */
+  static int hash(OffHeapGenome g) {
+    return Objects.hash(g.toString(), g.getRawFitness(), g.getIsEvaluated());
+  }
+
+  /**
+   * Deletes a file, or a directory and everything in it
+   */
+  static void delete(File file) {
+    File[] files = file.listFiles();
+    int i;
+
+    if (files != null) {
+      for (i = 0; i < files.length; i++) {
+        delete(files[i]);
+      }
+    }
+    file.delete();
+  }
+}
@@ -0,0 +1,104 @@
+package jGATest;
+
+/**
+ * Title:        JGeneticAlgorithm
+ * Description:  A Java implementation of genetic algorithms
+ * @author Robert Kewley
+ * @version 1.0
+ */
+
+import jGeneticAlgorithm.*;
+import java.util.*;
+import java.util.concurrent.*;
+import cern.jet.random.engine.*;
+
+/**
+ * A test class not intended for use external to the jGeneticAlgorithm package.
+ * Runs the same seeded island model one population at a time and on thread
+ * pools of different sizes, and checks that every run ends with the same
+ * genomes.
+ */
+public class ReproducibilityTest {
+  public static void main(String[] args) throws GAException, CloneNotSupportedException {
+    int sequential = run(null);
+    int[] threads = {1, 2, 8};
+    int i;
+
+    System.out.println("Sequential run: " + sequential);
+    for (i = 0; i < threads.length; i++) {
+      ForkJoinPool pool = new ForkJoinPool(threads[i]);
+      int parallel = run(pool);
+      pool.shutdown();
+      System.out.println(threads[i] + " threads: " + parallel
+        + (parallel == sequential ? " (identical)" : " (DIFFERENT)"));
+    }
+  }
+
+  /**
+   * Evolves eight populations with migration and returns a hash of the final
+   * genomes of every population
+   */
+  public static int run(ExecutorService executor) throws GAException, CloneNotSupportedException {
+    RandomEngine engine;
+    AlleleSet[] alleleSets;
+    ObjectGenome mom;
+    Vector populations;
+    Vector specs;
+    Population pop;
+    int genomeLength = 10;
+    int numPopulations = 8;
+    int popSize = 50;
+    int generations = 30;
+    int hash;
+    int i;
+
+    // a single engine and allele set array, as in the other tests
+    engine = new MersenneTwister(55);
+    alleleSets = new AlleleSet[genomeLength];
+    for (i = 0; i < genomeLength; i++) {
+      alleleSets[i] = new RealAlleleSet(engine, 0, 20);
+    }
+    mom = new ObjectGenome(alleleSets, engine);
+    mom.setMutationRate(0.1);
+    mom.minimize = true;
+    mom.initialize();
+
+    populations = new Vector();
+    for (i = 0; i < numPopulations; i++) {
+      pop = new Population(engine);
+      pop.setReplacementRate(.9);
+      pop.setCrossoverRate(0.8);
+      pop.setScalingObject(new RankScaler());
+      pop.setSelectionObject(new TournamentSelector(engine, 2));
+      populations.add(pop);
+    }
+    specs = new Vector();
+    specs.add(new Species(populations, 0.05, engine));
+
+    // give each species and population its own stream before initializing
+    new RandomStreamFactory(20021).assignStreams(specs);
+    for (i = 0; i < numPopulations; i++) {
+      ((Population)populations.get(i)).initializeWith(mom, popSize);
+    }
+
+    GA ga = new GA(generations, new ParallelEvaluator(new FitnessFunction() {
+      public double evaluate(Genome g) {
+        AlleleValue[] values = ((ObjectGenome)g).getAlleleValues();
+        double fitness = 0;
+        for (int j = 0; j < values.length; j++) {
+          fitness += Math.abs(((RealAlleleValue)values[j]).value - j);
+        }
+        return fitness;
+      }
+    }), specs);
+    ga.setExecutor(executor);
+    ga.evolve();
+
+    hash = 0;
+    for (i = 0; i < numPopulations; i++) {
+      pop = (Population)populations.get(i);
+      hash = 31 * hash + pop.getGenomes().hashCode();
+    }
+    return hash;
+  }
+}